@@ -0,0 +1,32 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada que ejecuta los benchmarks con el perfilador de GC activado, de modo que junto
+ * al tiempo se informa de la tasa de asignación ({@code gc.alloc.rate.norm}, bytes por operación).
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        throw new AssertionError("Utility class, not instantiable");
+    }
+
+    /**
+     * Ejecuta los benchmarks cuyo nombre coincide con la expresión indicada, o todos si no se indica.
+     *
+     * @param args Expresión regular opcional para filtrar benchmarks
+     * @throws RunnerException Si JMH no puede ejecutar los benchmarks
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "benchmark\\..*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
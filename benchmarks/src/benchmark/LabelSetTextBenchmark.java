@@ -0,0 +1,47 @@
+package benchmark;
+
+import components.Label;
+import core.Vector2D;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste de cambiar el texto de una {@link Label} en cada fotograma, el patrón típico de
+ * marcadores y contadores. Incluye la construcción de la cadena, como haría el código de juego.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class LabelSetTextBenchmark {
+
+    /** Etiqueta medida */
+    private Label label;
+
+    /** Contador que cambia el texto en cada invocación */
+    private int counter;
+
+    /**
+     * Crea la etiqueta.
+     */
+    @Setup
+    public void setUp() {
+        label = new Label(new Vector2D(0, 0), "Score: 0", new Font("Dialog", Font.PLAIN, 16));
+    }
+
+    @Benchmark
+    public Label changingText() {
+        label.setText("Score: " + counter++);
+        return label;
+    }
+
+    @Benchmark
+    public Label sameText() {
+        label.setText("Score: 0");
+        return label;
+    }
+}
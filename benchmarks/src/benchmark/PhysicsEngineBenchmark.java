@@ -0,0 +1,55 @@
+package benchmark;
+
+import core.Vector2D;
+import org.openjdk.jmh.annotations.*;
+import physics.GameObject;
+import physics.PhysicsEngine;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide un paso completo de {@link PhysicsEngine#update(double)} con distintos números de objetos.
+ * Los objetos se reparten en una rejilla con velocidades aleatorias y sin gravedad, de modo que
+ * hay contactos en cada paso pero la escena no colapsa en una pila que se duerma.
+ * La escena se reconstruye en cada iteración para que todas midan un estado comparable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PhysicsEngineBenchmark {
+
+    /** Paso fijo de simulación */
+    private static final double DELTA_TIME = 1.0 / 60.0;
+
+    /** Número de objetos de la escena */
+    @Param({"1000", "10000", "100000"})
+    public int bodyCount;
+
+    /** Motor medido */
+    private PhysicsEngine engine;
+
+    /**
+     * Construye una escena nueva con semilla fija.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        engine = new PhysicsEngine(new Vector2D(0, 0));
+        Random random = new Random(42);
+        int columns = (int) Math.ceil(Math.sqrt(bodyCount));
+        for (int i = 0; i < bodyCount; i++) {
+            GameObject gameObject = new GameObject(new Vector2D((i % columns) * 40.0, (i / columns) * 40.0), 1);
+            gameObject.setVelocity(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+            engine.addGameObject(gameObject);
+        }
+    }
+
+    @Benchmark
+    public PhysicsEngine update() {
+        engine.update(DELTA_TIME);
+        return engine;
+    }
+}
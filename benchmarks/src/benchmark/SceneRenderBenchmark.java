@@ -0,0 +1,85 @@
+package benchmark;
+
+import components.Button;
+import components.Label;
+import core.Core;
+import core.Vector2D;
+import input.KeyBoard;
+import input.Mouse;
+import org.openjdk.jmh.annotations.*;
+import physics.GameObject;
+import physics.PhysicsEngine;
+import scene.Scene;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link Scene#render(Graphics2D, double)} de escenas mixtas de botones, etiquetas y objetos
+ * de juego sobre una imagen en memoria, sin ventana.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SceneRenderBenchmark {
+
+    /** Ancho de la imagen de destino */
+    private static final int WIDTH = 1280;
+
+    /** Alto de la imagen de destino */
+    private static final int HEIGHT = 720;
+
+    /** Número de elementos de cada tipo en la escena */
+    @Param({"10", "100", "1000"})
+    public int elementsPerKind;
+
+    /** Escena medida */
+    private Scene scene;
+
+    /** Imagen de destino */
+    private BufferedImage target;
+
+    /** Contexto gráfico de la imagen de destino */
+    private Graphics2D graphics;
+
+    /**
+     * Construye la escena repartiendo los elementos por la imagen.
+     */
+    @Setup
+    public void setUp() {
+        Core.mouse = new Mouse();
+        Core.keyboard = new KeyBoard();
+        PhysicsEngine engine = new PhysicsEngine(new Vector2D(0, 0));
+        scene = new Scene(engine);
+        Font font = new Font("Dialog", Font.PLAIN, 14);
+        for (int i = 0; i < elementsPerKind; i++) {
+            double x = (i * 97) % WIDTH;
+            double y = (i * 53) % HEIGHT;
+            Button button = new Button(new Vector2D(x, y));
+            button.setText("Button " + i, font);
+            scene.addComponent(button);
+            scene.addComponent(new Label(new Vector2D(y, x % HEIGHT), "Label " + i, font));
+            engine.addGameObject(new GameObject(new Vector2D((x + 40) % WIDTH, (y + 40) % HEIGHT)));
+        }
+        target = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = target.createGraphics();
+    }
+
+    /**
+     * Libera el contexto gráfico.
+     */
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        scene.render(graphics, 1.0);
+        return target;
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import core.MutableVector2D;
+import core.Vector2D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las operaciones de {@link Vector2D} frente a sus equivalentes en {@link MutableVector2D}.
+ * Con el perfilador de GC se ve el coste en bytes de cada vector inmutable creado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vector2DBenchmark {
+
+    /** Primer operando */
+    private Vector2D a;
+
+    /** Segundo operando */
+    private Vector2D b;
+
+    /** Vector mutable reutilizado entre invocaciones */
+    private MutableVector2D mutable;
+
+    /**
+     * Prepara los operandos. Se leen de campos no finales para que el compilador no pliegue constantes.
+     */
+    @Setup
+    public void setUp() {
+        a = new Vector2D(3.5, -1.25);
+        b = new Vector2D(-0.75, 8.0);
+        mutable = new MutableVector2D();
+    }
+
+    @Benchmark
+    public Vector2D add() {
+        return Vector2D.add(a, b);
+    }
+
+    @Benchmark
+    public Vector2D multiply() {
+        return Vector2D.multiply(a, 1.5);
+    }
+
+    @Benchmark
+    public Vector2D normalize() {
+        return Vector2D.normalize(a);
+    }
+
+    @Benchmark
+    public double magnitude() {
+        return Vector2D.getMagnitude(a);
+    }
+
+    @Benchmark
+    public double distance() {
+        return Vector2D.getDistance(a, b);
+    }
+
+    @Benchmark
+    public double angle() {
+        return a.getAngle();
+    }
+
+    /**
+     * Cadena típica de integración (v = (v + a * dt) normalizada) con vectores inmutables.
+     */
+    @Benchmark
+    public Vector2D immutableChain() {
+        return Vector2D.normalize(Vector2D.add(a, Vector2D.multiply(b, 0.016)));
+    }
+
+    /**
+     * La misma cadena sobre un vector mutable reutilizado.
+     */
+    @Benchmark
+    public MutableVector2D mutableChain() {
+        return mutable.set(a).add(b.getX() * 0.016, b.getY() * 0.016).normalize();
+    }
+}
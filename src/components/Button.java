@@ -2,7 +2,10 @@ package components;
 
 import core.Core;
 import core.Vector2D;
+import render.DirtyRegion;
+import render.DrawCommandBuffer;
 import resource.DataLoad;
+import resource.ImageHandle;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
@@ -13,13 +16,13 @@ import java.awt.image.BufferedImage;
 public class Button extends Component {
 
     /** Imagen por defecto del botón (obligatoria) */
-    private final BufferedImage defaultImage;
+    private final ImageHandle defaultImage;
     
     /** Imagen que se muestra al pasar el ratón por encima (opcional) */
-    private final BufferedImage hoverImage;
+    private final ImageHandle hoverImage;
     
     /** Imagen que se muestra al hacer clic (opcional) */
-    private final BufferedImage clickImage;
+    private final ImageHandle clickImage;
     
     /** Tipo de botón según las imágenes disponibles */
     private final ButtonType buttonType;
@@ -46,8 +49,8 @@ public class Button extends Component {
      * @param buttonType Tipo de botón según las imágenes proporcionadas
      * @throws IllegalArgumentException Si defaultImage es null
      */
-    private Button(Vector2D position, BufferedImage defaultImage, BufferedImage hoverImage,
-                  BufferedImage clickImage, ButtonType buttonType) {
+    private Button(Vector2D position, ImageHandle defaultImage, ImageHandle hoverImage,
+                  ImageHandle clickImage, ButtonType buttonType) {
         super(position,
                 defaultImage != null ? defaultImage.getWidth() : 0,
                 defaultImage != null ? defaultImage.getHeight() : 0);
@@ -69,7 +72,7 @@ public class Button extends Component {
      * @param position Posición del botón
      */
     public Button(Vector2D position) {
-        this(position, DataLoad.BUTTON_BLUE, null, null, ButtonType.ONE_IMAGE);
+        this(position, DataLoad.BUTTON_BLUE.duplicate(), null, null, ButtonType.ONE_IMAGE);
     }
 
     /**
@@ -80,7 +83,7 @@ public class Button extends Component {
      * @throws IllegalArgumentException Si defaultImage es null
      */
     public Button(Vector2D position, BufferedImage defaultImage) {
-        this(position, defaultImage, null, null, ButtonType.ONE_IMAGE);
+        this(position, wrap(defaultImage), null, null, ButtonType.ONE_IMAGE);
     }
 
     /**
@@ -92,7 +95,7 @@ public class Button extends Component {
      * @throws IllegalArgumentException Si defaultImage es null
      */
     public Button(Vector2D position, BufferedImage defaultImage, BufferedImage hoverImage) {
-        this(position, defaultImage, hoverImage, null, ButtonType.TWO_IMAGE);
+        this(position, wrap(defaultImage), wrap(hoverImage), null, ButtonType.TWO_IMAGE);
     }
 
     /**
@@ -106,15 +109,65 @@ public class Button extends Component {
      */
     public Button(Vector2D position, BufferedImage defaultImage,
                  BufferedImage hoverImage, BufferedImage clickImage) {
-        this(position, defaultImage, hoverImage, clickImage, ButtonType.THREE_IMAGE);
+        this(position, wrap(defaultImage), wrap(hoverImage), wrap(clickImage), ButtonType.THREE_IMAGE);
+    }
+
+    /**
+     * Crea un botón con imágenes gestionadas por un {@link resource.AssetManager}.
+     * El botón pasa a ser propietario de las referencias y las libera en {@link #release()}.
+     * El tipo de botón depende de las imágenes proporcionadas.
+     *
+     * @param position Posición del botón
+     * @param defaultImage Referencia a la imagen por defecto
+     * @param hoverImage Referencia a la imagen para el estado hover (puede ser null)
+     * @param clickImage Referencia a la imagen para el estado click (puede ser null)
+     * @throws IllegalArgumentException Si defaultImage es null
+     */
+    public Button(Vector2D position, ImageHandle defaultImage, ImageHandle hoverImage, ImageHandle clickImage) {
+        this(position, defaultImage, hoverImage, clickImage,
+                clickImage != null ? ButtonType.THREE_IMAGE
+                        : hoverImage != null ? ButtonType.TWO_IMAGE : ButtonType.ONE_IMAGE);
+    }
+
+    /**
+     * Envuelve una imagen no gestionada en una referencia.
+     *
+     * @param image Imagen a envolver (puede ser null)
+     * @return Referencia a la imagen, o null si la imagen es nula
+     */
+    private static ImageHandle wrap(BufferedImage image) {
+        return image != null ? ImageHandle.of(image) : null;
+    }
+
+    /**
+     * Libera las referencias a las imágenes del botón para que el gestor pueda descartarlas.
+     * Debe llamarse cuando el botón deja de usarse; después ya no puede dibujarse.
+     */
+    public void release() {
+        defaultImage.release();
+        if (hoverImage != null) {
+            hoverImage.release();
+        }
+        if (clickImage != null) {
+            clickImage.release();
+        }
     }
 
     /**
      * Actualiza el estado del botón.
-     * Verifica la interacción del ratón y maneja los eventos de clic.
+     * Si el botón está registrado en un {@link PointerDispatcher}, los cambios de estado llegan
+     * como eventos y no hay nada que comprobar; si no, consulta el ratón y maneja los clics.
      */
     @Override
     public void update() {
+        if (getPointerDispatcher() != null) {
+            if (buttonLabel != null) {
+                buttonLabel.update();
+            }
+            return;
+        }
+        BufferedImage previousImage = getImageForCurrentState();
+
         // Actualizar el estado del botón
         isPressed = Core.mouse.isLeftButtonPressed();
         isHovered = containsPoint(Core.mouse.getX(), Core.mouse.getY());
@@ -135,12 +188,92 @@ public class Button extends Component {
             hasBeenClicked = false;
         }
 
+        // Sólo se redibuja si el cambio de estado cambia la imagen
+        if (getImageForCurrentState() != previousImage) {
+            invalidate();
+        }
+
         // Actualizar etiqueta si existe
         if (buttonLabel != null) {
             buttonLabel.update();
         }
     }
 
+    /**
+     * Los botones reciben eventos del puntero.
+     *
+     * @return true
+     */
+    @Override
+    protected boolean isPointerTarget() {
+        return true;
+    }
+
+    @Override
+    protected void pointerEntered() {
+        setPointerState(true, isPressed);
+    }
+
+    @Override
+    protected void pointerExited() {
+        setPointerState(false, isPressed);
+    }
+
+    /**
+     * Muestra el botón presionado y ejecuta su acción, como al consultar el ratón.
+     */
+    @Override
+    protected void pointerPressed() {
+        setPointerState(isHovered, true);
+        executeAction();
+    }
+
+    @Override
+    protected void pointerReleased() {
+        setPointerState(isHovered, false);
+    }
+
+    /**
+     * Cambia el estado del botón y lo redibuja si cambia la imagen.
+     *
+     * @param hovered true si el puntero está encima
+     * @param pressed true si el botón está presionado
+     */
+    private void setPointerState(boolean hovered, boolean pressed) {
+        BufferedImage previousImage = getImageForCurrentState();
+        isHovered = hovered;
+        isPressed = pressed;
+        if (getImageForCurrentState() != previousImage) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Asigna la región donde el botón y su etiqueta marcan sus cambios.
+     *
+     * @param dirtyRegion Región a utilizar, o null para dejar de marcar cambios
+     */
+    @Override
+    public void setDirtyRegion(DirtyRegion dirtyRegion) {
+        super.setDirtyRegion(dirtyRegion);
+        if (buttonLabel != null) {
+            buttonLabel.setDirtyRegion(dirtyRegion);
+        }
+    }
+
+    /**
+     * Asigna la capa que contiene al botón, también a su etiqueta.
+     *
+     * @param layer Capa contenedora, o null al sacarlo de ella
+     */
+    @Override
+    void setLayer(Layer layer) {
+        super.setLayer(layer);
+        if (buttonLabel != null) {
+            buttonLabel.setLayer(layer);
+        }
+    }
+
     /**
      * Renderiza el botón en el contexto gráfico proporcionado.
      *
@@ -160,6 +293,24 @@ public class Button extends Component {
         }
     }
 
+    /**
+     * Graba la imagen del estado actual del botón y, si existe, su etiqueta.
+     *
+     * @param buffer Lista donde se graban los comandos
+     * @throws NullPointerException Si la lista es nula
+     */
+    @Override
+    public void record(DrawCommandBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("Command buffer cannot be null");
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        buffer.drawImage(getImageForCurrentState(), (int) drawPosition.getX(), (int) drawPosition.getY());
+        if (buttonLabel != null) {
+            buttonLabel.record(buffer);
+        }
+    }
+
     /**
      * Obtiene la imagen correspondiente al estado actual del botón.
      *
@@ -167,12 +318,12 @@ public class Button extends Component {
      */
     private BufferedImage getImageForCurrentState() {
         if (buttonType == ButtonType.THREE_IMAGE && isHovered && isPressed) {
-            return clickImage != null ? clickImage : defaultImage;
+            return (clickImage != null ? clickImage : defaultImage).get();
         }
         if (buttonType != ButtonType.ONE_IMAGE && isHovered) {
-            return hoverImage != null ? hoverImage : defaultImage;
+            return (hoverImage != null ? hoverImage : defaultImage).get();
         }
-        return defaultImage;
+        return defaultImage.get();
     }
 
     /**
@@ -191,6 +342,9 @@ public class Button extends Component {
             buttonLabel = new Label(getPosition(), text, font);
             buttonLabel.setAnchorComponent(this);
             buttonLabel.setRenderAnchor(AnchorPoint.CENTER);
+            buttonLabel.setDirtyRegion(getDirtyRegion());
+            buttonLabel.setLayer(getLayer());
+            buttonLabel.invalidate();
         } else {
             buttonLabel.setText(text);
             buttonLabel.setTextFont(font);
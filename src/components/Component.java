@@ -1,7 +1,14 @@
 package components;
 
 import core.Vector2D;
+import render.DirtyRegion;
+import render.DrawCommandBuffer;
+import resource.ImageLoader;
+
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Clase abstracta base para todos los componentes de la interfaz de usuario.
@@ -27,6 +34,21 @@ public abstract class Component {
     /** Componente de referencia para el posicionamiento relativo */
     private Component anchorComponent;
 
+    /** Componentes anclados a éste, que se mueven al cambiar su tamaño (null si no hay ninguno) */
+    private List<Component> anchoredComponents;
+
+    /** Región donde se marcan los cambios visuales del componente (null si no se siguen) */
+    private DirtyRegion dirtyRegion;
+
+    /** Capa que contiene al componente y cachea su dibujado (null si no está en ninguna) */
+    private Layer layer;
+
+    /** Repartidor que entrega al componente los eventos del puntero (null si no está registrado) */
+    private PointerDispatcher pointerDispatcher;
+
+    /** Instantáneas usadas por la grabación por defecto (null si nunca se ha grabado) */
+    private List<RecordedImage> snapshots;
+
     /**
      * Crea un nuevo componente con la posición y dimensiones especificadas.
      *
@@ -60,6 +82,216 @@ public abstract class Component {
      */
     public abstract void render(Graphics2D g);
 
+    /**
+     * Graba los comandos de dibujo del componente para que otro hilo los reproduzca.
+     * Debe grabar sólo primitivas con los valores actuales (imágenes, textos, rectángulos), nunca
+     * el propio componente, ya que el hilo de actualización lo sigue modificando mientras el de
+     * renderizado reproduce la lista.
+     * Por defecto dibuja el componente con {@link #render(Graphics2D)} en una instantánea, en este
+     * mismo hilo, y graba la instantánea, con un píxel de margen como {@link #invalidate()}. Las
+     * instantáneas no se modifican mientras una lista pendiente las use. Las subclases pueden
+     * sobrescribirlo para grabar primitivas y ahorrarse la copia.
+     *
+     * @param buffer Lista donde se graban los comandos
+     * @throws NullPointerException Si la lista es nula
+     */
+    public void record(DrawCommandBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("Command buffer cannot be null");
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        int left = (int) Math.floor(drawPosition.getX()) - 1;
+        int top = (int) Math.floor(drawPosition.getY()) - 1;
+        int right = (int) Math.ceil(drawPosition.getX() + width) + 1;
+        int bottom = (int) Math.ceil(drawPosition.getY() + height) + 1;
+        if (snapshots == null) {
+            snapshots = new ArrayList<>();
+        }
+        RecordedImage snapshot = RecordedImage.free(snapshots);
+        BufferedImage image = snapshot.image;
+        if (image == null || image.getWidth() != right - left || image.getHeight() != bottom - top) {
+            image = ImageLoader.createTranslucent(right - left, bottom - top);
+            snapshot.image = image;
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setComposite(AlphaComposite.SrcOver);
+            g.translate(-left, -top);
+            render(g);
+        } finally {
+            g.dispose();
+        }
+        snapshot.recordedInto(buffer);
+        buffer.drawImage(image, left, top);
+    }
+
+    /**
+     * Marca el área que ocupa el componente para que se redibuje en el modo de regiones sucias.
+     * Las subclases deben llamarlo cuando cambie su aspecto sin cambiar su posición ni su tamaño,
+     * que ya se marcan solos. Si el componente está en una {@link Layer}, además se avisa a la
+     * capa para que vuelva a dibujar esa zona de su imagen. Sin región ni capa no hace nada.
+     */
+    public void invalidate() {
+        if (dirtyRegion == null && layer == null) {
+            return;
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        // Un píxel de margen cubre el suavizado del texto y el redondeo de la posición
+        double x = drawPosition.getX() - 1;
+        double y = drawPosition.getY() - 1;
+        if (dirtyRegion != null) {
+            dirtyRegion.add(x, y, width + 2, height + 2);
+        }
+        if (layer != null) {
+            layer.childInvalidated(x, y, width + 2, height + 2);
+        }
+    }
+
+    /**
+     * Asigna la capa que contiene al componente. La establece la propia capa al añadirlo.
+     *
+     * @param layer Capa contenedora, o null al sacarlo de ella
+     */
+    void setLayer(Layer layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Obtiene la capa que contiene al componente.
+     *
+     * @return Capa contenedora, o null si no está en ninguna
+     */
+    Layer getLayer() {
+        return layer;
+    }
+
+    /**
+     * Registra el componente en el repartidor de eventos del puntero, quitándolo del anterior.
+     * Lo establece la escena al añadir el componente.
+     *
+     * @param pointerDispatcher Repartidor a utilizar, o null para quitarlo
+     */
+    public void setPointerDispatcher(PointerDispatcher pointerDispatcher) {
+        if (this.pointerDispatcher != null) {
+            this.pointerDispatcher.remove(this);
+        }
+        this.pointerDispatcher = pointerDispatcher;
+        if (pointerDispatcher != null) {
+            pointerDispatcher.add(this);
+        }
+    }
+
+    /**
+     * Obtiene el repartidor de eventos del puntero del componente.
+     *
+     * @return Repartidor, o null si no está registrado en ninguno
+     */
+    public PointerDispatcher getPointerDispatcher() {
+        return pointerDispatcher;
+    }
+
+    /**
+     * Indica si el componente recibe eventos del puntero y puede taparse con otros al buscar el de
+     * encima. Por defecto no; lo activan los componentes interactivos como {@link Button}.
+     *
+     * @return true si el repartidor debe indexar el componente
+     */
+    protected boolean isPointerTarget() {
+        return false;
+    }
+
+    /**
+     * Indica si el componente está anclado a otro, y por tanto se mueve con él.
+     *
+     * @return true si tiene componente de referencia
+     */
+    boolean isAnchored() {
+        return anchorComponent != null;
+    }
+
+    /**
+     * Se llama cuando el puntero entra en el componente, o cuando éste pasa a estar encima.
+     */
+    protected void pointerEntered() {
+    }
+
+    /**
+     * Se llama cuando el puntero sale del componente, o cuando otro pasa a taparlo.
+     */
+    protected void pointerExited() {
+    }
+
+    /**
+     * Se llama cuando se presiona el botón con el puntero sobre el componente.
+     */
+    protected void pointerPressed() {
+    }
+
+    /**
+     * Se llama cuando se libera el botón tras presionarlo sobre el componente, esté donde esté el puntero.
+     */
+    protected void pointerReleased() {
+    }
+
+    /**
+     * Se llama tras {@link #pointerReleased()} si el botón se liberó sobre el mismo componente.
+     */
+    protected void pointerClicked() {
+    }
+
+    /**
+     * Marca el área de los componentes anclados a éste, cuya posición depende de su tamaño.
+     */
+    private void invalidateAnchored() {
+        if (anchoredComponents == null) {
+            return;
+        }
+        for (int i = 0; i < anchoredComponents.size(); i++) {
+            anchoredComponents.get(i).invalidate();
+        }
+    }
+
+    /**
+     * Avisa al repartidor de que la zona del componente ha cambiado.
+     */
+    private void notifyMoved() {
+        if (pointerDispatcher != null) {
+            pointerDispatcher.componentMoved(this);
+        }
+    }
+
+    /**
+     * Asigna la región donde el componente marca sus cambios. La establece la escena al añadir
+     * el componente cuando el modo de regiones sucias está activado.
+     *
+     * @param dirtyRegion Región a utilizar, o null para dejar de marcar cambios
+     */
+    public void setDirtyRegion(DirtyRegion dirtyRegion) {
+        this.dirtyRegion = dirtyRegion;
+    }
+
+    /**
+     * Obtiene la región donde el componente marca sus cambios.
+     *
+     * @return Región asignada, o null si no se siguen los cambios
+     */
+    public DirtyRegion getDirtyRegion() {
+        return dirtyRegion;
+    }
+
+    /**
+     * Indica si el área que ocupa el componente se solapa con un rectángulo de pantalla.
+     *
+     * @param area Rectángulo a comprobar
+     * @return true si el componente debe redibujarse para cubrir el rectángulo
+     */
+    public boolean intersects(Rectangle area) {
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        return area.intersects(drawPosition.getX() - 1, drawPosition.getY() - 1, width + 2, height + 2);
+    }
+
     /**
      * Ejecuta la acción asociada al componente, si existe.
      */
@@ -70,15 +302,17 @@ public abstract class Component {
     }
 
     /**
-     * Verifica si el punto (x,y) está dentro de los límites del componente.
+     * Verifica si el punto (x,y) está dentro de los límites del componente, tal como se dibuja
+     * teniendo en cuenta el anclaje.
      *
      * @param x Coordenada x del punto a verificar
      * @param y Coordenada y del punto a verificar
      * @return true si el punto está dentro del componente, false en caso contrario
      */
     public boolean containsPoint(int x, int y) {
-        return x >= position.getX() && x < position.getX() + width &&
-                y >= position.getY() && y < position.getY() + height;
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        return x >= drawPosition.getX() && x < drawPosition.getX() + width &&
+                y >= drawPosition.getY() && y < drawPosition.getY() + height;
     }
 
     public Vector2D getPosition() {
@@ -92,7 +326,10 @@ public abstract class Component {
      * @param y Nueva coordenada y
      */
     public void setPosition(double x, double y) {
+        invalidate();
         this.position = new Vector2D(x, y);
+        invalidate();
+        notifyMoved();
     }
 
     public int getWidth() {
@@ -109,7 +346,14 @@ public abstract class Component {
         if (width < 0) {
             throw new IllegalArgumentException("Width cannot be negative");
         }
-        this.width = width;
+        if (width != this.width) {
+            invalidate();
+            invalidateAnchored();
+            this.width = width;
+            invalidate();
+            invalidateAnchored();
+            notifyMoved();
+        }
     }
 
     public int getHeight() {
@@ -126,7 +370,14 @@ public abstract class Component {
         if (height < 0) {
             throw new IllegalArgumentException("Height cannot be negative");
         }
-        this.height = height;
+        if (height != this.height) {
+            invalidate();
+            invalidateAnchored();
+            this.height = height;
+            invalidate();
+            invalidateAnchored();
+            notifyMoved();
+        }
     }
 
     public Action getAction() {
@@ -145,11 +396,27 @@ public abstract class Component {
     /**
      * Establece el componente de referencia para posicionamiento relativo.
      * Cuando se establece, las coordenadas del componente serán relativas a este.
+     * Se marca el área del componente antes y después del cambio.
      *
      * @param anchorComponent Componente de referencia (puede ser null)
      */
     public void setAnchorComponent(Component anchorComponent) {
+        if (anchorComponent == this.anchorComponent) {
+            return;
+        }
+        invalidate();
+        if (this.anchorComponent != null) {
+            this.anchorComponent.anchoredComponents.remove(this);
+        }
         this.anchorComponent = anchorComponent;
+        if (anchorComponent != null) {
+            if (anchorComponent.anchoredComponents == null) {
+                anchorComponent.anchoredComponents = new ArrayList<>();
+            }
+            anchorComponent.anchoredComponents.add(this);
+        }
+        invalidate();
+        notifyMoved();
     }
 
     /**
@@ -170,11 +437,15 @@ public abstract class Component {
 
     /**
      * Establece el punto de anclaje para el renderizado del componente.
-     * Si se proporciona null, se usa TOP_LEFT por defecto.
+     * Si se proporciona null, se usa TOP_LEFT por defecto. Se marca el área del componente antes
+     * y después del cambio.
      *
      * @param renderAnchor Punto de anclaje a utilizar
      */
     public void setRenderAnchor(AnchorPoint renderAnchor) {
+        invalidate();
         this.renderAnchor = renderAnchor != null ? renderAnchor : AnchorPoint.TOP_LEFT;
+        invalidate();
+        notifyMoved();
     }
 }
\ No newline at end of file
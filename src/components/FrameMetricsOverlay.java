@@ -0,0 +1,100 @@
+package components;
+
+import core.FrameMetrics;
+import core.FrameMetrics.Phase;
+import core.Vector2D;
+
+import java.awt.*;
+
+/**
+ * Etiqueta de depuración que muestra los tiempos del bucle principal: percentiles 50 y 99 y
+ * máximo del fotograma, y el percentil 50 de actualización, física, dibujado y presentación.
+ * El texto sólo se regenera cada cierto número de actualizaciones para no añadir coste por fotograma.
+ */
+public class FrameMetricsOverlay extends Label {
+
+    /** Métricas que se muestran */
+    private final FrameMetrics metrics;
+
+    /** Constructor de texto reutilizado en cada refresco */
+    private final StringBuilder builder = new StringBuilder(128);
+
+    /** Número de actualizaciones entre refrescos del texto */
+    private int refreshInterval = 30;
+
+    /** Actualizaciones transcurridas desde el último refresco */
+    private int updatesSinceRefresh;
+
+    /**
+     * Crea una capa de métricas en la posición indicada.
+     *
+     * @param position Posición de la etiqueta
+     * @param font Fuente a utilizar (no puede ser null)
+     * @param metrics Métricas a mostrar, normalmente las de {@code Core.getFrameMetrics()}
+     * @throws IllegalArgumentException Si la fuente o las métricas son nulas
+     */
+    public FrameMetricsOverlay(Vector2D position, Font font, FrameMetrics metrics) {
+        super(position, "", font);
+        if (metrics == null) {
+            throw new IllegalArgumentException("Frame metrics cannot be null");
+        }
+        this.metrics = metrics;
+        setTextColor(Color.GREEN);
+    }
+
+    /**
+     * Regenera el texto si ha transcurrido el intervalo de refresco.
+     */
+    @Override
+    public void update() {
+        if (++updatesSinceRefresh < refreshInterval) {
+            return;
+        }
+        updatesSinceRefresh = 0;
+        builder.setLength(0);
+        builder.append("frame p50 ");
+        appendMillis(metrics.getPercentileMillis(Phase.FRAME, 50));
+        builder.append(" p99 ");
+        appendMillis(metrics.getPercentileMillis(Phase.FRAME, 99));
+        builder.append(" max ");
+        appendMillis(metrics.getMaxMillis(Phase.FRAME));
+        builder.append(" | upd ");
+        appendMillis(metrics.getPercentileMillis(Phase.UPDATE, 50));
+        builder.append(" phys ");
+        appendMillis(metrics.getPercentileMillis(Phase.PHYSICS, 50));
+        builder.append(" rnd ");
+        appendMillis(metrics.getPercentileMillis(Phase.RENDER, 50));
+        builder.append(" pres ");
+        appendMillis(metrics.getPercentileMillis(Phase.PRESENT, 50));
+        builder.append(" ms");
+        setText(builder.toString());
+    }
+
+    /**
+     * Añade un valor en milisegundos con dos decimales, sin usar {@link String#format}.
+     *
+     * @param millis Valor en milisegundos
+     */
+    private void appendMillis(double millis) {
+        long hundredths = Math.round(millis * 100);
+        builder.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        builder.append(fraction);
+    }
+
+    /**
+     * Establece cada cuántas actualizaciones se regenera el texto.
+     *
+     * @param refreshInterval Número de actualizaciones entre refrescos
+     * @throws IllegalArgumentException Si el valor es menor que 1
+     */
+    public void setRefreshInterval(int refreshInterval) {
+        if (refreshInterval < 1) {
+            throw new IllegalArgumentException("Refresh interval must be at least 1");
+        }
+        this.refreshInterval = refreshInterval;
+    }
+}
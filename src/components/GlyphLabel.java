@@ -0,0 +1,212 @@
+package components;
+
+import core.Vector2D;
+import render.DrawCommandBuffer;
+import render.GlyphAtlas;
+
+import java.awt.*;
+
+/**
+ * Etiqueta para textos que cambian en cada fotograma, como marcadores, temporizadores o
+ * lecturas de depuración. Compone el texto con un {@link GlyphAtlas} y lo guarda en un
+ * {@link StringBuilder} propio, por lo que {@link #setText(CharSequence)} y
+ * {@link #setNumber(long)} no crean objetos ni vuelven a medir el texto con la fuente.
+ * Sólo admite los caracteres del atlas (ASCII imprimible y Latin-1); para textos estáticos
+ * es preferible {@link Label}, que los cachea enteros.
+ */
+public class GlyphLabel extends Component {
+
+    /** Texto a mostrar, reutilizado en cada cambio */
+    private final StringBuilder text = new StringBuilder(32);
+
+    /** Fuente del texto */
+    private Font textFont;
+
+    /** Color del texto */
+    private Color textColor = Color.WHITE;
+
+    /** Indica si los glifos se suavizan */
+    private boolean antialiased = true;
+
+    /** Atlas con los glifos de la fuente y el color actuales */
+    private GlyphAtlas atlas;
+
+    /**
+     * Crea una etiqueta vacía con la fuente especificada.
+     *
+     * @param position Posición de la etiqueta
+     * @param font Fuente a utilizar (no puede ser null)
+     * @throws IllegalArgumentException Si la fuente es null
+     */
+    public GlyphLabel(Vector2D position, Font font) {
+        super(position, 0, 0);
+        if (font == null) {
+            throw new IllegalArgumentException("Font cannot be null");
+        }
+        this.textFont = font;
+        refreshAtlas();
+    }
+
+    /**
+     * Actualiza el estado de la etiqueta.
+     * No realiza ninguna operación; el texto se cambia desde fuera.
+     */
+    @Override
+    public void update() {
+        // El texto lo establece quien usa la etiqueta
+    }
+
+    /**
+     * Renderiza el texto copiando sus glifos desde el atlas.
+     *
+     * @param g Contexto gráfico donde se dibujará la etiqueta
+     * @throws NullPointerException Si el contexto gráfico es nulo
+     */
+    @Override
+    public void render(Graphics2D g) {
+        if (g == null) {
+            throw new NullPointerException("Graphics context cannot be null");
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        atlas.drawString(g, text, (int) drawPosition.getX(), (int) drawPosition.getY() + atlas.getAscent());
+    }
+
+    /**
+     * Graba el texto como un comando de glifos, que copia los caracteres a la lista.
+     *
+     * @param buffer Lista donde se graban los comandos
+     * @throws NullPointerException Si la lista es nula
+     */
+    @Override
+    public void record(DrawCommandBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("Command buffer cannot be null");
+        }
+        if (text.length() == 0) {
+            return;
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        buffer.drawGlyphs(atlas, text, (int) drawPosition.getX(), (int) drawPosition.getY() + atlas.getAscent());
+    }
+
+    /**
+     * Obtiene el texto actual. Es el contenedor interno: no debe modificarse ni conservarse,
+     * ya que cambia con la etiqueta.
+     *
+     * @return El texto de la etiqueta (nunca null)
+     */
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * Establece el texto copiando sus caracteres, sin crear objetos.
+     * Si se proporciona null, se usará una cadena vacía.
+     *
+     * @param text Nuevo texto para la etiqueta
+     */
+    public void setText(CharSequence text) {
+        invalidate();
+        this.text.setLength(0);
+        if (text != null) {
+            this.text.append(text);
+        }
+        recalculateDimensions();
+    }
+
+    /**
+     * Establece como texto un número entero, sin convertirlo antes a String.
+     *
+     * @param value Número a mostrar
+     */
+    public void setNumber(long value) {
+        invalidate();
+        text.setLength(0);
+        text.append(value);
+        recalculateDimensions();
+    }
+
+    /**
+     * Obtiene el color actual del texto.
+     *
+     * @return Color del texto (nunca null)
+     */
+    public Color getTextColor() {
+        return textColor;
+    }
+
+    /**
+     * Establece el color del texto. Cada color usa su propio atlas.
+     *
+     * @param textColor Nuevo color del texto
+     * @throws IllegalArgumentException Si el color es null
+     */
+    public void setTextColor(Color textColor) {
+        if (textColor == null) {
+            throw new IllegalArgumentException("Color cannot be null");
+        }
+        this.textColor = textColor;
+        invalidate();
+        refreshAtlas();
+    }
+
+    /**
+     * Obtiene la fuente actual del texto.
+     *
+     * @return Fuente del texto (nunca null)
+     */
+    public Font getTextFont() {
+        return textFont;
+    }
+
+    /**
+     * Establece la fuente del texto. Cada fuente usa su propio atlas.
+     *
+     * @param font Nueva fuente a utilizar (no puede ser null)
+     * @throws IllegalArgumentException Si la fuente es null
+     */
+    public void setTextFont(Font font) {
+        if (font == null) {
+            throw new IllegalArgumentException("Font cannot be null");
+        }
+        this.textFont = font;
+        invalidate();
+        refreshAtlas();
+    }
+
+    /**
+     * Indica si los glifos se suavizan.
+     *
+     * @return true si el texto se dibuja suavizado
+     */
+    public boolean isAntialiased() {
+        return antialiased;
+    }
+
+    /**
+     * Establece si los glifos se suavizan.
+     *
+     * @param antialiased true para suavizar el texto
+     */
+    public void setAntialiased(boolean antialiased) {
+        this.antialiased = antialiased;
+        invalidate();
+        refreshAtlas();
+    }
+
+    /**
+     * Obtiene el atlas de la fuente, el color y el suavizado actuales, y recalcula las dimensiones.
+     */
+    private void refreshAtlas() {
+        atlas = GlyphAtlas.get(textFont, textColor, antialiased);
+        recalculateDimensions();
+    }
+
+    /**
+     * Recalcula las dimensiones de la etiqueta a partir de los avances del atlas.
+     */
+    private void recalculateDimensions() {
+        setWidth(atlas.stringWidth(text));
+        setHeight(text.length() == 0 ? 0 : atlas.getHeight());
+    }
+}
@@ -1,10 +1,14 @@
 package components;
 
 import core.Vector2D;
+import render.DrawCommandBuffer;
+import render.TextRasterCache;
+
 import java.awt.*;
 import java.awt.font.FontRenderContext;
 import java.awt.font.LineMetrics;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 
 /**
  * Componente de interfaz de usuario que muestra texto.
@@ -15,6 +19,9 @@ public class Label extends Component {
     /** Contexto para el renderizado de fuentes */
     private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, true, true);
 
+    /** Imagen auxiliar para medir el ascendente con las mismas métricas enteras que al dibujar */
+    private static final BufferedImage MEASURE_IMAGE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
     /** Texto a mostrar en la etiqueta */
     private String text;
     
@@ -24,6 +31,12 @@ public class Label extends Component {
     /** Fuente del texto */
     private Font textFont;
 
+    /** Ascendente de la fuente en píxeles, el mismo al dibujar y al grabar comandos */
+    private int ascent;
+
+    /** Texto rasterizado de la caché; se descarta al cambiar el texto, la fuente o el color */
+    private TextRasterCache.Raster raster;
+
     /**
      * Crea una nueva etiqueta con la posición, texto y fuente especificados.
      *
@@ -40,6 +53,7 @@ public class Label extends Component {
         this.text = text != null ? text : "";
         this.textColor = Color.WHITE;
         this.textFont = font;
+        this.ascent = fontAscent(font);
         this.renderAnchor = AnchorPoint.TOP_LEFT;
         recalculateDimensions();
     }
@@ -65,16 +79,43 @@ public class Label extends Component {
             throw new NullPointerException("Graphics context cannot be null");
         }
 
-        g.setColor(textColor);
-        g.setFont(textFont);
+        if (text.isEmpty()) {
+            return;
+        }
 
         Vector2D drawPosition = getRenderDrawingCoordinates();
-        FontMetrics metrics = g.getFontMetrics(textFont);
-        int ascent = metrics.getAscent();
+        if (raster == null || !raster.matches(g)) {
+            raster = TextRasterCache.get(g, text, textFont, textColor);
+        }
+        if (raster != null) {
+            raster.draw(g, (int) drawPosition.getX(), (int) (drawPosition.getY() + ascent));
+            return;
+        }
 
+        // El contexto no admite textos cacheados (escala, rotación o suavizado LCD)
+        g.setColor(textColor);
+        g.setFont(textFont);
         g.drawString(text, (int) drawPosition.getX(), (int) (drawPosition.getY() + ascent));
     }
 
+    /**
+     * Graba el texto de la etiqueta como un único comando de texto.
+     *
+     * @param buffer Lista donde se graban los comandos
+     * @throws NullPointerException Si la lista es nula
+     */
+    @Override
+    public void record(DrawCommandBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("Command buffer cannot be null");
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        buffer.drawText(text, textFont, textColor, (int) drawPosition.getX(), (int) (drawPosition.getY() + ascent));
+    }
+
     /**
      * Obtiene el texto actual de la etiqueta.
      *
@@ -92,6 +133,8 @@ public class Label extends Component {
      */
     public void setText(String text) {
         this.text = text != null ? text : "";
+        raster = null;
+        invalidate();
         recalculateDimensions();
     }
 
@@ -112,6 +155,8 @@ public class Label extends Component {
      */
     public void setTextColor(Color textColor) {
         this.textColor = textColor != null ? textColor : Color.YELLOW;
+        raster = null;
+        invalidate();
     }
 
     /**
@@ -134,6 +179,9 @@ public class Label extends Component {
             throw new IllegalArgumentException("Font cannot be null");
         }
         this.textFont = font;
+        this.ascent = fontAscent(font);
+        raster = null;
+        invalidate();
         recalculateDimensions();
     }
 
@@ -154,4 +202,20 @@ public class Label extends Component {
         setWidth((int) Math.ceil(textBounds.getWidth()));
         setHeight((int) Math.ceil(textMetrics.getHeight()));
     }
+
+    /**
+     * Obtiene el ascendente de una fuente tal como lo da {@link FontMetrics}, que es el que se usó
+     * siempre para colocar el texto, sin depender del contexto gráfico de cada hilo.
+     *
+     * @param font Fuente a medir
+     * @return Ascendente en píxeles
+     */
+    private static int fontAscent(Font font) {
+        Graphics2D g = MEASURE_IMAGE.createGraphics();
+        try {
+            return g.getFontMetrics(font).getAscent();
+        } finally {
+            g.dispose();
+        }
+    }
 }
\ No newline at end of file
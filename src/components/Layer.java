@@ -0,0 +1,312 @@
+package components;
+
+import core.Vector2D;
+import render.DirtyRegion;
+import render.DrawCommandBuffer;
+import resource.ImageLoader;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Capa retenida que agrupa componentes y los dibuja en una imagen propia, que después se copia
+ * a la pantalla con una sola operación por fotograma. La imagen sólo se vuelve a dibujar cuando
+ * un hijo llama a {@link Component#invalidate()} (por ejemplo, un {@link Button} que cambia de
+ * estado o un {@link Label} al que se cambia el texto), y sólo en la zona que ocupa ese hijo,
+ * por lo que un HUD o un menú estático cuesta lo mismo tenga los componentes que tenga.
+ * Los hijos se colocan en coordenadas de pantalla, igual que fuera de la capa; la posición y el
+ * tamaño de la capa delimitan la zona cacheada y lo que quede fuera no se ve. Copiar la imagen
+ * cuesta en proporción a su área, así que conviene ajustar la capa a lo que contiene.
+ * Los hijos deben avisar de sus cambios de aspecto con {@link Component#invalidate()}; los que
+ * cambian sin avisar no se actualizan en pantalla.
+ */
+public class Layer extends Component {
+
+    /** Componentes de la capa, en orden de dibujado */
+    private final List<Component> children = new ArrayList<>();
+
+    /** Vista de sólo lectura de los hijos */
+    private final List<Component> childrenView = Collections.unmodifiableList(children);
+
+    /** Imagen con el dibujado de los hijos */
+    private BufferedImage cache;
+
+    /** Zona de pantalla pendiente de volver a dibujar en la imagen; vacía si está al día */
+    private final Rectangle pendingArea = new Rectangle();
+
+    /** Imágenes usadas al grabar comandos para otro hilo */
+    private final List<RecordedImage> recordedImages = new ArrayList<>();
+
+    /** Imagen grabada en el último fotograma (null si aún no se ha grabado) */
+    private RecordedImage recorded;
+
+    /** Indica si la imagen grabada en el último fotograma sigue al día */
+    private boolean recordedValid;
+
+    /** Número de veces que se ha vuelto a dibujar alguna imagen de la capa */
+    private long redrawCount;
+
+    /**
+     * Crea una capa vacía que cachea la zona indicada.
+     *
+     * @param position Posición de la esquina superior izquierda de la capa
+     * @param width Ancho de la capa (debe ser mayor que 0)
+     * @param height Alto de la capa (debe ser mayor que 0)
+     * @throws IllegalArgumentException Si width o height son menores o iguales a 0
+     */
+    public Layer(Vector2D position, int width, int height) {
+        super(position, width, height);
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Layer width and height must be greater than zero");
+        }
+    }
+
+    /**
+     * Añade un componente a la capa, por encima de los existentes.
+     *
+     * @param component Componente a añadir
+     * @throws IllegalArgumentException Si el componente es nulo o es la propia capa
+     */
+    public void add(Component component) {
+        if (component == null || component == this) {
+            throw new IllegalArgumentException("Component cannot be null or the layer itself");
+        }
+        children.add(component);
+        component.setLayer(this);
+        component.setDirtyRegion(getDirtyRegion());
+        component.setPointerDispatcher(getPointerDispatcher());
+        component.invalidate();
+    }
+
+    /**
+     * Quita un componente de la capa. Si no está en ella, no se realiza ninguna acción.
+     *
+     * @param component Componente a quitar
+     */
+    public void remove(Component component) {
+        if (component != null && children.remove(component)) {
+            component.invalidate();
+            component.setLayer(null);
+            component.setDirtyRegion(null);
+            component.setPointerDispatcher(null);
+        }
+    }
+
+    /**
+     * Obtiene los componentes de la capa.
+     *
+     * @return Vista de sólo lectura de los hijos, en orden de dibujado
+     */
+    public List<Component> getChildren() {
+        return childrenView;
+    }
+
+    /**
+     * Actualiza todos los hijos; los que cambien de aspecto marcarán su zona para redibujarla.
+     */
+    @Override
+    public void update() {
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).update();
+        }
+    }
+
+    /**
+     * Vuelve a dibujar en la imagen de la capa la zona pendiente, si la hay, y la copia al contexto.
+     *
+     * @param g Contexto gráfico donde se dibujará la capa
+     * @throws NullPointerException Si el contexto gráfico es nulo
+     */
+    @Override
+    public void render(Graphics2D g) {
+        if (g == null) {
+            throw new NullPointerException("Graphics context cannot be null");
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        int x = (int) drawPosition.getX();
+        int y = (int) drawPosition.getY();
+        if (cache == null) {
+            cache = ImageLoader.createTranslucent(getWidth(), getHeight());
+            pendingArea.setBounds(x, y, getWidth(), getHeight());
+        }
+        if (!pendingArea.isEmpty()) {
+            redraw(cache, x, y, pendingArea);
+            pendingArea.setBounds(0, 0, 0, 0);
+        }
+        g.drawImage(cache, x, y, null);
+    }
+
+    /**
+     * Graba la imagen de la capa. Como otro hilo puede estar aún presentando fotogramas anteriores,
+     * los cambios no se dibujan sobre una imagen grabada en una lista que no se haya vaciado desde
+     * entonces, sino sobre otra libre, que se vuelve a dibujar entera. Si todas pueden estar en uso,
+     * se crea una nueva.
+     *
+     * @param buffer Lista donde se graban los comandos
+     * @throws NullPointerException Si la lista es nula
+     */
+    @Override
+    public void record(DrawCommandBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("Command buffer cannot be null");
+        }
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        int x = (int) drawPosition.getX();
+        int y = (int) drawPosition.getY();
+        if (!recordedValid) {
+            RecordedImage target = RecordedImage.free(recordedImages);
+            if (target.image == null || target.image.getWidth() != getWidth()
+                    || target.image.getHeight() != getHeight()) {
+                target.image = ImageLoader.createTranslucent(getWidth(), getHeight());
+            }
+            redraw(target.image, x, y, new Rectangle(x, y, getWidth(), getHeight()));
+            recorded = target;
+            recordedValid = true;
+        }
+        recorded.recordedInto(buffer);
+        buffer.drawImage(recorded.image, x, y);
+    }
+
+    /**
+     * Borra una zona de la imagen y vuelve a dibujar en ella los hijos que la tocan.
+     *
+     * @param image Imagen de la capa
+     * @param originX Coordenada x de pantalla de la esquina de la imagen
+     * @param originY Coordenada y de pantalla de la esquina de la imagen
+     * @param area Zona a redibujar, en coordenadas de pantalla
+     */
+    private void redraw(BufferedImage image, int originX, int originY, Rectangle area) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.translate(-originX, -originY);
+            g.setClip(area);
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(area.x, area.y, area.width, area.height);
+            g.setComposite(AlphaComposite.SrcOver);
+            for (int i = 0; i < children.size(); i++) {
+                Component child = children.get(i);
+                if (child.intersects(area)) {
+                    child.render(g);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        redrawCount++;
+    }
+
+    /**
+     * Recibe el aviso de un hijo que ha cambiado y acumula su zona para redibujarla.
+     *
+     * @param x Coordenada x de pantalla de la zona
+     * @param y Coordenada y de pantalla de la zona
+     * @param w Ancho de la zona
+     * @param h Alto de la zona
+     */
+    void childInvalidated(double x, double y, double w, double h) {
+        int left = (int) Math.floor(x);
+        int top = (int) Math.floor(y);
+        int right = (int) Math.ceil(x + w);
+        int bottom = (int) Math.ceil(y + h);
+        if (left >= right || top >= bottom) {
+            return;
+        }
+        if (pendingArea.isEmpty()) {
+            pendingArea.setBounds(left, top, right - left, bottom - top);
+        } else {
+            pendingArea.add(new Rectangle(left, top, right - left, bottom - top));
+        }
+        recordedValid = false;
+    }
+
+    /**
+     * Marca toda la capa para volver a dibujarla.
+     */
+    private void invalidateAll() {
+        Vector2D drawPosition = getRenderDrawingCoordinates();
+        childInvalidated(drawPosition.getX(), drawPosition.getY(), getWidth(), getHeight());
+    }
+
+    /**
+     * Mueve la zona cacheada de la capa; los hijos no se mueven.
+     *
+     * @param x Nueva coordenada x
+     * @param y Nueva coordenada y
+     */
+    @Override
+    public void setPosition(double x, double y) {
+        super.setPosition(x, y);
+        invalidateAll();
+    }
+
+    /**
+     * Cambia el ancho de la zona cacheada, descartando la imagen.
+     *
+     * @param width Nuevo ancho (debe ser mayor que 0)
+     * @throws IllegalArgumentException Si el ancho es menor o igual a 0
+     */
+    @Override
+    public void setWidth(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Layer width must be greater than zero");
+        }
+        super.setWidth(width);
+        cache = null;
+        recordedValid = false;
+    }
+
+    /**
+     * Cambia el alto de la zona cacheada, descartando la imagen.
+     *
+     * @param height Nuevo alto (debe ser mayor que 0)
+     * @throws IllegalArgumentException Si el alto es menor o igual a 0
+     */
+    @Override
+    public void setHeight(int height) {
+        if (height <= 0) {
+            throw new IllegalArgumentException("Layer height must be greater than zero");
+        }
+        super.setHeight(height);
+        cache = null;
+        recordedValid = false;
+    }
+
+    /**
+     * Asigna la región donde la capa y sus hijos marcan sus cambios.
+     *
+     * @param dirtyRegion Región a utilizar, o null para dejar de marcar cambios
+     */
+    @Override
+    public void setDirtyRegion(DirtyRegion dirtyRegion) {
+        super.setDirtyRegion(dirtyRegion);
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).setDirtyRegion(dirtyRegion);
+        }
+    }
+
+    /**
+     * Registra la capa y sus hijos en el repartidor de eventos del puntero.
+     *
+     * @param pointerDispatcher Repartidor a utilizar, o null para quitarlos
+     */
+    @Override
+    public void setPointerDispatcher(PointerDispatcher pointerDispatcher) {
+        super.setPointerDispatcher(pointerDispatcher);
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).setPointerDispatcher(pointerDispatcher);
+        }
+    }
+
+    /**
+     * Obtiene cuántas veces se ha vuelto a dibujar alguna imagen de la capa, para comprobar
+     * que una interfaz estática no se redibuja.
+     *
+     * @return Número de redibujados
+     */
+    public long getRedrawCount() {
+        return redrawCount;
+    }
+}
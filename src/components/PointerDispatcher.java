@@ -0,0 +1,349 @@
+package components;
+
+import core.Vector2D;
+import input.Mouse;
+import input.PointerListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reparte los eventos del puntero entre los componentes, en lugar de que cada uno consulte el
+ * ratón en cada fotograma. Los componentes que aceptan el puntero se guardan en una rejilla
+ * uniforme según la zona donde se dibujan, y en cada evento sólo se comprueban los de la celda
+ * del puntero. Sólo reciben avisos los componentes afectados: el que el puntero deja, el que
+ * alcanza y el que se presiona. Si el puntero no se mueve ni se pulsa, no se hace nada.
+ * El componente de encima es el último registrado, que es el último en dibujarse.
+ * Los componentes anclados a otro se mueven con él sin avisar, así que se comprueban siempre
+ * aparte de la rejilla; suelen ser pocos.
+ */
+public class PointerDispatcher implements PointerListener {
+
+    /** Lado de las celdas de la rejilla en píxeles */
+    private static final int CELL_SIZE = 64;
+
+    /** Registro de cada componente */
+    private final Map<Component, Entry> entries = new IdentityHashMap<>();
+
+    /** Componentes de cada celda, por clave empaquetada */
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+
+    /** Componentes anclados, que se comprueban fuera de la rejilla */
+    private final List<Entry> anchored = new ArrayList<>();
+
+    /** Componentes cuya zona ha cambiado desde el último evento */
+    private final List<Entry> moved = new ArrayList<>();
+
+    /** Orden del próximo componente registrado */
+    private long nextOrder;
+
+    /** Componente bajo el puntero (null si no hay ninguno) */
+    private Component hovered;
+
+    /** Componente sobre el que se presionó el botón, hasta que se libera (null si no hay) */
+    private Component pressed;
+
+    /** Última posición conocida del puntero */
+    private int pointerX;
+
+    private int pointerY;
+
+    /** Indica si ya se ha recibido la posición del puntero */
+    private boolean started;
+
+    /** Indica si algo ha cambiado bajo el puntero y hay que volver a buscar el componente de encima */
+    private boolean hoverStale;
+
+    /**
+     * Entrega los eventos del ratón ocurridos desde la llamada anterior. La primera vez toma
+     * la posición actual del puntero.
+     *
+     * @param mouse Ratón de donde se leen los eventos
+     * @throws NullPointerException Si el ratón es nulo
+     */
+    public void dispatch(Mouse mouse) {
+        if (mouse == null) {
+            throw new NullPointerException("Mouse cannot be null");
+        }
+        if (!started) {
+            pointerMoved(mouse.getX(), mouse.getY());
+        }
+        mouse.dispatchEvents(this);
+        if (hoverStale) {
+            pointerMoved(pointerX, pointerY);
+        }
+    }
+
+    @Override
+    public void pointerMoved(int x, int y) {
+        pointerX = x;
+        pointerY = y;
+        started = true;
+        hoverStale = false;
+        Component target = findTopmost(x, y);
+        if (target != hovered) {
+            Component previous = hovered;
+            hovered = target;
+            if (previous != null) {
+                previous.pointerExited();
+            }
+            if (target != null) {
+                target.pointerEntered();
+            }
+        }
+    }
+
+    @Override
+    public void pointerPressed(int x, int y) {
+        pointerMoved(x, y);
+        pressed = hovered;
+        if (pressed != null) {
+            pressed.pointerPressed();
+        }
+    }
+
+    @Override
+    public void pointerReleased(int x, int y) {
+        pointerMoved(x, y);
+        Component target = pressed;
+        pressed = null;
+        if (target != null) {
+            target.pointerReleased();
+            if (target == hovered) {
+                target.pointerClicked();
+            }
+        }
+    }
+
+    /**
+     * Busca el componente de encima que contiene un punto.
+     *
+     * @param x Coordenada x de pantalla
+     * @param y Coordenada y de pantalla
+     * @return El componente, o null si el punto no cae en ninguno
+     */
+    public Component findTopmost(int x, int y) {
+        refreshMoved();
+        Entry best = null;
+        List<Entry> cell = cells.get(cellKey(Math.floorDiv(x, CELL_SIZE), Math.floorDiv(y, CELL_SIZE)));
+        if (cell != null) {
+            best = topmost(cell, x, y, null);
+        }
+        best = topmost(anchored, x, y, best);
+        return best != null ? best.component : null;
+    }
+
+    /**
+     * Busca entre unos registros el de encima que contiene un punto.
+     *
+     * @param candidates Registros a comprobar
+     * @param x Coordenada x de pantalla
+     * @param y Coordenada y de pantalla
+     * @param best Mejor registro encontrado hasta ahora (puede ser null)
+     * @return El mejor registro, o null si no hay ninguno
+     */
+    private static Entry topmost(List<Entry> candidates, int x, int y, Entry best) {
+        for (int i = 0; i < candidates.size(); i++) {
+            Entry entry = candidates.get(i);
+            if ((best == null || entry.order > best.order) && entry.component.containsPoint(x, y)) {
+                best = entry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Registra un componente. Sólo se indexan los que aceptan el puntero.
+     *
+     * @param component Componente a registrar
+     */
+    void add(Component component) {
+        if (!component.isPointerTarget() || entries.containsKey(component)) {
+            return;
+        }
+        Entry entry = new Entry(component, nextOrder++);
+        entries.put(component, entry);
+        place(entry);
+        hoverStale = true;
+    }
+
+    /**
+     * Quita un componente del registro. Si estaba bajo el puntero o presionado, deja de estarlo.
+     *
+     * @param component Componente a quitar
+     */
+    void remove(Component component) {
+        Entry entry = entries.remove(component);
+        if (entry == null) {
+            return;
+        }
+        if (entry.indexed) {
+            unindex(entry);
+        } else {
+            anchored.remove(entry);
+        }
+        if (entry.moved) {
+            moved.remove(entry);
+        }
+        if (pressed == component) {
+            pressed = null;
+            component.pointerReleased();
+        }
+        if (hovered == component) {
+            hovered = null;
+            component.pointerExited();
+        }
+        hoverStale = true;
+    }
+
+    /**
+     * Anota que la zona o el anclaje de un componente han cambiado; se reindexa en el próximo evento.
+     *
+     * @param component Componente movido, redimensionado o anclado
+     */
+    void componentMoved(Component component) {
+        Entry entry = entries.get(component);
+        if (entry != null && !entry.moved) {
+            entry.moved = true;
+            moved.add(entry);
+            hoverStale = true;
+        }
+    }
+
+    /**
+     * Reindexa los componentes cuya zona ha cambiado.
+     */
+    private void refreshMoved() {
+        for (int i = 0; i < moved.size(); i++) {
+            Entry entry = moved.get(i);
+            entry.moved = false;
+            if (entry.indexed) {
+                unindex(entry);
+            } else {
+                anchored.remove(entry);
+            }
+            place(entry);
+        }
+        moved.clear();
+    }
+
+    /**
+     * Coloca un registro en la rejilla, o en la lista de anclados si su componente lo está.
+     *
+     * @param entry Registro a colocar
+     */
+    private void place(Entry entry) {
+        if (entry.component.isAnchored()) {
+            anchored.add(entry);
+        } else {
+            index(entry);
+        }
+    }
+
+    /**
+     * Añade un registro a las celdas que cubre la zona de su componente.
+     *
+     * @param entry Registro a indexar
+     */
+    private void index(Entry entry) {
+        Component component = entry.component;
+        Vector2D drawPosition = component.getRenderDrawingCoordinates();
+        double x = drawPosition.getX();
+        double y = drawPosition.getY();
+        entry.minCellX = (int) Math.floor(x / CELL_SIZE);
+        entry.minCellY = (int) Math.floor(y / CELL_SIZE);
+        entry.maxCellX = (int) Math.floor((x + component.getWidth()) / CELL_SIZE);
+        entry.maxCellY = (int) Math.floor((y + component.getHeight()) / CELL_SIZE);
+        for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+                cells.computeIfAbsent(cellKey(cx, cy), key -> new ArrayList<>()).add(entry);
+            }
+        }
+        entry.indexed = true;
+    }
+
+    /**
+     * Quita un registro de las celdas donde se indexó.
+     *
+     * @param entry Registro a quitar
+     */
+    private void unindex(Entry entry) {
+        for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+                Long key = cellKey(cx, cy);
+                List<Entry> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(entry);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        entry.indexed = false;
+    }
+
+    /**
+     * Empaqueta las coordenadas de una celda en una clave.
+     *
+     * @param cellX Coordenada x de la celda
+     * @param cellY Coordenada y de la celda
+     * @return Clave de la celda
+     */
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Obtiene el componente bajo el puntero.
+     *
+     * @return El componente, o null si no hay ninguno
+     */
+    public Component getHovered() {
+        return hovered;
+    }
+
+    /**
+     * Obtiene el componente presionado.
+     *
+     * @return El componente, o null si el botón no se presionó sobre ninguno
+     */
+    public Component getPressed() {
+        return pressed;
+    }
+
+    /**
+     * Registro de un componente en la rejilla.
+     */
+    private static final class Entry {
+
+        /** Componente registrado */
+        final Component component;
+
+        /** Orden de registro; el mayor está encima */
+        final long order;
+
+        /** Rango de celdas indexado */
+        int minCellX;
+
+        int minCellY;
+
+        int maxCellX;
+
+        int maxCellY;
+
+        /** Indica si está en la rejilla */
+        boolean indexed;
+
+        /** Indica si está en la lista de movidos */
+        boolean moved;
+
+        Entry(Component component, long order) {
+            this.component = component;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package components;
+
+import render.DrawCommandBuffer;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Imagen grabada en listas de comandos junto con las listas donde se grabó y la generación de cada
+ * una en ese momento. Mientras alguna de esas listas no se vacíe, otro hilo puede estar dibujando
+ * la imagen, así que no debe modificarse.
+ */
+final class RecordedImage {
+
+    /** Imagen grabada (null hasta el primer uso) */
+    BufferedImage image;
+
+    /** Listas donde se grabó la imagen */
+    private DrawCommandBuffer[] buffers = new DrawCommandBuffer[4];
+
+    /** Generación de cada lista al grabar la imagen */
+    private long[] generations = new long[4];
+
+    /** Número de listas anotadas */
+    private int count;
+
+    /**
+     * Busca entre unas imágenes una que ninguna lista pendiente use, o crea una nueva y la añade
+     * si no la hay.
+     *
+     * @param images Imágenes disponibles
+     * @return Imagen que se puede volver a dibujar
+     */
+    static RecordedImage free(List<RecordedImage> images) {
+        for (int i = 0; i < images.size(); i++) {
+            RecordedImage candidate = images.get(i);
+            if (!candidate.isInUse()) {
+                return candidate;
+            }
+        }
+        RecordedImage created = new RecordedImage();
+        images.add(created);
+        return created;
+    }
+
+    /**
+     * Anota que la imagen se ha grabado en una lista.
+     *
+     * @param buffer Lista donde se grabó
+     */
+    void recordedInto(DrawCommandBuffer buffer) {
+        for (int i = 0; i < count; i++) {
+            if (buffers[i] == buffer) {
+                generations[i] = buffer.getGeneration();
+                return;
+            }
+        }
+        if (count == buffers.length) {
+            buffers = Arrays.copyOf(buffers, count * 2);
+            generations = Arrays.copyOf(generations, count * 2);
+        }
+        buffers[count] = buffer;
+        generations[count] = buffer.getGeneration();
+        count++;
+    }
+
+    /**
+     * Indica si alguna lista donde se grabó la imagen no se ha vaciado desde entonces, y por
+     * tanto otro hilo puede estar dibujándola. Las listas ya vaciadas se olvidan.
+     *
+     * @return true si la imagen no se puede modificar
+     */
+    boolean isInUse() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (buffers[i].getGeneration() == generations[i]) {
+                buffers[kept] = buffers[i];
+                generations[kept] = generations[i];
+                kept++;
+            }
+        }
+        Arrays.fill(buffers, kept, count, null);
+        count = kept;
+        return count > 0;
+    }
+}
@@ -3,11 +3,16 @@ package core;
 import input.KeyBoard;
 import input.Mouse;
 import physics.PhysicsEngine;
+import render.DirtyRegion;
+import render.DrawCommandBuffer;
+import render.DrawCommandExchange;
+import render.RenderThread;
 import scene.Scene;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 
 /**
  * Clase principal del motor gráfico que maneja el bucle de juego, renderizado y actualización.
@@ -32,7 +37,49 @@ public class Core extends JFrame implements Runnable {
     
     /** Nanosegundos por fotograma, calculado a partir de los FPS */
     private final double NS_PER_FRAME;
+
+    /** Actualizaciones de lógica por segundo (paso fijo de la simulación) */
+    private double tickRate;
+
+    /** Nanosegundos por actualización, calculado a partir de la frecuencia de actualización */
+    private double nsPerTick;
+
+    /** Número máximo de actualizaciones por fotograma cuando el equipo va con retraso */
+    private int maxUpdatesPerFrame = 5;
     
+    /** Estrategia de espera entre fotogramas */
+    private FramePacer framePacer = new HybridFramePacer();
+
+    /** Indica si la presentación se realiza en un hilo propio a partir de listas de comandos */
+    private boolean renderThreadEnabled;
+
+    /** Intercambio de listas de comandos con el hilo de renderizado */
+    private DrawCommandExchange drawCommandExchange;
+
+    /** Lista de comandos que se está grabando en el hilo de actualización */
+    private DrawCommandBuffer recordingBuffer;
+
+    /** Hilo de renderizado, si está activado */
+    private RenderThread renderThread;
+
+    /** Indica si sólo se redibujan y presentan las regiones de la pantalla que han cambiado */
+    private boolean dirtyRenderingEnabled;
+
+    /** Regiones de la pantalla pendientes de redibujar, en el modo de regiones sucias */
+    private DirtyRegion dirtyRegion;
+
+    /** Imagen persistente con el contenido de la pantalla, en el modo de regiones sucias */
+    private BufferedImage offscreen;
+
+    /** Indica que el sistema ha repintado el lienzo y hay que presentarlo entero */
+    private volatile boolean presentAll;
+
+    /** Rectángulo reutilizado al presentar las regiones sucias */
+    private final Rectangle presentRectangle = new Rectangle();
+
+    /** Tiempos por fase del bucle principal */
+    private final FrameMetrics frameMetrics = new FrameMetrics();
+
     /** Lienzo donde se renderiza el juego */
     private Canvas canvas;
     
@@ -70,6 +117,8 @@ public class Core extends JFrame implements Runnable {
         this.height = height;
         this.fps = fps;
         this.NS_PER_FRAME = 1_000_000_000.0 / fps;
+        this.tickRate = fps;
+        this.nsPerTick = NS_PER_FRAME;
         this.keyboard = new KeyBoard();
         mouse = new Mouse();
         initializeWindow();
@@ -91,7 +140,18 @@ public class Core extends JFrame implements Runnable {
      * Hace el lienzo enfocable y añade los listeners de entrada.
      */
     private void initializeCanvas() {
-        canvas = new Canvas();
+        canvas = new Canvas() {
+            @Override
+            public void update(Graphics g) {
+                paint(g);
+            }
+
+            @Override
+            public void paint(Graphics g) {
+                // El contenido lo dibuja el bucle; en el modo de regiones sucias hay que volver a presentarlo entero
+                presentAll = true;
+            }
+        };
         canvas.setFocusable(true);
         canvas.addKeyListener(keyboard);
         canvas.addMouseListener(mouse);
@@ -106,15 +166,24 @@ public class Core extends JFrame implements Runnable {
      */
     private void update(double deltaTime) {
         if (scene != null) {
+            long start = System.nanoTime();
+            scene.dispatchPointerEvents(mouse);
             scene.update(deltaTime);
+            frameMetrics.record(FrameMetrics.Phase.UPDATE, System.nanoTime() - start);
+            PhysicsEngine engine = scene.getPhysicsEngine();
+            if (engine != null) {
+                frameMetrics.record(FrameMetrics.Phase.PHYSICS, engine.getLastStepNanos());
+            }
         }
     }
 
     /**
      * Renderiza el estado actual del juego.
      * Limpia la pantalla y llama al método render de la escena actual.
+     *
+     * @param alpha Fracción del paso de lógica transcurrida desde la última actualización, entre 0 y 1
      */
-    private void render() {
+    private void render(double alpha) {
         if (bufferStrategy == null) {
             canvas.createBufferStrategy(3);
             bufferStrategy = canvas.getBufferStrategy();
@@ -123,32 +192,148 @@ public class Core extends JFrame implements Runnable {
         graphics.setColor(Color.BLACK);
         graphics.fillRect(0, 0, width, height);
 
+        long start = System.nanoTime();
         if (scene != null) {
-            scene.render(graphics);
+            scene.render(graphics, alpha);
         }
-
         graphics.dispose();
+        long rendered = System.nanoTime();
+        frameMetrics.record(FrameMetrics.Phase.RENDER, rendered - start);
+
         bufferStrategy.show();
+        frameMetrics.record(FrameMetrics.Phase.PRESENT, System.nanoTime() - rendered);
+    }
+
+    /**
+     * Redibuja sólo las regiones de la pantalla que han cambiado sobre una imagen persistente y
+     * copia esas regiones al lienzo. Si nada ha cambiado, no se dibuja ni se presenta nada.
+     *
+     * @param alpha Fracción del paso de lógica transcurrida desde la última actualización, entre 0 y 1
+     */
+    private void renderDirty(double alpha) {
+        long start = System.nanoTime();
+        if (offscreen == null) {
+            GraphicsConfiguration configuration = canvas.getGraphicsConfiguration();
+            offscreen = configuration != null
+                    ? configuration.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            dirtyRegion.addAll();
+        }
+        if (scene == null) {
+            // Sin escena no hay nada que dibujar; la región queda pendiente para cuando se asigne
+            frameMetrics.record(FrameMetrics.Phase.RENDER, System.nanoTime() - start);
+            return;
+        }
+        scene.collectDirtyRegion(alpha);
+        if (dirtyRegion.isEmpty() && !presentAll) {
+            frameMetrics.record(FrameMetrics.Phase.RENDER, System.nanoTime() - start);
+            return;
+        }
+        Graphics2D offscreenGraphics = offscreen.createGraphics();
+        try {
+            offscreenGraphics.setBackground(Color.BLACK);
+            scene.renderDirty(offscreenGraphics, alpha);
+        } finally {
+            offscreenGraphics.dispose();
+        }
+        long rendered = System.nanoTime();
+        frameMetrics.record(FrameMetrics.Phase.RENDER, rendered - start);
+
+        Graphics screen = canvas.getGraphics();
+        if (screen == null) {
+            // El lienzo aún no es visible: se conserva la región para presentarla más adelante
+            return;
+        }
+        try {
+            if (presentAll) {
+                presentAll = false;
+                screen.drawImage(offscreen, 0, 0, null);
+            } else {
+                for (int r = 0; r < dirtyRegion.size(); r++) {
+                    Rectangle area = dirtyRegion.getRectangle(r, presentRectangle);
+                    screen.drawImage(offscreen, area.x, area.y, area.x + area.width, area.y + area.height,
+                            area.x, area.y, area.x + area.width, area.y + area.height, null);
+                }
+            }
+        } finally {
+            screen.dispose();
+        }
+        Toolkit.getDefaultToolkit().sync();
+        dirtyRegion.clear();
+        frameMetrics.record(FrameMetrics.Phase.PRESENT, System.nanoTime() - rendered);
+    }
+
+    /**
+     * Graba el estado actual del juego en una lista de comandos y la entrega al hilo de renderizado,
+     * que la presentará mientras este hilo continúa con el siguiente fotograma.
+     *
+     * @param alpha Fracción del paso de lógica transcurrida desde la última actualización, entre 0 y 1
+     */
+    private void record(double alpha) {
+        long start = System.nanoTime();
+        recordingBuffer.fillRect(Color.BLACK, 0, 0, width, height);
+        if (scene != null) {
+            scene.record(recordingBuffer, alpha);
+        }
+        recordingBuffer = drawCommandExchange.publish(recordingBuffer);
+        frameMetrics.record(FrameMetrics.Phase.RENDER, System.nanoTime() - start);
     }
 
     /**
      * Bucle principal del juego.
-     * Maneja la sincronización de fotogramas y las actualizaciones.
+     * La lógica avanza en pasos fijos mediante un acumulador, de forma independiente al dibujado,
+     * que se realiza una sola vez por fotograma interpolando entre los dos últimos pasos.
+     * Si el equipo va con retraso, se limita el número de pasos por fotograma y se descarta
+     * el tiempo sobrante para que el coste de actualizar no crezca sin control.
+     * Entre fotogramas el hilo espera según la estrategia de {@link FramePacer} configurada.
      */
     @Override
     public void run() {
         long lastTime = System.nanoTime();
-        double delta = 0;
+        long lastFrameStart = 0;
+        double nextFrameTime = lastTime;
+        double accumulator = 0;
 
         running = true;
         while (running) {
+            framePacer.waitUntil((long) nextFrameTime);
+            FrameEvent event = new FrameEvent();
+            event.begin();
             long now = System.nanoTime();
-            delta += (now - lastTime) / NS_PER_FRAME;
+            if (lastFrameStart != 0) {
+                frameMetrics.record(FrameMetrics.Phase.FRAME, now - lastFrameStart);
+            }
+            lastFrameStart = now;
+            if (now - nextFrameTime > NS_PER_FRAME) {
+                // Con más de un fotograma de retraso, se reinicia la cadencia en lugar de recuperarla
+                nextFrameTime = now;
+            }
+            nextFrameTime += NS_PER_FRAME;
+
+            accumulator += now - lastTime;
             lastTime = now;
-            while (delta >= 1) {
-                update(1 / fps);
-                render();
-                delta--;
+            int updates = 0;
+            while (accumulator >= nsPerTick && updates < maxUpdatesPerFrame) {
+                update(1 / tickRate);
+                accumulator -= nsPerTick;
+                updates++;
+            }
+            if (accumulator >= nsPerTick) {
+                accumulator = 0;
+            }
+            double alpha = accumulator / nsPerTick;
+            if (renderThreadEnabled) {
+                record(alpha);
+            } else if (dirtyRenderingEnabled) {
+                renderDirty(alpha);
+            } else {
+                render(alpha);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.updates = updates;
+                event.alpha = alpha;
+                event.commit();
             }
         }
     }
@@ -162,8 +347,18 @@ public class Core extends JFrame implements Runnable {
         if (scene == null) {
             throw new IllegalStateException("Scene must be set before initializing");
         }
+        if (renderThreadEnabled && dirtyRenderingEnabled) {
+            throw new IllegalStateException("Dirty rectangle rendering cannot be combined with the render thread");
+        }
         if (!running) {
             setVisible(true);
+            if (renderThreadEnabled) {
+                drawCommandExchange = new DrawCommandExchange();
+                recordingBuffer = drawCommandExchange.acquireInitial();
+                renderThread = new RenderThread(drawCommandExchange, canvas);
+                renderThread.setFrameMetrics(frameMetrics);
+                renderThread.start();
+            }
             thread = new Thread(this);
             thread.start();
         }
@@ -181,7 +376,132 @@ public class Core extends JFrame implements Runnable {
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
+            if (renderThread != null) {
+                renderThread.shutdown();
+                renderThread = null;
+            }
+        }
+    }
+
+    /**
+     * Activa o desactiva la presentación en un hilo de renderizado independiente.
+     * Con el hilo activado, el bucle principal sólo graba listas de comandos con
+     * {@link Scene#record(DrawCommandBuffer, double)} y la presentación se solapa con la
+     * actualización del fotograma siguiente. Debe configurarse antes de {@link #init()}.
+     *
+     * @param renderThreadEnabled true para presentar en un hilo independiente
+     * @throws IllegalStateException Si el juego ya está en ejecución
+     */
+    public void setRenderThreadEnabled(boolean renderThreadEnabled) {
+        if (running) {
+            throw new IllegalStateException("Render thread must be configured before initializing");
+        }
+        this.renderThreadEnabled = renderThreadEnabled;
+    }
+
+    /**
+     * Activa o desactiva el modo de regiones sucias, pensado para escenas casi estáticas como menús.
+     * En lugar de borrar y redibujar toda la pantalla en cada fotograma, los componentes y los
+     * objetos de juego marcan su área anterior y la nueva al cambiar, y sólo esos rectángulos se
+     * borran, se redibujan recortados y se copian al lienzo. Si nada cambia, el fotograma no cuesta
+     * dibujado. No es compatible con el hilo de renderizado. Debe configurarse antes de {@link #init()}.
+     *
+     * @param dirtyRenderingEnabled true para redibujar sólo las regiones que cambian
+     * @throws IllegalStateException Si el juego ya está en ejecución
+     */
+    public void setDirtyRenderingEnabled(boolean dirtyRenderingEnabled) {
+        if (running) {
+            throw new IllegalStateException("Dirty rendering must be configured before initializing");
+        }
+        this.dirtyRenderingEnabled = dirtyRenderingEnabled;
+        if (dirtyRenderingEnabled && dirtyRegion == null) {
+            dirtyRegion = new DirtyRegion(width, height);
+        } else if (!dirtyRenderingEnabled) {
+            dirtyRegion = null;
+            offscreen = null;
+        }
+        if (scene != null) {
+            scene.setDirtyRegion(dirtyRegion);
+        }
+    }
+
+    /**
+     * Indica si sólo se redibujan las regiones de la pantalla que han cambiado.
+     *
+     * @return true si el modo de regiones sucias está activado
+     */
+    public boolean isDirtyRenderingEnabled() {
+        return dirtyRenderingEnabled;
+    }
+
+    /**
+     * Indica si la presentación se realiza en un hilo de renderizado independiente.
+     *
+     * @return true si el hilo de renderizado está activado
+     */
+    public boolean isRenderThreadEnabled() {
+        return renderThreadEnabled;
+    }
+
+    /**
+     * Establece la frecuencia de actualización de la lógica, independiente de los FPS de dibujado.
+     * Por defecto coincide con los FPS indicados en el constructor.
+     *
+     * @param tickRate Actualizaciones por segundo
+     * @throws IllegalArgumentException Si tickRate es menor o igual a 0
+     */
+    public void setTickRate(double tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate debe ser mayor a 0");
+        }
+        this.tickRate = tickRate;
+        this.nsPerTick = 1_000_000_000.0 / tickRate;
+    }
+
+    /**
+     * Establece el número máximo de actualizaciones de lógica que se ejecutan antes de dibujar
+     * un fotograma cuando el equipo va con retraso.
+     *
+     * @param maxUpdatesPerFrame Número máximo de actualizaciones por fotograma
+     * @throws IllegalArgumentException Si el valor es menor que 1
+     */
+    public void setMaxUpdatesPerFrame(int maxUpdatesPerFrame) {
+        if (maxUpdatesPerFrame < 1) {
+            throw new IllegalArgumentException("maxUpdatesPerFrame debe ser al menos 1");
         }
+        this.maxUpdatesPerFrame = maxUpdatesPerFrame;
+    }
+
+    /**
+     * Establece la estrategia de espera entre fotogramas.
+     *
+     * @param framePacer Estrategia a utilizar
+     * @throws IllegalArgumentException Si la estrategia es nula
+     */
+    public void setFramePacer(FramePacer framePacer) {
+        if (framePacer == null) {
+            throw new IllegalArgumentException("Frame pacer cannot be null");
+        }
+        this.framePacer = framePacer;
+    }
+
+    /**
+     * Obtiene la estrategia de espera entre fotogramas, que incluye sus estadísticas de precisión.
+     *
+     * @return Estrategia actual
+     */
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+
+    /**
+     * Obtiene los tiempos por fase del bucle principal (actualización, física, dibujado,
+     * presentación y fotograma completo), con sus percentiles.
+     *
+     * @return Métricas del bucle
+     */
+    public FrameMetrics getFrameMetrics() {
+        return frameMetrics;
     }
 
     /**
@@ -190,7 +510,13 @@ public class Core extends JFrame implements Runnable {
      * @param scene La nueva escena a establecer
      */
     public void setScene(Scene scene) {
+        if (this.scene != null && this.scene != scene && dirtyRegion != null) {
+            this.scene.setDirtyRegion(null);
+        }
         this.scene = scene;
+        if (scene != null && dirtyRegion != null) {
+            scene.setDirtyRegion(dirtyRegion);
+        }
     }
 
     /**
@@ -0,0 +1,27 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que abarca un fotograma completo del bucle principal,
+ * desde que termina la espera hasta que se dibuja o se entrega a presentar.
+ * Si el evento está desactivado en la configuración de JFR, su coste es prácticamente nulo.
+ */
+@Name("sasf.Frame")
+@Label("Frame")
+@Category({"SASF Graphics", "Engine"})
+@Description("Un fotograma del bucle principal: actualizaciones de lógica y dibujado")
+final class FrameEvent extends Event {
+
+    /** Número de pasos de lógica ejecutados en el fotograma */
+    @Label("Updates")
+    int updates;
+
+    /** Fracción de paso usada para interpolar el dibujado */
+    @Label("Alpha")
+    double alpha;
+}
@@ -0,0 +1,92 @@
+package core;
+
+/**
+ * Tiempos por fase del bucle principal, cada uno registrado en un {@link LatencyHistogram}.
+ * Permite saber si un fotograma lento se debe a la lógica, a la física, al dibujado o a la
+ * presentación en pantalla. Registrar no reserva memoria.
+ */
+public class FrameMetrics {
+
+    /**
+     * Fases medidas del bucle principal.
+     */
+    public enum Phase {
+        /** Actualización completa de la escena en un paso de lógica, física incluida */
+        UPDATE,
+
+        /** Parte de la actualización dedicada a {@code PhysicsEngine.update} */
+        PHYSICS,
+
+        /** Dibujado de la escena (o grabado de comandos con el hilo de renderizado) */
+        RENDER,
+
+        /** Presentación del fotograma en pantalla */
+        PRESENT,
+
+        /** Intervalo entre el inicio de un fotograma y el del siguiente, esperas incluidas */
+        FRAME
+    }
+
+    /** Histograma de cada fase, indexado por ordinal */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+
+    /**
+     * Crea unas métricas vacías.
+     */
+    public FrameMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Registra la duración de una fase.
+     *
+     * @param phase Fase medida
+     * @param nanos Duración en nanosegundos
+     */
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Obtiene el histograma de una fase.
+     *
+     * @param phase Fase a consultar
+     * @return Histograma con las duraciones registradas
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * Obtiene un percentil de la duración de una fase en milisegundos.
+     *
+     * @param phase Fase a consultar
+     * @param percentile Percentil entre 0 y 100
+     * @return Duración en milisegundos
+     * @throws IllegalArgumentException Si el percentil está fuera de rango
+     */
+    public double getPercentileMillis(Phase phase, double percentile) {
+        return getHistogram(phase).getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    /**
+     * Obtiene la mayor duración registrada de una fase en milisegundos.
+     *
+     * @param phase Fase a consultar
+     * @return Duración máxima en milisegundos
+     */
+    public double getMaxMillis(Phase phase) {
+        return getHistogram(phase).getMax() / 1_000_000.0;
+    }
+
+    /**
+     * Descarta las muestras de todas las fases.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package core;
+
+/**
+ * Estrategia de espera entre fotogramas del bucle de juego.
+ * Cada implementación decide cómo esperar hasta el instante del siguiente fotograma
+ * (durmiendo, aparcando el hilo o en espera activa) y todas registran la precisión obtenida.
+ */
+public abstract class FramePacer {
+
+    /** Estadísticas de precisión de la espera */
+    private final FramePacingStats stats = new FramePacingStats();
+
+    /**
+     * Espera hasta el instante indicado y registra el retraso con el que se despierta.
+     * Si el instante ya ha pasado, vuelve inmediatamente.
+     *
+     * @param deadlineNanos Instante, en la escala de {@link System#nanoTime()}, hasta el que esperar
+     */
+    public final void waitUntil(long deadlineNanos) {
+        if (deadlineNanos - System.nanoTime() > 0) {
+            pauseUntil(deadlineNanos);
+        }
+        stats.record(System.nanoTime() - deadlineNanos);
+    }
+
+    /**
+     * Bloquea el hilo llamante hasta el instante indicado, aproximadamente.
+     * Si el hilo se interrumpe, debe restaurar el estado de interrupción y volver.
+     *
+     * @param deadlineNanos Instante, en la escala de {@link System#nanoTime()}, hasta el que esperar
+     */
+    protected abstract void pauseUntil(long deadlineNanos);
+
+    /**
+     * Obtiene las estadísticas de precisión de la espera.
+     *
+     * @return Estadísticas de la estrategia
+     */
+    public FramePacingStats getStats() {
+        return stats;
+    }
+}
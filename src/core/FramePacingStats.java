@@ -0,0 +1,90 @@
+package core;
+
+/**
+ * Estadísticas de precisión de una estrategia de espera entre fotogramas.
+ * Registra el retraso con el que se despierta el bucle respecto al instante previsto
+ * (la fluctuación o jitter) usando el algoritmo de Welford, sin reservar memoria.
+ * Las lecturas desde otro hilo son aproximadas, ya que no se sincronizan con el registro.
+ */
+public class FramePacingStats {
+
+    /** Número de muestras registradas */
+    private long count;
+
+    /** Media del retraso en nanosegundos */
+    private double mean;
+
+    /** Suma de cuadrados de las diferencias respecto a la media (Welford) */
+    private double sumSquares;
+
+    /** Menor retraso registrado en nanosegundos */
+    private long min = Long.MAX_VALUE;
+
+    /** Mayor retraso registrado en nanosegundos */
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Registra una muestra de retraso.
+     *
+     * @param latenessNanos Nanosegundos transcurridos desde el instante previsto (negativo si se adelantó)
+     */
+    void record(long latenessNanos) {
+        count++;
+        double delta = latenessNanos - mean;
+        mean += delta / count;
+        sumSquares += delta * (latenessNanos - mean);
+        min = Math.min(min, latenessNanos);
+        max = Math.max(max, latenessNanos);
+    }
+
+    /**
+     * Descarta todas las muestras registradas.
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        sumSquares = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    public long getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Obtiene el retraso medio respecto al instante previsto.
+     *
+     * @return Retraso medio en nanosegundos
+     */
+    public double getMeanLatenessNanos() {
+        return mean;
+    }
+
+    /**
+     * Obtiene la desviación típica del retraso, que mide la fluctuación entre fotogramas.
+     *
+     * @return Desviación típica en nanosegundos (0 si hay menos de dos muestras)
+     */
+    public double getJitterNanos() {
+        return count > 1 ? Math.sqrt(sumSquares / (count - 1)) : 0;
+    }
+
+    /**
+     * Obtiene el menor retraso registrado.
+     *
+     * @return Menor retraso en nanosegundos (0 si no hay muestras)
+     */
+    public long getMinLatenessNanos() {
+        return count > 0 ? min : 0;
+    }
+
+    /**
+     * Obtiene el mayor retraso registrado.
+     *
+     * @return Mayor retraso en nanosegundos (0 si no hay muestras)
+     */
+    public long getMaxLatenessNanos() {
+        return count > 0 ? max : 0;
+    }
+}
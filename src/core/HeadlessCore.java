@@ -0,0 +1,281 @@
+package core;
+
+import input.KeyBoard;
+import input.Mouse;
+import physics.PhysicsEngine;
+import render.DirtyRegion;
+import scene.Scene;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Variante del motor sin ventana que ejecuta el mismo ciclo de actualización y dibujado de
+ * {@link Scene} sobre una imagen en memoria. No crea ningún componente AWT, por lo que funciona
+ * con {@code java.awt.headless=true} en servidores de simulación o de integración continua.
+ * No hay espera entre pasos: la simulación avanza tan rápido como permite el equipo, ya sea
+ * un número fijo de pasos con {@link #runTicks(long)} o indefinidamente con {@link #run()}.
+ * La entrada se alimenta por programa a través de {@link #getMouse()} y {@link #getKeyboard()}.
+ */
+public class HeadlessCore implements Runnable {
+
+    /** Ancho de la imagen de destino en píxeles */
+    private final int width;
+
+    /** Alto de la imagen de destino en píxeles */
+    private final int height;
+
+    /** Actualizaciones de lógica por segundo simulado */
+    private final double tickRate;
+
+    /** Imagen en memoria donde se dibuja cada fotograma */
+    private final BufferedImage frame;
+
+    /** Ratón alimentado por programa */
+    private final Mouse mouse = new Mouse();
+
+    /** Teclado alimentado por programa */
+    private final KeyBoard keyboard = new KeyBoard();
+
+    /** Tiempos por fase de cada paso */
+    private final FrameMetrics frameMetrics = new FrameMetrics();
+
+    /** Regiones de la imagen pendientes de redibujar; null si se redibuja entera en cada paso */
+    private DirtyRegion dirtyRegion;
+
+    /** Número de pasos entre dibujados; 0 desactiva el dibujado */
+    private int renderInterval = 1;
+
+    /** Número de pasos ejecutados */
+    private long tickCount;
+
+    /** Bandera que indica si el bucle indefinido está en ejecución */
+    private volatile boolean running;
+
+    /** Escena actual */
+    private Scene scene;
+
+    /**
+     * Crea un motor sin ventana.
+     * Instala su ratón y su teclado en {@link Core#mouse} y {@link Core#keyboard}, que es de
+     * donde los leen los componentes.
+     *
+     * @param width Ancho de la imagen de destino en píxeles
+     * @param height Alto de la imagen de destino en píxeles
+     * @param tickRate Actualizaciones de lógica por segundo simulado
+     * @throws IllegalArgumentException Si width, height o tickRate son menores o iguales a 0
+     */
+    public HeadlessCore(int width, int height, double tickRate) {
+        if (width <= 0 || height <= 0 || tickRate <= 0) {
+            throw new IllegalArgumentException("Width, height y tick rate deben ser mayores a 0");
+        }
+        this.width = width;
+        this.height = height;
+        this.tickRate = tickRate;
+        this.frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Core.mouse = mouse;
+        Core.keyboard = keyboard;
+    }
+
+    /**
+     * Ejecuta un único paso: actualiza la escena y, si corresponde, dibuja el fotograma.
+     *
+     * @throws IllegalStateException Si no se ha establecido una escena
+     */
+    public void step() {
+        if (scene == null) {
+            throw new IllegalStateException("Scene must be set before running");
+        }
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        long start = System.nanoTime();
+        scene.dispatchPointerEvents(mouse);
+        scene.update(1 / tickRate);
+        long updated = System.nanoTime();
+        frameMetrics.record(FrameMetrics.Phase.UPDATE, updated - start);
+        PhysicsEngine engine = scene.getPhysicsEngine();
+        if (engine != null) {
+            frameMetrics.record(FrameMetrics.Phase.PHYSICS, engine.getLastStepNanos());
+        }
+        tickCount++;
+        if (renderInterval > 0 && tickCount % renderInterval == 0) {
+            render();
+            frameMetrics.record(FrameMetrics.Phase.RENDER, System.nanoTime() - updated);
+        }
+        frameMetrics.record(FrameMetrics.Phase.FRAME, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.updates = 1;
+            event.alpha = 1.0;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ejecuta un número fijo de pasos sin esperas.
+     *
+     * @param ticks Número de pasos a ejecutar
+     * @throws IllegalArgumentException Si ticks es negativo
+     * @throws IllegalStateException Si no se ha establecido una escena
+     */
+    public void runTicks(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks cannot be negative");
+        }
+        for (long i = 0; i < ticks; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Ejecuta pasos sin esperas hasta que se llame a {@link #stop()}.
+     *
+     * @throws IllegalStateException Si no se ha establecido una escena
+     */
+    @Override
+    public void run() {
+        running = true;
+        while (running) {
+            step();
+        }
+    }
+
+    /**
+     * Detiene el bucle indefinido al terminar el paso en curso.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Dibuja la escena sobre la imagen de destino.
+     */
+    private void render() {
+        if (dirtyRegion != null) {
+            scene.collectDirtyRegion(1.0);
+            if (dirtyRegion.isEmpty()) {
+                return;
+            }
+        }
+        Graphics2D graphics = frame.createGraphics();
+        try {
+            if (dirtyRegion != null) {
+                graphics.setBackground(Color.BLACK);
+                scene.renderDirty(graphics, 1.0);
+                dirtyRegion.clear();
+            } else {
+                graphics.setColor(Color.BLACK);
+                graphics.fillRect(0, 0, width, height);
+                scene.render(graphics, 1.0);
+            }
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Activa o desactiva el modo de regiones sucias: la imagen de destino se conserva entre pasos
+     * y sólo se redibujan los rectángulos que han cambiado, igual que en {@link Core}.
+     *
+     * @param dirtyRenderingEnabled true para redibujar sólo las regiones que cambian
+     */
+    public void setDirtyRenderingEnabled(boolean dirtyRenderingEnabled) {
+        dirtyRegion = dirtyRenderingEnabled ? new DirtyRegion(width, height) : null;
+        if (scene != null) {
+            scene.setDirtyRegion(dirtyRegion);
+        }
+    }
+
+    /**
+     * Indica si sólo se redibujan las regiones de la imagen que han cambiado.
+     *
+     * @return true si el modo de regiones sucias está activado
+     */
+    public boolean isDirtyRenderingEnabled() {
+        return dirtyRegion != null;
+    }
+
+    /**
+     * Establece cada cuántos pasos se dibuja un fotograma.
+     * Con 0 sólo se simula, lo que resulta útil en servidores que no necesitan imagen.
+     *
+     * @param renderInterval Número de pasos entre dibujados, o 0 para no dibujar
+     * @throws IllegalArgumentException Si el valor es negativo
+     */
+    public void setRenderInterval(int renderInterval) {
+        if (renderInterval < 0) {
+            throw new IllegalArgumentException("Render interval cannot be negative");
+        }
+        this.renderInterval = renderInterval;
+    }
+
+    /**
+     * Obtiene la imagen con el último fotograma dibujado.
+     *
+     * @return Imagen de destino
+     */
+    public BufferedImage getFrame() {
+        return frame;
+    }
+
+    /**
+     * Obtiene el ratón que leen los componentes, para alimentarlo por programa.
+     *
+     * @return Ratón del motor
+     */
+    public Mouse getMouse() {
+        return mouse;
+    }
+
+    /**
+     * Obtiene el teclado que leen los componentes, para alimentarlo por programa.
+     *
+     * @return Teclado del motor
+     */
+    public KeyBoard getKeyboard() {
+        return keyboard;
+    }
+
+    /**
+     * Obtiene los tiempos por fase de cada paso. Al no haber pantalla, no se registra la fase
+     * de presentación.
+     *
+     * @return Métricas del motor
+     */
+    public FrameMetrics getFrameMetrics() {
+        return frameMetrics;
+    }
+
+    /**
+     * Obtiene el número de pasos ejecutados.
+     *
+     * @return Pasos ejecutados desde la creación
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Obtiene el tiempo simulado transcurrido.
+     *
+     * @return Segundos simulados
+     */
+    public double getSimulatedTime() {
+        return tickCount / tickRate;
+    }
+
+    /**
+     * Establece la escena a simular.
+     *
+     * @param scene La nueva escena
+     */
+    public void setScene(Scene scene) {
+        if (this.scene != null && this.scene != scene && dirtyRegion != null) {
+            this.scene.setDirtyRegion(null);
+        }
+        this.scene = scene;
+        if (scene != null && dirtyRegion != null) {
+            scene.setDirtyRegion(dirtyRegion);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package core;
+
+/**
+ * Espera híbrida: duerme el hilo mientras queda margen suficiente y completa los últimos
+ * instantes con una espera activa corta. Combina un consumo de CPU bajo con una precisión
+ * cercana a la de la espera activa pura. Es la estrategia por defecto de {@link Core}.
+ */
+public class HybridFramePacer extends FramePacer {
+
+    /** Margen por defecto que se completa con espera activa, en nanosegundos */
+    private static final long DEFAULT_SPIN_THRESHOLD_NANOS = 2_000_000;
+
+    /** Margen final que se completa con espera activa, en nanosegundos */
+    private final long spinThresholdNanos;
+
+    /**
+     * Crea una estrategia híbrida con un margen de espera activa de 2 ms.
+     */
+    public HybridFramePacer() {
+        this(DEFAULT_SPIN_THRESHOLD_NANOS);
+    }
+
+    /**
+     * Crea una estrategia híbrida con el margen de espera activa especificado.
+     * Conviene que sea algo mayor que la resolución del temporizador del sistema.
+     *
+     * @param spinThresholdNanos Margen final en nanosegundos (debe ser no negativo)
+     * @throws IllegalArgumentException Si el margen es negativo
+     */
+    public HybridFramePacer(long spinThresholdNanos) {
+        if (spinThresholdNanos < 0) {
+            throw new IllegalArgumentException("Spin threshold cannot be negative");
+        }
+        this.spinThresholdNanos = spinThresholdNanos;
+    }
+
+    @Override
+    protected void pauseUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > spinThresholdNanos) {
+            long sleepNanos = remaining - spinThresholdNanos;
+            try {
+                Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        while (deadlineNanos - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
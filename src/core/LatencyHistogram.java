@@ -0,0 +1,136 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de duraciones con cubetas fijas de escala log-lineal, al estilo de HdrHistogram.
+ * Cada potencia de dos se divide en {@value #SUB_BUCKETS} cubetas iguales, de modo que el error
+ * relativo de cualquier valor es inferior al 3 % en todo el rango de {@code long}.
+ * Registrar es una operación constante que no reserva memoria. Está pensado para un único hilo
+ * escritor; las lecturas desde otro hilo son aproximadas, ya que no se sincronizan con el registro.
+ */
+public class LatencyHistogram {
+
+    /** Bits de precisión dentro de cada potencia de dos */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** Cubetas por potencia de dos */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Número total de cubetas necesario para cubrir todos los valores positivos de {@code long} */
+    private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /** Número de muestras de cada cubeta */
+    private final long[] counts = new long[BUCKET_COUNT];
+
+    /** Número total de muestras */
+    private long totalCount;
+
+    /** Suma de todas las muestras, para la media */
+    private long sum;
+
+    /** Mayor valor registrado */
+    private long max;
+
+    /**
+     * Registra una duración. Los valores negativos se cuentan como cero.
+     *
+     * @param value Duración en nanosegundos
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[bucketOf(clamped)]++;
+        totalCount++;
+        sum += clamped;
+        if (clamped > max) {
+            max = clamped;
+        }
+    }
+
+    /**
+     * Descarta todas las muestras registradas.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual se encuentra el porcentaje indicado de las muestras.
+     * El resultado es el límite superior de la cubeta correspondiente, acotado por el máximo real.
+     *
+     * @param percentile Percentil entre 0 y 100
+     * @return Valor del percentil en nanosegundos, o 0 si no hay muestras
+     * @throws IllegalArgumentException Si el percentil está fuera de rango
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= target) {
+                return Math.min(highestValueIn(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Obtiene la media de las muestras registradas.
+     *
+     * @return Media en nanosegundos, o 0 si no hay muestras
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Calcula la cubeta de un valor no negativo.
+     * Los valores menores que {@value #SUB_BUCKETS} tienen cubeta propia; el resto se agrupa
+     * por su bit más significativo y los {@value #SUB_BUCKET_BITS} bits siguientes.
+     *
+     * @param value Valor no negativo
+     * @return Índice de la cubeta
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Calcula el mayor valor que cae en una cubeta.
+     *
+     * @param bucket Índice de la cubeta
+     * @return Límite superior incluido de la cubeta
+     */
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
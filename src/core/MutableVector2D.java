@@ -0,0 +1,218 @@
+package core;
+
+/**
+ * Vector bidimensional mutable pensado para ser reutilizado.
+ * A diferencia de {@link Vector2D}, todas las operaciones modifican el propio vector
+ * y lo devuelven, de modo que pueden encadenarse sin crear objetos nuevos.
+ */
+public class MutableVector2D {
+
+    /** Coordenada x del vector */
+    private double x;
+
+    /** Coordenada y del vector */
+    private double y;
+
+    /**
+     * Crea un nuevo vector mutable en el origen.
+     */
+    public MutableVector2D() {
+        this(0, 0);
+    }
+
+    /**
+     * Crea un nuevo vector mutable con las coordenadas especificadas.
+     *
+     * @param x Coordenada x del vector
+     * @param y Coordenada y del vector
+     */
+    public MutableVector2D(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Crea un nuevo vector mutable a partir de un vector inmutable.
+     *
+     * @param v Vector de origen
+     * @throws IllegalArgumentException Si el vector es nulo
+     */
+    public MutableVector2D(Vector2D v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Vector cannot be null");
+        }
+        this.x = v.getX();
+        this.y = v.getY();
+    }
+
+    /**
+     * Establece las coordenadas del vector.
+     *
+     * @param x Nueva coordenada x
+     * @param y Nueva coordenada y
+     * @return Este mismo vector
+     */
+    public MutableVector2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Copia las coordenadas de un vector inmutable.
+     *
+     * @param v Vector de origen
+     * @return Este mismo vector
+     * @throws IllegalArgumentException Si el vector es nulo
+     */
+    public MutableVector2D set(Vector2D v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Vector cannot be null");
+        }
+        return set(v.getX(), v.getY());
+    }
+
+    /**
+     * Copia las coordenadas de otro vector mutable.
+     *
+     * @param v Vector de origen
+     * @return Este mismo vector
+     * @throws IllegalArgumentException Si el vector es nulo
+     */
+    public MutableVector2D set(MutableVector2D v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Vector cannot be null");
+        }
+        return set(v.x, v.y);
+    }
+
+    /**
+     * Suma las componentes indicadas a este vector.
+     *
+     * @param dx Incremento en x
+     * @param dy Incremento en y
+     * @return Este mismo vector
+     */
+    public MutableVector2D add(double dx, double dy) {
+        x += dx;
+        y += dy;
+        return this;
+    }
+
+    /**
+     * Suma otro vector mutable a este vector.
+     *
+     * @param v Vector a sumar
+     * @return Este mismo vector
+     * @throws IllegalArgumentException Si el vector es nulo
+     */
+    public MutableVector2D add(MutableVector2D v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Vector cannot be null");
+        }
+        return add(v.x, v.y);
+    }
+
+    /**
+     * Suma a este vector otro vector multiplicado por un escalar (this += v * scalar).
+     *
+     * @param v Vector a sumar
+     * @param scalar Escalar por el que se multiplica v
+     * @return Este mismo vector
+     * @throws IllegalArgumentException Si el vector es nulo
+     */
+    public MutableVector2D addScaled(MutableVector2D v, double scalar) {
+        if (v == null) {
+            throw new IllegalArgumentException("Vector cannot be null");
+        }
+        return add(v.x * scalar, v.y * scalar);
+    }
+
+    /**
+     * Multiplica este vector por un escalar.
+     *
+     * @param scalar Escalar por el que multiplicar
+     * @return Este mismo vector
+     */
+    public MutableVector2D multiply(double scalar) {
+        x *= scalar;
+        y *= scalar;
+        return this;
+    }
+
+    /**
+     * Divide este vector por un escalar.
+     *
+     * @param scalar Escalar por el que dividir
+     * @return Este mismo vector
+     * @throws IllegalArgumentException Si el escalar es cero
+     */
+    public MutableVector2D divide(double scalar) {
+        if (scalar == 0) {
+            throw new IllegalArgumentException("Cannot divide by zero");
+        }
+        x /= scalar;
+        y /= scalar;
+        return this;
+    }
+
+    /**
+     * Normaliza este vector (lo convierte en un vector unitario).
+     * Si es el vector cero, se deja sin cambios.
+     *
+     * @return Este mismo vector
+     */
+    public MutableVector2D normalize() {
+        double magnitude = getMagnitude();
+        if (magnitude != 0) {
+            x /= magnitude;
+            y /= magnitude;
+        }
+        return this;
+    }
+
+    /**
+     * Calcula la magnitud (longitud) de este vector.
+     *
+     * @return Magnitud del vector
+     */
+    public double getMagnitude() {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Obtiene el ángulo del vector en radianes, calculado bajo demanda.
+     *
+     * @return Ángulo en radianes
+     */
+    public double getAngle() {
+        return Math.atan2(y, x);
+    }
+
+    /**
+     * Crea una copia inmutable de este vector.
+     *
+     * @return Nuevo vector inmutable con las mismas coordenadas
+     */
+    public Vector2D toVector2D() {
+        return new Vector2D(x, y);
+    }
+
+    /**
+     * Obtiene la coordenada x del vector.
+     *
+     * @return Coordenada x
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Obtiene la coordenada y del vector.
+     *
+     * @return Coordenada y
+     */
+    public double getY() {
+        return y;
+    }
+}
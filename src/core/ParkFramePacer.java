@@ -0,0 +1,22 @@
+package core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Espera aparcando el hilo con {@link LockSupport#parkNanos(long)} hasta el instante previsto.
+ * No consume CPU mientras espera; su precisión depende de la resolución del temporizador
+ * del sistema operativo.
+ */
+public class ParkFramePacer extends FramePacer {
+
+    @Override
+    protected void pauseUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+}
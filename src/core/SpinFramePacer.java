@@ -0,0 +1,16 @@
+package core;
+
+/**
+ * Espera activa pura: consulta el reloj continuamente hasta el instante previsto.
+ * Es la estrategia más precisa, pero ocupa un núcleo completo; está pensada para medir
+ * rendimiento, no para uso normal.
+ */
+public class SpinFramePacer extends FramePacer {
+
+    @Override
+    protected void pauseUntil(long deadlineNanos) {
+        while (deadlineNanos - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
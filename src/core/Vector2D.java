@@ -12,9 +12,6 @@ public class Vector2D {
     /** Coordenada y del vector */
     private final double y;
 
-    /** Ángulo del vector en radianes */
-    private final double angle;
-
     /**
      * Crea un nuevo vector 2D con las coordenadas especificadas.
      *
@@ -24,7 +21,6 @@ public class Vector2D {
     public Vector2D(double x, double y) {
         this.x = x;
         this.y = y;
-        this.angle = Math.atan2(y, x);
     }
 
     /**
@@ -153,10 +149,11 @@ public class Vector2D {
 
     /**
      * Obtiene el ángulo del vector en radianes.
+     * Se calcula bajo demanda, ya que la mayoría de los vectores nunca lo consultan.
      *
      * @return Ángulo en radianes
      */
     public double getAngle() {
-        return angle;
+        return Math.atan2(y, x);
     }
 }
\ No newline at end of file
@@ -36,9 +36,7 @@ public class KeyBoard extends KeyAdapter {
      */
     @Override
     public void keyPressed(KeyEvent e) {
-        if (e.getKeyCode() >= 0 && e.getKeyCode() < keys.length) {
-            keys[e.getKeyCode()] = true;
-        }
+        setKeyPressed(e.getKeyCode(), true);
     }
 
     /**
@@ -49,8 +47,20 @@ public class KeyBoard extends KeyAdapter {
      */
     @Override
     public void keyReleased(KeyEvent e) {
-        if (e.getKeyCode() >= 0 && e.getKeyCode() < keys.length) {
-            keys[e.getKeyCode()] = false;
+        setKeyPressed(e.getKeyCode(), false);
+    }
+
+    /**
+     * Establece el estado de una tecla.
+     * Permite alimentar el teclado por programa, por ejemplo en modo sin ventana o en pruebas.
+     * Los códigos fuera de rango se ignoran.
+     *
+     * @param keyCode Código de la tecla
+     * @param pressed true si la tecla está presionada
+     */
+    public void setKeyPressed(int keyCode, boolean pressed) {
+        if (keyCode >= 0 && keyCode < keys.length) {
+            keys[keyCode] = pressed;
         }
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,40 @@ package input;
 
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.Arrays;
 
 /**
  * Clase que maneja la entrada del ratón.
  * Extiende MouseAdapter para rastrear la posición y el estado de los botones del ratón.
+ * Además de guardar el estado actual, encola los movimientos y las pulsaciones para entregarlos
+ * en el hilo del juego con {@link #dispatchEvents(PointerListener)}; la cola sólo se llena una
+ * vez que alguien ha empezado a vaciarla.
  */
 public class Mouse extends MouseAdapter {
 
+    /** Tipo de evento: movimiento del puntero */
+    private static final int MOVED = 0;
+
+    /** Tipo de evento: botón presionado */
+    private static final int PRESSED = 1;
+
+    /** Tipo de evento: botón liberado */
+    private static final int RELEASED = 2;
+
+    /** Número máximo de eventos encolados; si se alcanza, se descartan los nuevos */
+    private static final int MAX_QUEUED_EVENTS = 1024;
+
+    /** Eventos pendientes, de tres en tres enteros: tipo, x e y */
+    private int[] events = new int[3 * 16];
+
+    /** Número de eventos pendientes */
+    private int eventCount;
+
+    /** Eventos que se están entregando, intercambiados con los pendientes para no copiarlos */
+    private int[] dispatching = new int[3 * 16];
+
+    /** Indica si se ha llamado alguna vez a {@link #dispatchEvents(PointerListener)} */
+    private boolean queueing;
 
     /** Coordenada x actual del puntero del ratón */
     private int x;
@@ -54,7 +81,8 @@ public class Mouse extends MouseAdapter {
      */
     @Override
     public void mousePressed(MouseEvent e) {
-        leftButtonPressed = true;
+        moveTo(e.getX(), e.getY());
+        setLeftButtonPressed(true);
     }
 
     /**
@@ -65,7 +93,8 @@ public class Mouse extends MouseAdapter {
      */
     @Override
     public void mouseReleased(MouseEvent e) {
-        leftButtonPressed = false;
+        moveTo(e.getX(), e.getY());
+        setLeftButtonPressed(false);
     }
 
     /**
@@ -76,8 +105,7 @@ public class Mouse extends MouseAdapter {
      */
     @Override
     public void mouseMoved(MouseEvent e) {
-        x = e.getX();
-        y = e.getY();
+        moveTo(e.getX(), e.getY());
     }
 
     /**
@@ -88,7 +116,102 @@ public class Mouse extends MouseAdapter {
      */
     @Override
     public void mouseDragged(MouseEvent e) {
-        x = e.getX();
-        y = e.getY();
+        moveTo(e.getX(), e.getY());
+    }
+
+    /**
+     * Mueve el puntero a las coordenadas indicadas.
+     * Permite alimentar el ratón por programa, por ejemplo en modo sin ventana o en pruebas.
+     *
+     * @param x Nueva coordenada x en píxeles
+     * @param y Nueva coordenada y en píxeles
+     */
+    public void moveTo(int x, int y) {
+        if (x != this.x || y != this.y) {
+            this.x = x;
+            this.y = y;
+            queue(MOVED, x, y);
+        }
+    }
+
+    /**
+     * Establece el estado del botón izquierdo.
+     * Permite alimentar el ratón por programa, por ejemplo en modo sin ventana o en pruebas.
+     *
+     * @param pressed true si el botón izquierdo está presionado
+     */
+    public void setLeftButtonPressed(boolean pressed) {
+        if (pressed != leftButtonPressed) {
+            this.leftButtonPressed = pressed;
+            queue(pressed ? PRESSED : RELEASED, x, y);
+        }
+    }
+
+    /**
+     * Encola un evento. Los movimientos seguidos se funden en uno solo con la última posición.
+     *
+     * @param type Tipo de evento
+     * @param x Coordenada x del puntero
+     * @param y Coordenada y del puntero
+     */
+    private synchronized void queue(int type, int x, int y) {
+        if (!queueing) {
+            return;
+        }
+        int end = eventCount * 3;
+        if (type == MOVED && eventCount > 0 && events[end - 3] == MOVED) {
+            events[end - 2] = x;
+            events[end - 1] = y;
+            return;
+        }
+        if (eventCount == MAX_QUEUED_EVENTS) {
+            return;
+        }
+        if (end == events.length) {
+            events = Arrays.copyOf(events, end * 2);
+        }
+        events[end] = type;
+        events[end + 1] = x;
+        events[end + 2] = y;
+        eventCount++;
+    }
+
+    /**
+     * Entrega al receptor, en orden, los eventos ocurridos desde la llamada anterior, y vacía la cola.
+     * Debe llamarse desde el hilo del juego; si no ha pasado nada, no hace nada.
+     *
+     * @param listener Receptor de los eventos
+     * @throws NullPointerException Si el receptor es nulo
+     */
+    public void dispatchEvents(PointerListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("Listener cannot be null");
+        }
+        int[] batch;
+        int count;
+        synchronized (this) {
+            queueing = true;
+            if (eventCount == 0) {
+                return;
+            }
+            batch = events;
+            events = dispatching;
+            dispatching = batch;
+            count = eventCount;
+            eventCount = 0;
+        }
+        for (int i = 0; i < count * 3; i += 3) {
+            switch (batch[i]) {
+                case MOVED:
+                    listener.pointerMoved(batch[i + 1], batch[i + 2]);
+                    break;
+                case PRESSED:
+                    listener.pointerPressed(batch[i + 1], batch[i + 2]);
+                    break;
+                default:
+                    listener.pointerReleased(batch[i + 1], batch[i + 2]);
+                    break;
+            }
+        }
     }
-}
\ No newline at end of file
+}
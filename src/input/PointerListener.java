@@ -0,0 +1,32 @@
+package input;
+
+/**
+ * Receptor de los eventos del puntero que entrega {@link Mouse#dispatchEvents(PointerListener)}.
+ * Las coordenadas son de pantalla, en píxeles.
+ */
+public interface PointerListener {
+
+    /**
+     * Se llama cuando el puntero se mueve, con o sin botón presionado.
+     *
+     * @param x Coordenada x del puntero
+     * @param y Coordenada y del puntero
+     */
+    void pointerMoved(int x, int y);
+
+    /**
+     * Se llama cuando se presiona el botón.
+     *
+     * @param x Coordenada x del puntero
+     * @param y Coordenada y del puntero
+     */
+    void pointerPressed(int x, int y);
+
+    /**
+     * Se llama cuando se libera el botón.
+     *
+     * @param x Coordenada x del puntero
+     * @param y Coordenada y del puntero
+     */
+    void pointerReleased(int x, int y);
+}
@@ -0,0 +1,481 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * Almacenamiento de cuerpos físicos en forma de estructura de arrays.
+ * Cada propiedad de los cuerpos se guarda en una columna de tipo primitivo, de modo que
+ * la integración recorre memoria contigua sin seguir punteros ni crear objetos.
+ * Los objetos {@link DynamicObject} actúan como manejadores ligeros que apuntan a una fila.
+ */
+public final class BodyStore {
+
+    /** Capacidad inicial cuando no se especifica otra */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Número de cuerpos almacenados */
+    private int size;
+
+    /** Contador que cambia cada vez que se añade o elimina una fila */
+    private int structureVersion;
+
+    /** Indica si el almacén pertenece a un motor, que integra todas sus filas en cada paso */
+    boolean simulated;
+
+    /** Coordenadas x de las posiciones */
+    double[] x;
+
+    /** Coordenadas y de las posiciones */
+    double[] y;
+
+    /** Coordenadas x de las posiciones al comienzo del último paso, para interpolar el dibujado */
+    double[] previousX;
+
+    /** Coordenadas y de las posiciones al comienzo del último paso, para interpolar el dibujado */
+    double[] previousY;
+
+    /** Componentes x de las velocidades */
+    double[] vx;
+
+    /** Componentes y de las velocidades */
+    double[] vy;
+
+    /** Componentes x de la velocidad de corrección de penetración, sólo válida durante un paso */
+    double[] biasVx;
+
+    /** Componentes y de la velocidad de corrección de penetración, sólo válida durante un paso */
+    double[] biasVy;
+
+    /** Componentes x de la última aceleración calculada */
+    double[] ax;
+
+    /** Componentes y de la última aceleración calculada */
+    double[] ay;
+
+    /** Componentes x de la fuerza acumulada */
+    double[] fx;
+
+    /** Componentes y de la fuerza acumulada */
+    double[] fy;
+
+    /** Inverso de la masa (0 para objetos estáticos) */
+    double[] invMass;
+
+    /** Anchos de las cajas envolventes, medidos desde la posición */
+    double[] width;
+
+    /** Altos de las cajas envolventes, medidos desde la posición */
+    double[] height;
+
+    /** Forma de colisión de cada cuerpo, como ordinal de {@link CollisionShape} */
+    byte[] shape;
+
+    /** Identificador estable de cada cuerpo, que no cambia al reordenar las filas */
+    int[] id;
+
+    /** Indica si cada cuerpo está dormido y debe omitirse en la integración */
+    boolean[] sleeping;
+
+    /** Tiempo en segundos que cada cuerpo lleva por debajo del umbral de velocidad de reposo */
+    double[] restTime;
+
+    /** Manejador propietario de cada fila */
+    DynamicObject[] owners;
+
+    /** Indica si cada cuerpo está anotado en la lista de movidos */
+    boolean[] movedMark;
+
+    /** Cuerpos cuya caja ha podido cambiar desde que se vació la lista, sin repetidos */
+    int[] moved = new int[16];
+
+    /** Número de cuerpos anotados en la lista de movidos */
+    int movedCount;
+
+    /**
+     * Crea un almacén vacío con la capacidad por defecto.
+     */
+    public BodyStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Crea un almacén vacío con la capacidad inicial especificada.
+     *
+     * @param capacity Capacidad inicial (si es menor que 1, se usa 1)
+     */
+    public BodyStore(int capacity) {
+        int initial = Math.max(1, capacity);
+        x = new double[initial];
+        y = new double[initial];
+        previousX = new double[initial];
+        previousY = new double[initial];
+        vx = new double[initial];
+        vy = new double[initial];
+        biasVx = new double[initial];
+        biasVy = new double[initial];
+        ax = new double[initial];
+        ay = new double[initial];
+        fx = new double[initial];
+        fy = new double[initial];
+        invMass = new double[initial];
+        width = new double[initial];
+        height = new double[initial];
+        shape = new byte[initial];
+        id = new int[initial];
+        sleeping = new boolean[initial];
+        restTime = new double[initial];
+        owners = new DynamicObject[initial];
+        movedMark = new boolean[initial];
+    }
+
+    /**
+     * Reserva una nueva fila para el manejador indicado con todos sus valores a cero.
+     *
+     * @param owner Manejador propietario de la fila
+     * @return Índice de la nueva fila
+     */
+    int add(DynamicObject owner) {
+        ensureCapacity(size + 1);
+        clearMoved();
+        structureVersion++;
+        int index = size++;
+        x[index] = 0;
+        y[index] = 0;
+        previousX[index] = 0;
+        previousY[index] = 0;
+        vx[index] = 0;
+        vy[index] = 0;
+        biasVx[index] = 0;
+        biasVy[index] = 0;
+        ax[index] = 0;
+        ay[index] = 0;
+        fx[index] = 0;
+        fy[index] = 0;
+        invMass[index] = 0;
+        width[index] = 0;
+        height[index] = 0;
+        shape[index] = (byte) CollisionShape.AABB.ordinal();
+        id[index] = owner.id;
+        sleeping[index] = false;
+        restTime[index] = 0;
+        owners[index] = owner;
+        return index;
+    }
+
+    /**
+     * Elimina la fila indicada moviendo la última fila a su lugar.
+     * El índice del manejador movido se actualiza automáticamente.
+     *
+     * @param index Índice de la fila a eliminar
+     */
+    void remove(int index) {
+        clearMoved();
+        structureVersion++;
+        int last = --size;
+        if (index != last) {
+            copyRow(this, last, index);
+            owners[index].index = index;
+        }
+        owners[last] = null;
+    }
+
+    /**
+     * Traslada un manejador desde su almacén actual a este almacén, conservando su estado.
+     *
+     * @param body Manejador a trasladar
+     */
+    void attach(DynamicObject body) {
+        BodyStore source = body.store;
+        if (source == this) {
+            return;
+        }
+        int sourceIndex = body.index;
+        int index = add(body);
+        copyRow(source, sourceIndex, index);
+        owners[index] = body;
+        source.remove(sourceIndex);
+        body.store = this;
+        body.index = index;
+    }
+
+    /**
+     * Copia todas las columnas de una fila de otro almacén a una fila de este.
+     *
+     * @param source Almacén de origen
+     * @param from Fila de origen
+     * @param to Fila de destino
+     */
+    private void copyRow(BodyStore source, int from, int to) {
+        x[to] = source.x[from];
+        y[to] = source.y[from];
+        previousX[to] = source.previousX[from];
+        previousY[to] = source.previousY[from];
+        vx[to] = source.vx[from];
+        vy[to] = source.vy[from];
+        biasVx[to] = source.biasVx[from];
+        biasVy[to] = source.biasVy[from];
+        ax[to] = source.ax[from];
+        ay[to] = source.ay[from];
+        fx[to] = source.fx[from];
+        fy[to] = source.fy[from];
+        invMass[to] = source.invMass[from];
+        width[to] = source.width[from];
+        height[to] = source.height[from];
+        shape[to] = source.shape[from];
+        id[to] = source.id[from];
+        sleeping[to] = source.sleeping[from];
+        restTime[to] = source.restTime[from];
+        owners[to] = source.owners[from];
+    }
+
+    /**
+     * Guarda las posiciones actuales de un rango de cuerpos como posiciones anteriores.
+     * Se llama al comienzo de cada paso para poder interpolar el dibujado entre pasos.
+     *
+     * @param from Primer índice (inclusivo)
+     * @param to Último índice (exclusivo)
+     */
+    void savePreviousPositions(int from, int to) {
+        System.arraycopy(x, from, previousX, from, to - from);
+        System.arraycopy(y, from, previousY, from, to - from);
+    }
+
+    /**
+     * Integra un rango de cuerpos con Euler semi-implícito y reinicia sus fuerzas.
+     * La gravedad se suma a la aceleración de los cuerpos con masa.
+     *
+     * @param from Primer índice (inclusivo)
+     * @param to Último índice (exclusivo)
+     * @param deltaTime Paso de tiempo en segundos
+     * @param gravityX Componente x de la aceleración gravitatoria
+     * @param gravityY Componente y de la aceleración gravitatoria
+     */
+    void integrate(int from, int to, double deltaTime, double gravityX, double gravityY) {
+        integrateVelocities(from, to, deltaTime, gravityX, gravityY);
+        integratePositions(from, to, deltaTime);
+    }
+
+    /**
+     * Calcula la aceleración de un rango de cuerpos a partir de sus fuerzas, actualiza sus
+     * velocidades y reinicia las fuerzas acumuladas. Los cuerpos dormidos se omiten.
+     *
+     * @param from Primer índice (inclusivo)
+     * @param to Último índice (exclusivo)
+     * @param deltaTime Paso de tiempo en segundos
+     * @param gravityX Componente x de la aceleración gravitatoria
+     * @param gravityY Componente y de la aceleración gravitatoria
+     */
+    void integrateVelocities(int from, int to, double deltaTime, double gravityX, double gravityY) {
+        for (int i = from; i < to; i++) {
+            if (sleeping[i]) {
+                continue;
+            }
+            double inverse = invMass[i];
+            if (inverse > 0) {
+                ax[i] = fx[i] * inverse + gravityX;
+                ay[i] = fy[i] * inverse + gravityY;
+            } else {
+                ax[i] = 0;
+                ay[i] = 0;
+            }
+            vx[i] += ax[i] * deltaTime;
+            vy[i] += ay[i] * deltaTime;
+            fx[i] = 0;
+            fy[i] = 0;
+        }
+    }
+
+    /**
+     * Avanza las posiciones de un rango de cuerpos según sus velocidades, más la velocidad de
+     * corrección de penetración del paso, que se descarta a continuación para que no se
+     * convierta en energía cinética. Los cuerpos dormidos se omiten.
+     *
+     * @param from Primer índice (inclusivo)
+     * @param to Último índice (exclusivo)
+     * @param deltaTime Paso de tiempo en segundos
+     */
+    void integratePositions(int from, int to, double deltaTime) {
+        for (int i = from; i < to; i++) {
+            if (sleeping[i]) {
+                continue;
+            }
+            x[i] += (vx[i] + biasVx[i]) * deltaTime;
+            y[i] += (vy[i] + biasVy[i]) * deltaTime;
+            biasVx[i] = 0;
+            biasVy[i] = 0;
+        }
+    }
+
+    /**
+     * Anota en la lista de movidos los cuerpos despiertos de un rango que se han desplazado en el
+     * último paso. Se llama después de integrar, en un solo hilo.
+     *
+     * @param from Primer índice (inclusivo)
+     * @param to Último índice (exclusivo)
+     */
+    void collectMoved(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!sleeping[i] && (x[i] != previousX[i] || y[i] != previousY[i])) {
+                markMoved(i);
+            }
+        }
+    }
+
+    /**
+     * Anota un cuerpo en la lista de movidos, si no lo estaba ya.
+     *
+     * @param index Índice de la fila
+     */
+    void markMoved(int index) {
+        if (movedMark[index]) {
+            return;
+        }
+        movedMark[index] = true;
+        if (movedCount == moved.length) {
+            moved = Arrays.copyOf(moved, movedCount * 2);
+        }
+        moved[movedCount++] = index;
+    }
+
+    /**
+     * Vacía la lista de movidos. Al añadir o eliminar filas los índices anotados dejan de ser
+     * válidos, así que también se vacía entonces.
+     */
+    void clearMoved() {
+        for (int k = 0; k < movedCount; k++) {
+            movedMark[moved[k]] = false;
+        }
+        movedCount = 0;
+    }
+
+    /**
+     * Despierta un cuerpo y reinicia su tiempo en reposo.
+     *
+     * @param index Índice de la fila
+     */
+    void wake(int index) {
+        sleeping[index] = false;
+        restTime[index] = 0;
+    }
+
+    /**
+     * Despierta los cuerpos dinámicos cuya caja envolvente toca la del cuerpo indicado.
+     * Se usa al eliminar un cuerpo, para que los que se apoyaban en él no queden flotando.
+     *
+     * @param index Índice del cuerpo de referencia
+     */
+    void wakeTouching(int index) {
+        double minX = x[index];
+        double minY = y[index];
+        double maxX = minX + width[index];
+        double maxY = minY + height[index];
+        for (int i = 0; i < size; i++) {
+            if (sleeping[i] && invMass[i] > 0 && x[i] <= maxX && minX <= x[i] + width[i]
+                    && y[i] <= maxY && minY <= y[i] + height[i]) {
+                wake(i);
+            }
+        }
+    }
+
+    /**
+     * Garantiza que las columnas puedan almacenar al menos el número de filas indicado.
+     *
+     * @param required Número mínimo de filas
+     */
+    private void ensureCapacity(int required) {
+        if (required <= x.length) {
+            return;
+        }
+        int capacity = Math.max(required, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        biasVx = Arrays.copyOf(biasVx, capacity);
+        biasVy = Arrays.copyOf(biasVy, capacity);
+        ax = Arrays.copyOf(ax, capacity);
+        ay = Arrays.copyOf(ay, capacity);
+        fx = Arrays.copyOf(fx, capacity);
+        fy = Arrays.copyOf(fy, capacity);
+        invMass = Arrays.copyOf(invMass, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        shape = Arrays.copyOf(shape, capacity);
+        id = Arrays.copyOf(id, capacity);
+        sleeping = Arrays.copyOf(sleeping, capacity);
+        restTime = Arrays.copyOf(restTime, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        movedMark = Arrays.copyOf(movedMark, capacity);
+    }
+
+    /**
+     * Obtiene el número de cuerpos almacenados.
+     *
+     * @return Número de cuerpos
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Obtiene un contador que cambia cada vez que se añaden o eliminan filas.
+     * Permite a las estructuras auxiliares detectar que los índices han dejado de ser válidos.
+     *
+     * @return Versión estructural actual
+     */
+    public int getStructureVersion() {
+        return structureVersion;
+    }
+
+    /**
+     * Obtiene el manejador propietario de una fila.
+     *
+     * @param index Índice de la fila
+     * @return Manejador de la fila
+     */
+    public DynamicObject getBody(int index) {
+        return owners[index];
+    }
+
+    /**
+     * Obtiene la coordenada x de la posición de una fila.
+     *
+     * @param index Índice de la fila
+     * @return Coordenada x
+     */
+    public double getX(int index) {
+        return x[index];
+    }
+
+    /**
+     * Obtiene la coordenada y de la posición de una fila.
+     *
+     * @param index Índice de la fila
+     * @return Coordenada y
+     */
+    public double getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Obtiene el ancho de la caja envolvente de una fila.
+     *
+     * @param index Índice de la fila
+     * @return Ancho de la caja envolvente
+     */
+    public double getWidth(int index) {
+        return width[index];
+    }
+
+    /**
+     * Obtiene el alto de la caja envolvente de una fila.
+     *
+     * @param index Índice de la fila
+     * @return Alto de la caja envolvente
+     */
+    public double getHeight(int index) {
+        return height[index];
+    }
+}
@@ -0,0 +1,18 @@
+package physics;
+
+/**
+ * Estrategia de fase amplia para la detección de colisiones.
+ * Recibe el estado de los cuerpos y produce las parejas cuyas cajas envolventes se solapan,
+ * de modo que la fase estrecha sólo tenga que examinar esas parejas.
+ */
+public interface BroadPhase {
+
+    /**
+     * Calcula las parejas de cuerpos cuyas cajas envolventes se solapan.
+     * Cada pareja debe aparecer una sola vez.
+     *
+     * @param bodies Almacén de cuerpos a procesar
+     * @param pairs Lista donde se escriben las parejas candidatas (se vacía antes)
+     */
+    void update(BodyStore bodies, PairBuffer pairs);
+}
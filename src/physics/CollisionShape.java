@@ -0,0 +1,14 @@
+package physics;
+
+/**
+ * Enumeración que define la forma usada para detectar colisiones de un cuerpo.
+ * Ambas formas se derivan de la caja envolvente del cuerpo (posición y tamaño).
+ */
+public enum CollisionShape {
+
+    /** Caja alineada con los ejes que ocupa toda la caja envolvente */
+    AABB,
+
+    /** Círculo inscrito en la caja envolvente, centrado en ella */
+    CIRCLE
+}
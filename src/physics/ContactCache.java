@@ -0,0 +1,178 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * Caché persistente de impulsos de contacto indexada por pareja de cuerpos.
+ * Guarda los impulsos acumulados al final de cada paso para usarlos como punto de partida
+ * (arranque en caliente) en el paso siguiente. Usa dos tablas de direccionamiento abierto
+ * que se alternan: la del paso anterior sólo se lee y la del paso actual sólo se escribe,
+ * por lo que los contactos que desaparecen se descartan solos sin recorrer la tabla.
+ */
+final class ContactCache {
+
+    /** Tabla con los impulsos del paso anterior */
+    private Table previous = new Table();
+
+    /** Tabla donde se escriben los impulsos del paso actual */
+    private Table current = new Table();
+
+    /**
+     * Empaqueta los identificadores estables de dos cuerpos en una clave independiente del orden.
+     *
+     * @param idA Identificador del primer cuerpo
+     * @param idB Identificador del segundo cuerpo
+     * @return Clave de la pareja
+     */
+    static long key(int idA, int idB) {
+        int low = Math.min(idA, idB);
+        int high = Math.max(idA, idB);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Comienza un nuevo paso: la tabla actual pasa a ser la anterior y se vacía la otra.
+     *
+     * @param expectedContacts Número aproximado de contactos que se escribirán
+     */
+    void beginStep(int expectedContacts) {
+        Table swap = previous;
+        previous = current;
+        current = swap;
+        current.clear(expectedContacts);
+    }
+
+    /**
+     * Busca en el paso anterior los impulsos de una pareja.
+     *
+     * @param key Clave de la pareja
+     * @return Posición en la tabla anterior, o -1 si la pareja no estaba en contacto
+     */
+    int findPrevious(long key) {
+        return previous.find(key);
+    }
+
+    /**
+     * Obtiene el impulso normal acumulado en el paso anterior.
+     *
+     * @param slot Posición devuelta por {@link #findPrevious(long)}
+     * @return Impulso normal acumulado
+     */
+    double previousNormalImpulse(int slot) {
+        return previous.normalImpulse[slot];
+    }
+
+    /**
+     * Obtiene el impulso tangencial acumulado en el paso anterior.
+     *
+     * @param slot Posición devuelta por {@link #findPrevious(long)}
+     * @return Impulso tangencial acumulado
+     */
+    double previousTangentImpulse(int slot) {
+        return previous.tangentImpulse[slot];
+    }
+
+    /**
+     * Guarda los impulsos acumulados de una pareja en el paso actual.
+     *
+     * @param key Clave de la pareja
+     * @param normalImpulse Impulso normal acumulado
+     * @param tangentImpulse Impulso tangencial acumulado
+     */
+    void store(long key, double normalImpulse, double tangentImpulse) {
+        current.put(key, normalImpulse, tangentImpulse);
+    }
+
+    /**
+     * Tabla de direccionamiento abierto de clave {@code long} con dos valores {@code double}.
+     * Las posiciones se invalidan en bloque cambiando la generación.
+     */
+    private static final class Table {
+
+        /** Claves de las parejas */
+        private long[] keys = new long[64];
+
+        /** Impulsos normales acumulados */
+        private double[] normalImpulse = new double[64];
+
+        /** Impulsos tangenciales acumulados */
+        private double[] tangentImpulse = new double[64];
+
+        /** Generación en la que se escribió cada posición */
+        private int[] stamps = new int[64];
+
+        /** Generación actual de la tabla */
+        private int generation = 1;
+
+        /**
+         * Vacía la tabla y garantiza espacio para el número de entradas indicado.
+         *
+         * @param expected Número de entradas esperadas
+         */
+        void clear(int expected) {
+            int required = Integer.highestOneBit(Math.max(32, expected) * 2 - 1) << 1;
+            if (required > keys.length) {
+                keys = new long[required];
+                normalImpulse = new double[required];
+                tangentImpulse = new double[required];
+                stamps = new int[required];
+                generation = 1;
+                return;
+            }
+            generation++;
+            if (generation == 0) {
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Busca una clave en la tabla.
+         *
+         * @param key Clave a buscar
+         * @return Posición de la clave, o -1 si no está
+         */
+        int find(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (stamps[slot] == generation) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserta o sobrescribe los valores de una clave.
+         * La tabla se dimensiona en {@link #clear(int)}, por lo que siempre queda espacio libre.
+         *
+         * @param key Clave
+         * @param normal Impulso normal
+         * @param tangent Impulso tangencial
+         */
+        void put(long key, double normal, double tangent) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (stamps[slot] == generation && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            stamps[slot] = generation;
+            keys[slot] = key;
+            normalImpulse[slot] = normal;
+            tangentImpulse[slot] = tangent;
+        }
+
+        /**
+         * Dispersa una clave para distribuirla en la tabla.
+         *
+         * @param key Clave de la pareja
+         * @return Valor de dispersión
+         */
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,560 @@
+package physics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Resolutor iterativo de contactos basado en impulsos secuenciales.
+ * A partir de las parejas candidatas de la fase amplia ejecuta la fase estrecha, construye los
+ * contactos y aplica impulsos sobre las velocidades hasta que dejan de acercarse.
+ * Los impulsos acumulados se guardan en una caché indexada por pareja de cuerpos y se reaplican
+ * al comienzo del paso siguiente (arranque en caliente), de modo que las pilas de objetos en
+ * reposo convergen con muchas menos iteraciones.
+ * Como los cuerpos no rotan, cada contacto se reduce a una normal y una penetración.
+ * En modo paralelo los contactos se agrupan en islas independientes (conjuntos de cuerpos
+ * dinámicos conectados por contactos) que se resuelven en hilos distintos; cada isla conserva
+ * el orden relativo de sus contactos, por lo que el resultado es idéntico al del modo secuencial.
+ */
+public class ContactSolver {
+
+    /** Número de iteraciones del resolutor por paso */
+    private int iterations = 4;
+
+    /** Coeficiente de restitución (rebote) de los contactos */
+    private double restitution = 0.2;
+
+    /** Coeficiente de rozamiento de los contactos */
+    private double friction = 0.4;
+
+    /** Fracción de la penetración que se corrige en cada paso */
+    private double baumgarte = 0.2;
+
+    /** Penetración permitida sin corrección, en unidades del mundo */
+    private double slop = 0.5;
+
+    /** Velocidad de acercamiento (unidades por segundo) por debajo de la cual no se aplica rebote */
+    private double restitutionThreshold = 50.0;
+
+    /** Indica si se usan los impulsos del paso anterior como punto de partida */
+    private boolean warmStarting = true;
+
+    /** Caché de impulsos por pareja de cuerpos */
+    private final ContactCache cache = new ContactCache();
+
+    /** Resultado reutilizable de la fase estrecha */
+    private final double[] manifold = new double[3];
+
+    /** Primer cuerpo de cada contacto */
+    private int[] bodyA = new int[64];
+
+    /** Segundo cuerpo de cada contacto */
+    private int[] bodyB = new int[64];
+
+    /** Clave de la pareja de cada contacto en la caché */
+    private long[] keys = new long[64];
+
+    /** Componente x de la normal de cada contacto (de A hacia B) */
+    private double[] normalX = new double[64];
+
+    /** Componente y de la normal de cada contacto (de A hacia B) */
+    private double[] normalY = new double[64];
+
+    /** Masa efectiva de cada contacto */
+    private double[] effectiveMass = new double[64];
+
+    /** Velocidad normal objetivo de cada contacto por rebote */
+    private double[] targetVelocity = new double[64];
+
+    /** Velocidad de separación objetivo para corregir la penetración de cada contacto */
+    private double[] biasVelocity = new double[64];
+
+    /** Impulso de corrección de penetración acumulado de cada contacto */
+    private double[] biasImpulse = new double[64];
+
+    /** Impulso normal acumulado de cada contacto */
+    private double[] normalImpulse = new double[64];
+
+    /** Impulso tangencial acumulado de cada contacto */
+    private double[] tangentImpulse = new double[64];
+
+    /** Número de contactos del paso actual */
+    private int contactCount;
+
+    /** Representante de cada cuerpo en la unión de conjuntos que forma las islas */
+    private int[] parent = new int[64];
+
+    /** Indica, para cada representante, si su isla toca algún cuerpo estático quieto o dormido */
+    private boolean[] supported = new boolean[64];
+
+    /** Isla asignada a cada representante, o -1 si aún no tiene */
+    private int[] rootIsland = new int[64];
+
+    /** Isla a la que pertenece cada contacto */
+    private int[] contactIsland = new int[64];
+
+    /** Contactos ordenados por isla, conservando su orden original dentro de cada isla */
+    private int[] islandContacts = new int[64];
+
+    /** Posición en {@link #islandContacts} donde empieza cada isla (con una entrada final extra) */
+    private int[] islandStart = new int[65];
+
+    /** Número de islas del paso actual */
+    private int islandCount;
+
+    /**
+     * Ejecuta la fase estrecha sobre las parejas candidatas y resuelve los contactos resultantes,
+     * modificando las velocidades de los cuerpos.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param pairs Parejas candidatas de la fase amplia
+     * @param deltaTime Paso de tiempo en segundos
+     */
+    public void solve(BodyStore bodies, PairBuffer pairs, double deltaTime) {
+        solve(bodies, pairs, deltaTime, null, 0);
+    }
+
+    /**
+     * Ejecuta la fase estrecha y resuelve los contactos, repartiendo las islas independientes
+     * entre los hilos del pool indicado. El resultado es idéntico al de la versión secuencial.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param pairs Parejas candidatas de la fase amplia
+     * @param deltaTime Paso de tiempo en segundos
+     * @param pool Pool de hilos a usar, o null para resolver en el hilo llamante
+     * @param grainSize Número aproximado de contactos que resuelve cada tarea
+     */
+    public void solve(BodyStore bodies, PairBuffer pairs, double deltaTime, ForkJoinPool pool, int grainSize) {
+        cache.beginStep(pairs.size());
+        buildContacts(bodies, pairs, deltaTime);
+        buildIslands(bodies);
+        if (pool == null) {
+            for (int c = 0; c < contactCount && warmStarting; c++) {
+                warmStart(bodies, c);
+            }
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                for (int c = 0; c < contactCount; c++) {
+                    solveContact(bodies, c);
+                }
+            }
+        } else {
+            int islandGrain = Math.max(1, (int) ((long) grainSize * islandCount / Math.max(1, contactCount)));
+            ParallelRange.forRange(pool, 0, islandCount, islandGrain, (from, to) -> {
+                for (int island = from; island < to; island++) {
+                    solveIsland(bodies, island);
+                }
+            });
+        }
+        for (int c = 0; c < contactCount; c++) {
+            cache.store(keys[c], normalImpulse[c], tangentImpulse[c]);
+        }
+    }
+
+    /**
+     * Construye los contactos del paso a partir de las parejas que se tocan realmente.
+     * Se omiten las parejas en las que ambos cuerpos duermen y se despiertan los cuerpos
+     * dinámicos dormidos que tocan a un cuerpo despierto.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param pairs Parejas candidatas
+     * @param deltaTime Paso de tiempo en segundos
+     */
+    private void buildContacts(BodyStore bodies, PairBuffer pairs, double deltaTime) {
+        contactCount = 0;
+        double[] invMass = bodies.invMass;
+        boolean[] sleeping = bodies.sleeping;
+        for (int p = 0; p < pairs.size(); p++) {
+            int a = pairs.getFirst(p);
+            int b = pairs.getSecond(p);
+            double inverseSum = invMass[a] + invMass[b];
+            if (inverseSum == 0 || (sleeping[a] && sleeping[b]) || !NarrowPhase.collide(bodies, a, b, manifold)) {
+                continue;
+            }
+            // Un cuerpo dinámico dormido que toca a uno despierto vuelve a simularse
+            if (sleeping[a] && invMass[a] > 0) {
+                bodies.wake(a);
+            }
+            if (sleeping[b] && invMass[b] > 0) {
+                bodies.wake(b);
+            }
+            ensureCapacity(contactCount + 1);
+            int c = contactCount++;
+            double nx = manifold[NarrowPhase.NORMAL_X];
+            double ny = manifold[NarrowPhase.NORMAL_Y];
+            bodyA[c] = a;
+            bodyB[c] = b;
+            keys[c] = ContactCache.key(bodies.id[a], bodies.id[b]);
+            normalX[c] = nx;
+            normalY[c] = ny;
+            effectiveMass[c] = 1.0 / inverseSum;
+
+            double approach = (bodies.vx[b] - bodies.vx[a]) * nx + (bodies.vy[b] - bodies.vy[a]) * ny;
+            targetVelocity[c] = approach < -restitutionThreshold ? -restitution * approach : 0;
+            biasVelocity[c] = baumgarte / deltaTime * Math.max(manifold[NarrowPhase.PENETRATION] - slop, 0);
+            biasImpulse[c] = 0;
+
+            int slot = cache.findPrevious(keys[c]);
+            normalImpulse[c] = slot >= 0 && warmStarting ? cache.previousNormalImpulse(slot) : 0;
+            tangentImpulse[c] = slot >= 0 && warmStarting ? cache.previousTangentImpulse(slot) : 0;
+        }
+    }
+
+    /**
+     * Agrupa los contactos en islas mediante unión de conjuntos sobre los cuerpos dinámicos.
+     * Los cuerpos estáticos no unen islas, ya que el resolutor nunca modifica su velocidad.
+     * Las islas se numeran por orden de aparición de su primer contacto.
+     *
+     * @param bodies Almacén de cuerpos
+     */
+    private void buildIslands(BodyStore bodies) {
+        int count = bodies.size();
+        if (parent.length < count) {
+            parent = new int[count];
+            rootIsland = new int[count];
+            supported = new boolean[count];
+        }
+        for (int i = 0; i < count; i++) {
+            parent[i] = i;
+            rootIsland[i] = -1;
+        }
+        double[] invMass = bodies.invMass;
+        for (int c = 0; c < contactCount; c++) {
+            if (invMass[bodyA[c]] > 0 && invMass[bodyB[c]] > 0) {
+                int rootA = find(bodyA[c]);
+                int rootB = find(bodyB[c]);
+                if (rootA != rootB) {
+                    parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+                }
+            }
+        }
+        Arrays.fill(supported, 0, count, false);
+        for (int c = 0; c < contactCount; c++) {
+            if (isSupport(bodies, bodyA[c])) {
+                supported[find(bodyB[c])] = true;
+            }
+            if (isSupport(bodies, bodyB[c])) {
+                supported[find(bodyA[c])] = true;
+            }
+        }
+
+        if (islandContacts.length < contactCount) {
+            int capacity = Math.max(contactCount, islandContacts.length * 2);
+            contactIsland = new int[capacity];
+            islandContacts = new int[capacity];
+            islandStart = new int[capacity + 1];
+        }
+        // Asignar isla a cada contacto y contar contactos por isla
+        islandCount = 0;
+        for (int c = 0; c < contactCount; c++) {
+            int root = find(invMass[bodyA[c]] > 0 ? bodyA[c] : bodyB[c]);
+            if (rootIsland[root] < 0) {
+                rootIsland[root] = islandCount;
+                islandStart[islandCount++] = 0;
+            }
+            contactIsland[c] = rootIsland[root];
+            islandStart[contactIsland[c]]++;
+        }
+        // Convertir los recuentos en posiciones de inicio
+        int offset = 0;
+        for (int island = 0; island <= islandCount; island++) {
+            int size = island < islandCount ? islandStart[island] : 0;
+            islandStart[island] = offset;
+            offset += size;
+        }
+        // Colocar los contactos de forma estable; islandStart avanza como cursor y luego se restaura
+        for (int c = 0; c < contactCount; c++) {
+            islandContacts[islandStart[contactIsland[c]]++] = c;
+        }
+        for (int island = islandCount; island > 0; island--) {
+            islandStart[island] = islandStart[island - 1];
+        }
+        islandStart[0] = 0;
+    }
+
+    /**
+     * Obtiene el representante de la isla de un cuerpo en el último paso resuelto.
+     * Dos cuerpos dinámicos pertenecen a la misma isla si están conectados por contactos;
+     * los cuerpos estáticos forman siempre una isla propia.
+     *
+     * @param body Índice del cuerpo
+     * @return Índice del cuerpo representante de su isla
+     */
+    int islandRoot(int body) {
+        return find(body);
+    }
+
+    /**
+     * Indica si la isla de un cuerpo se apoya en algún cuerpo estático quieto o dormido en el
+     * último paso resuelto.
+     *
+     * @param body Índice del cuerpo
+     * @return true si algún cuerpo de su isla toca un apoyo
+     */
+    boolean isIslandSupported(int body) {
+        return supported[find(body)];
+    }
+
+    /**
+     * Indica si un cuerpo puede sostener a otros para que se duerman: uno dormido, o uno estático
+     * que no se mueve. Una plataforma cinemática en movimiento no sirve de apoyo.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param body Índice del cuerpo
+     * @return true si el cuerpo es un apoyo
+     */
+    private static boolean isSupport(BodyStore bodies, int body) {
+        return bodies.sleeping[body]
+                || (bodies.invMass[body] == 0 && bodies.vx[body] == 0 && bodies.vy[body] == 0);
+    }
+
+    /**
+     * Busca el representante del conjunto de un cuerpo, comprimiendo el camino.
+     *
+     * @param body Índice del cuerpo
+     * @return Representante del conjunto
+     */
+    private int find(int body) {
+        int root = body;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[body] != root) {
+            int next = parent[body];
+            parent[body] = root;
+            body = next;
+        }
+        return root;
+    }
+
+    /**
+     * Resuelve todos los contactos de una isla: arranque en caliente e iteraciones.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param island Índice de la isla
+     */
+    private void solveIsland(BodyStore bodies, int island) {
+        int from = islandStart[island];
+        int to = islandStart[island + 1];
+        for (int k = from; k < to && warmStarting; k++) {
+            warmStart(bodies, islandContacts[k]);
+        }
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (int k = from; k < to; k++) {
+                solveContact(bodies, islandContacts[k]);
+            }
+        }
+    }
+
+    /**
+     * Aplica a los cuerpos de un contacto los impulsos acumulados en el paso anterior.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param c Índice del contacto
+     */
+    private void warmStart(BodyStore bodies, int c) {
+        double px = normalX[c] * normalImpulse[c] - normalY[c] * tangentImpulse[c];
+        double py = normalY[c] * normalImpulse[c] + normalX[c] * tangentImpulse[c];
+        applyImpulse(bodies, bodyA[c], bodyB[c], px, py);
+    }
+
+    /**
+     * Resuelve un contacto: primero el rozamiento y después la componente normal,
+     * limitando los impulsos acumulados.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param c Índice del contacto
+     */
+    private void solveContact(BodyStore bodies, int c) {
+        int a = bodyA[c];
+        int b = bodyB[c];
+        double nx = normalX[c];
+        double ny = normalY[c];
+        double tx = -ny;
+        double ty = nx;
+
+        double relativeX = bodies.vx[b] - bodies.vx[a];
+        double relativeY = bodies.vy[b] - bodies.vy[a];
+        double tangentSpeed = relativeX * tx + relativeY * ty;
+        double maxFriction = friction * normalImpulse[c];
+        double oldTangent = tangentImpulse[c];
+        tangentImpulse[c] = Math.max(-maxFriction, Math.min(oldTangent - tangentSpeed * effectiveMass[c], maxFriction));
+        double tangentDelta = tangentImpulse[c] - oldTangent;
+        applyImpulse(bodies, a, b, tx * tangentDelta, ty * tangentDelta);
+
+        relativeX = bodies.vx[b] - bodies.vx[a];
+        relativeY = bodies.vy[b] - bodies.vy[a];
+        double normalSpeed = relativeX * nx + relativeY * ny;
+        double oldNormal = normalImpulse[c];
+        normalImpulse[c] = Math.max(oldNormal + (targetVelocity[c] - normalSpeed) * effectiveMass[c], 0);
+        double normalDelta = normalImpulse[c] - oldNormal;
+        applyImpulse(bodies, a, b, nx * normalDelta, ny * normalDelta);
+
+        if (biasVelocity[c] > 0 || biasImpulse[c] > 0) {
+            double biasSpeed = (bodies.biasVx[b] - bodies.biasVx[a]) * nx + (bodies.biasVy[b] - bodies.biasVy[a]) * ny;
+            double oldBias = biasImpulse[c];
+            biasImpulse[c] = Math.max(oldBias + (biasVelocity[c] - biasSpeed) * effectiveMass[c], 0);
+            double biasDelta = biasImpulse[c] - oldBias;
+            applyBiasImpulse(bodies, a, b, nx * biasDelta, ny * biasDelta);
+        }
+    }
+
+    /**
+     * Aplica un impulso de corrección de penetración, que sólo afecta a la velocidad de corrección
+     * del paso y no a la velocidad real, para separar los cuerpos sin añadirles energía.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param a Índice del primer cuerpo
+     * @param b Índice del segundo cuerpo
+     * @param impulseX Componente x del impulso
+     * @param impulseY Componente y del impulso
+     */
+    private static void applyBiasImpulse(BodyStore bodies, int a, int b, double impulseX, double impulseY) {
+        double inverseA = bodies.invMass[a];
+        double inverseB = bodies.invMass[b];
+        if (inverseA > 0) {
+            bodies.biasVx[a] -= impulseX * inverseA;
+            bodies.biasVy[a] -= impulseY * inverseA;
+        }
+        if (inverseB > 0) {
+            bodies.biasVx[b] += impulseX * inverseB;
+            bodies.biasVy[b] += impulseY * inverseB;
+        }
+    }
+
+    /**
+     * Aplica un impulso a B y el opuesto a A. Los cuerpos estáticos no se modifican.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param a Índice del primer cuerpo
+     * @param b Índice del segundo cuerpo
+     * @param impulseX Componente x del impulso
+     * @param impulseY Componente y del impulso
+     */
+    private static void applyImpulse(BodyStore bodies, int a, int b, double impulseX, double impulseY) {
+        double inverseA = bodies.invMass[a];
+        double inverseB = bodies.invMass[b];
+        if (inverseA > 0) {
+            bodies.vx[a] -= impulseX * inverseA;
+            bodies.vy[a] -= impulseY * inverseA;
+        }
+        if (inverseB > 0) {
+            bodies.vx[b] += impulseX * inverseB;
+            bodies.vy[b] += impulseY * inverseB;
+        }
+    }
+
+    /**
+     * Garantiza espacio para el número de contactos indicado.
+     *
+     * @param required Número mínimo de contactos
+     */
+    private void ensureCapacity(int required) {
+        if (required <= bodyA.length) {
+            return;
+        }
+        int capacity = Math.max(required, bodyA.length * 2);
+        bodyA = Arrays.copyOf(bodyA, capacity);
+        bodyB = Arrays.copyOf(bodyB, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        normalX = Arrays.copyOf(normalX, capacity);
+        normalY = Arrays.copyOf(normalY, capacity);
+        effectiveMass = Arrays.copyOf(effectiveMass, capacity);
+        targetVelocity = Arrays.copyOf(targetVelocity, capacity);
+        biasVelocity = Arrays.copyOf(biasVelocity, capacity);
+        biasImpulse = Arrays.copyOf(biasImpulse, capacity);
+        normalImpulse = Arrays.copyOf(normalImpulse, capacity);
+        tangentImpulse = Arrays.copyOf(tangentImpulse, capacity);
+    }
+
+    /**
+     * Obtiene el número de contactos resueltos en el último paso.
+     *
+     * @return Número de contactos
+     */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    /**
+     * Obtiene el número de iteraciones por paso.
+     *
+     * @return Número de iteraciones
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Establece el número de iteraciones por paso.
+     *
+     * @param iterations Número de iteraciones (debe ser mayor que cero)
+     * @throws IllegalArgumentException Si iterations es menor o igual a cero
+     */
+    public void setIterations(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be greater than zero");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Obtiene el coeficiente de restitución de los contactos.
+     *
+     * @return Coeficiente entre 0 (sin rebote) y 1 (rebote perfecto)
+     */
+    public double getRestitution() {
+        return restitution;
+    }
+
+    /**
+     * Establece el coeficiente de restitución de los contactos.
+     *
+     * @param restitution Coeficiente entre 0 (sin rebote) y 1 (rebote perfecto)
+     * @throws IllegalArgumentException Si el valor está fuera de [0, 1]
+     */
+    public void setRestitution(double restitution) {
+        if (restitution < 0 || restitution > 1) {
+            throw new IllegalArgumentException("Restitution must be between 0 and 1");
+        }
+        this.restitution = restitution;
+    }
+
+    /**
+     * Obtiene el coeficiente de rozamiento de los contactos.
+     *
+     * @return Coeficiente de rozamiento
+     */
+    public double getFriction() {
+        return friction;
+    }
+
+    /**
+     * Establece el coeficiente de rozamiento de los contactos.
+     *
+     * @param friction Coeficiente de rozamiento (debe ser no negativo)
+     * @throws IllegalArgumentException Si el coeficiente es negativo
+     */
+    public void setFriction(double friction) {
+        if (friction < 0) {
+            throw new IllegalArgumentException("Friction cannot be negative");
+        }
+        this.friction = friction;
+    }
+
+    /**
+     * Indica si cada paso parte de los impulsos acumulados en el paso anterior.
+     *
+     * @return true si el arranque en caliente está activado
+     */
+    public boolean isWarmStarting() {
+        return warmStarting;
+    }
+
+    /**
+     * Activa o desactiva el arranque en caliente a partir de los impulsos del paso anterior.
+     *
+     * @param warmStarting true para reutilizar los impulsos del paso anterior
+     */
+    public void setWarmStarting(boolean warmStarting) {
+        this.warmStarting = warmStarting;
+    }
+}
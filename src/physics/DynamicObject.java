@@ -1,121 +1,154 @@
 package physics;
 
+import core.MutableVector2D;
 import core.Vector2D;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Clase que representa un objeto dinámico en un espacio 2D que puede moverse y ser afectado por fuerzas.
  * Implementa física básica incluyendo posición, velocidad, aceleración y masa.
+ * El estado físico no se guarda en el propio objeto sino en una fila de un {@link BodyStore},
+ * por lo que esta clase actúa como un manejador ligero.
  */
 public class DynamicObject {
 
+    /** Generador de identificadores únicos para los objetos */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    /** Formas de colisión indexadas por ordinal, para no copiar el array en cada consulta */
+    private static final CollisionShape[] SHAPES = CollisionShape.values();
+
     /** Masa del objeto en unidades arbitrarias */
     private final double mass;
 
-    /** Posición actual del objeto en el espacio 2D */
-    private Vector2D position;
-
-    /** Velocidad actual del objeto */
-    private Vector2D velocity;
+    /** Identificador único y estable del objeto */
+    final int id = NEXT_ID.getAndIncrement();
 
-    /** Aceleración actual del objeto */
-    private Vector2D acceleration;
+    /** Almacén que contiene el estado físico del objeto */
+    BodyStore store;
 
-    /** Fuerza acumulada que se aplicará en el siguiente paso de simulación */
-    private Vector2D accumulatedForce;
+    /** Fila del objeto dentro del almacén */
+    int index;
 
     /**
      * Crea un nuevo objeto dinámico con la posición y masa especificadas.
+     * Mientras no se añada a un motor de física, el estado se guarda en un almacén propio.
      *
      * @param position Posición inicial del objeto. Si es nulo, se usará (0,0)
      * @param mass Masa del objeto. Debe ser un valor no negativo
      */
     public DynamicObject(Vector2D position, double mass) {
-        this.position = position != null ? position : new Vector2D(0, 0);
         this.mass = mass<0?0:mass;
-        this.velocity = new Vector2D(0, 0);
-        this.acceleration = new Vector2D(0, 0);
-        this.accumulatedForce = new Vector2D(0, 0);
+        this.store = new BodyStore(1);
+        this.index = store.add(this);
+        if (position != null) {
+            store.x[index] = position.getX();
+            store.y[index] = position.getY();
+        }
+        store.savePreviousPositions(index, index + 1);
+        store.invMass[index] = this.mass > 0 ? 1.0 / this.mass : 0;
     }
 
     /**
      * Actualiza el estado del objeto en el tiempo.
-     * Actualiza la aceleración, velocidad y posición basándose en las fuerzas aplicadas.
+     * Actualiza la aceleración, velocidad y posición basándose en las fuerzas aplicadas,
+     * y reinicia la fuerza acumulada.
+     * Si el objeto está en un {@link PhysicsEngine}, el motor lo integra junto con los demás y
+     * este método no hace nada. Las subclases pueden sobrescribirlo para actuar en cada paso:
+     * el motor lo llama al comienzo de cada paso, antes de integrar, sólo en los objetos cuya
+     * clase lo sobrescribe, de modo que las fuerzas aplicadas en él se integran en ese paso.
      *
      * @param deltaTime Tiempo transcurrido desde la última actualización en segundos
      */
     public void update(double deltaTime) {
-        updateAcceleration();
-        updateVelocity(deltaTime);
-        updatePosition(deltaTime);
-        resetForce();
+        if (store.simulated) {
+            return;
+        }
+        store.savePreviousPositions(index, index + 1);
+        store.integrate(index, index + 1, deltaTime, 0, 0);
     }
 
     /**
-     * Actualiza la aceleración del objeto basándose en la fuerza acumulada y su masa.
-     * Usa la segunda ley de Newton: F = m*a
+     * Aplica una fuerza al objeto.
+     * La fuerza se acumulará y se aplicará en el siguiente paso de simulación.
+     *
+     * @param force Vector de fuerza a aplicar. Si es nulo, no se aplica ninguna fuerza
      */
-    private void updateAcceleration() {
-        if (mass > 0) {
-            acceleration = Vector2D.divide(accumulatedForce, mass);
-        } else {
-            acceleration = new Vector2D(0, 0);
+    public void applyForce(Vector2D force) {
+        if (force != null) {
+            applyForce(force.getX(), force.getY());
         }
     }
 
     /**
-     * Actualiza la velocidad del objeto basándose en la aceleración actual.
+     * Aplica una fuerza al objeto sin crear ningún vector intermedio.
      *
-     * @param deltaTime Tiempo transcurrido desde la última actualización en segundos
+     * @param force Vector de fuerza a aplicar. Si es nulo, no se aplica ninguna fuerza
      */
-    private void updateVelocity(double deltaTime) {
-        velocity = Vector2D.add(velocity, Vector2D.multiply(acceleration, deltaTime));
+    public void applyForce(MutableVector2D force) {
+        if (force != null) {
+            applyForce(force.getX(), force.getY());
+        }
     }
 
     /**
-     * Actualiza la posición del objeto basándose en la velocidad actual.
+     * Aplica una fuerza al objeto a partir de sus componentes.
+     * Si el objeto estaba dormido, se despierta.
      *
-     * @param deltaTime Tiempo transcurrido desde la última actualización en segundos
+     * @param forceX Componente x de la fuerza
+     * @param forceY Componente y de la fuerza
      */
-    private void updatePosition(double deltaTime) {
-        position = Vector2D.add(position, Vector2D.multiply(velocity, deltaTime));
+    public void applyForce(double forceX, double forceY) {
+        store.wake(index);
+        store.fx[index] += forceX;
+        store.fy[index] += forceY;
     }
 
     /**
-     * Reinicia la fuerza acumulada a cero.
-     * Debe llamarse después de cada paso de simulación.
+     * Obtiene la masa del objeto.
+     *
+     * @return Masa del objeto
      */
-    private void resetForce() {
-        accumulatedForce = new Vector2D(0, 0);
+    public double getMass() {
+        return mass;
     }
 
     /**
-     * Aplica una fuerza al objeto.
-     * La fuerza se acumulará y se aplicará en el siguiente paso de simulación.
+     * Obtiene la posición actual del objeto.
      *
-     * @param force Vector de fuerza a aplicar. Si es nulo, no se aplica ninguna fuerza
+     * @return Vector de posición actual
      */
-    public void applyForce(Vector2D force) {
-        if (force != null) {
-            accumulatedForce = Vector2D.add(accumulatedForce, force);
-        }
+    public Vector2D getPosition() {
+        return new Vector2D(store.x[index], store.y[index]);
     }
 
     /**
-     * Obtiene la masa del objeto.
+     * Copia la posición actual del objeto en el vector indicado.
      *
-     * @return Masa del objeto
+     * @param out Vector donde se escribe la posición
+     * @return El mismo vector recibido
      */
-    public double getMass() {
-        return mass;
+    public MutableVector2D getPosition(MutableVector2D out) {
+        return out.set(store.x[index], store.y[index]);
     }
 
     /**
-     * Obtiene la posición actual del objeto.
+     * Obtiene la coordenada x de la posición sin crear ningún vector.
      *
-     * @return Vector de posición actual
+     * @return Coordenada x
      */
-    public Vector2D getPosition() {
-        return position;
+    public double getX() {
+        return store.x[index];
+    }
+
+    /**
+     * Obtiene la coordenada y de la posición sin crear ningún vector.
+     *
+     * @return Coordenada y
+     */
+    public double getY() {
+        return store.y[index];
     }
 
     /**
@@ -125,8 +158,121 @@ public class DynamicObject {
      */
     public void setPosition(Vector2D position) {
         if (position != null) {
-            this.position = position;
+            setPosition(position.getX(), position.getY());
+        }
+    }
+
+    /**
+     * Establece una nueva posición para el objeto a partir de sus coordenadas.
+     * Si el objeto estaba dormido, se despierta, igual que los cuerpos que tocaba antes y después
+     * del cambio. El cambio es instantáneo: el dibujado no interpola desde la posición anterior.
+     *
+     * @param x Nueva coordenada x
+     * @param y Nueva coordenada y
+     */
+    public void setPosition(double x, double y) {
+        store.wake(index);
+        store.wakeTouching(index);
+        store.x[index] = x;
+        store.y[index] = y;
+        store.previousX[index] = x;
+        store.previousY[index] = y;
+        store.wakeTouching(index);
+        store.markMoved(index);
+    }
+
+    /**
+     * Obtiene la coordenada x interpolada entre la posición al comienzo del último paso y la actual.
+     *
+     * @param alpha Fracción del paso transcurrida (0 = posición anterior, 1 = posición actual)
+     * @return Coordenada x interpolada
+     */
+    public double getInterpolatedX(double alpha) {
+        double previous = store.previousX[index];
+        return previous + (store.x[index] - previous) * alpha;
+    }
+
+    /**
+     * Obtiene la coordenada y interpolada entre la posición al comienzo del último paso y la actual.
+     *
+     * @param alpha Fracción del paso transcurrida (0 = posición anterior, 1 = posición actual)
+     * @return Coordenada y interpolada
+     */
+    public double getInterpolatedY(double alpha) {
+        double previous = store.previousY[index];
+        return previous + (store.y[index] - previous) * alpha;
+    }
+
+    /**
+     * Obtiene el ancho de la caja envolvente del objeto.
+     *
+     * @return Ancho en unidades del mundo
+     */
+    public double getWidth() {
+        return store.width[index];
+    }
+
+    /**
+     * Obtiene el alto de la caja envolvente del objeto.
+     *
+     * @return Alto en unidades del mundo
+     */
+    public double getHeight() {
+        return store.height[index];
+    }
+
+    /**
+     * Establece el tamaño de la caja envolvente del objeto.
+     * La caja se extiende desde la posición hacia la derecha y hacia abajo.
+     *
+     * @param width Ancho de la caja (debe ser no negativo)
+     * @param height Alto de la caja (debe ser no negativo)
+     * @throws IllegalArgumentException Si width o height son negativos
+     */
+    public void setSize(double width, double height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Width and height must be non-negative");
         }
+        store.width[index] = width;
+        store.height[index] = height;
+        store.markMoved(index);
+    }
+
+    /**
+     * Obtiene la forma usada para detectar colisiones del objeto.
+     *
+     * @return Forma de colisión
+     */
+    public CollisionShape getCollisionShape() {
+        return SHAPES[store.shape[index]];
+    }
+
+    /**
+     * Establece la forma usada para detectar colisiones del objeto.
+     * Si se proporciona null, se usará {@link CollisionShape#AABB}.
+     *
+     * @param collisionShape Nueva forma de colisión
+     */
+    public void setCollisionShape(CollisionShape collisionShape) {
+        CollisionShape value = collisionShape != null ? collisionShape : CollisionShape.AABB;
+        store.shape[index] = (byte) value.ordinal();
+    }
+
+    /**
+     * Indica si el objeto está dormido. Los objetos dormidos no se integran hasta que
+     * se les aplica una fuerza, se modifica su posición o velocidad, o les golpea otro objeto.
+     *
+     * @return true si el objeto está dormido
+     */
+    public boolean isSleeping() {
+        return store.sleeping[index];
+    }
+
+    /**
+     * Despierta el objeto si estaba dormido.
+     */
+    public void wakeUp() {
+        store.wake(index);
     }
 
     /**
@@ -135,7 +281,17 @@ public class DynamicObject {
      * @return Vector de velocidad actual
      */
     public Vector2D getVelocity() {
-        return velocity;
+        return new Vector2D(store.vx[index], store.vy[index]);
+    }
+
+    /**
+     * Copia la velocidad actual del objeto en el vector indicado.
+     *
+     * @param out Vector donde se escribe la velocidad
+     * @return El mismo vector recibido
+     */
+    public MutableVector2D getVelocity(MutableVector2D out) {
+        return out.set(store.vx[index], store.vy[index]);
     }
 
     /**
@@ -145,17 +301,30 @@ public class DynamicObject {
      */
     public void setVelocity(Vector2D velocity) {
         if (velocity != null) {
-            this.velocity = velocity;
+            setVelocity(velocity.getX(), velocity.getY());
         }
     }
 
+    /**
+     * Establece una nueva velocidad para el objeto a partir de sus componentes.
+     * Si el objeto estaba dormido, se despierta.
+     *
+     * @param velocityX Nueva componente x de la velocidad
+     * @param velocityY Nueva componente y de la velocidad
+     */
+    public void setVelocity(double velocityX, double velocityY) {
+        store.wake(index);
+        store.vx[index] = velocityX;
+        store.vy[index] = velocityY;
+    }
+
     /**
      * Obtiene la aceleración actual del objeto.
      *
      * @return Vector de aceleración actual
      */
     public Vector2D getAcceleration() {
-        return acceleration;
+        return new Vector2D(store.ax[index], store.ay[index]);
     }
 
     /**
@@ -166,7 +335,8 @@ public class DynamicObject {
      */
     public void setAcceleration(Vector2D acceleration) {
         if (acceleration != null) {
-            this.acceleration = acceleration;
+            store.ax[index] = acceleration.getX();
+            store.ay[index] = acceleration.getY();
         }
     }
 
@@ -176,7 +346,7 @@ public class DynamicObject {
      * @return Vector de fuerza acumulada
      */
     public Vector2D getAccumulatedForce() {
-        return accumulatedForce;
+        return new Vector2D(store.fx[index], store.fy[index]);
     }
 
     /**
@@ -187,7 +357,9 @@ public class DynamicObject {
      */
     public void setAccumulatedForce(Vector2D accumulatedForce) {
         if (accumulatedForce != null) {
-            this.accumulatedForce = accumulatedForce;
+            store.wake(index);
+            store.fx[index] = accumulatedForce.getX();
+            store.fy[index] = accumulatedForce.getY();
         }
     }
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package physics;
 
 import components.Action;
 import core.Vector2D;
+import render.DirtyRegion;
+import render.DrawCommandBuffer;
 import resource.DataLoad;
+import resource.ImageHandle;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -13,22 +16,40 @@ import java.awt.image.BufferedImage;
  */
 public class GameObject extends DynamicObject {
 
-    /** Imagen que representa visualmente al objeto en pantalla */
-    private final BufferedImage image;
+    /** Referencia a la imagen que representa visualmente al objeto en pantalla */
+    private final ImageHandle image;
 
     /** Acción asociada al objeto */
     private Action action;
 
+    /** Región donde se marcó el objeto por última vez (null si no se siguen sus cambios) */
+    private DirtyRegion dirtyRegion;
+
+    /** Coordenada x de pantalla donde se dibujó el objeto por última vez */
+    private double drawnX;
+
+    /** Coordenada y de pantalla donde se dibujó el objeto por última vez */
+    private double drawnY;
+
+    /** Ancho en pantalla con el que se dibujó el objeto por última vez (0 si no se ha dibujado) */
+    private double drawnWidth;
+
+    /** Alto en pantalla con el que se dibujó el objeto por última vez (0 si no se ha dibujado) */
+    private double drawnHeight;
+
     /**
      * Constructor principal de la clase GameObject.
+     * La caja envolvente del objeto toma el tamaño de su imagen, que se lee sin decodificarla.
      *
      * @param position Posición inicial del objeto en el espacio 2D
      * @param mass Masa del objeto. Si es 0, el objeto es estático
-     * @param image Imagen que representa al objeto. Si es nula, se usará una por defecto
+     * @param image Referencia a la imagen del objeto, de la que pasa a ser propietario.
+     *              Si es nula, se usará una por defecto
      */
-    private GameObject(Vector2D position, double mass, BufferedImage image) {
+    private GameObject(Vector2D position, double mass, ImageHandle image) {
         super(position, mass);
-        this.image = image != null ? image : DataLoad.BALL;
+        this.image = image != null ? image : DataLoad.BALL.duplicate();
+        setSize(this.image.getWidth(), this.image.getHeight());
     }
 
     /**
@@ -39,7 +60,7 @@ public class GameObject extends DynamicObject {
      * @param mass Masa del objeto. Si es 0, el objeto es estático
      */
     public GameObject(Vector2D position, double mass) {
-        this(position, mass, DataLoad.BALL);
+        this(position, mass, (ImageHandle) null);
     }
 
     /**
@@ -49,7 +70,7 @@ public class GameObject extends DynamicObject {
      * @param position Posición inicial del objeto
      */
     public GameObject(Vector2D position) {
-        this(position, 0, DataLoad.BALL);
+        this(position, 0, (ImageHandle) null);
     }
 
     /**
@@ -60,7 +81,7 @@ public class GameObject extends DynamicObject {
      * @param mass Masa del objeto. Si es 0, el objeto es estático
      */
     public GameObject(Vector2D position, BufferedImage image, double mass) {
-        this(position, mass, image);
+        this(position, mass, image != null ? ImageHandle.of(image) : null);
     }
 
     /**
@@ -70,7 +91,19 @@ public class GameObject extends DynamicObject {
      * @param image Imagen que representa al objeto. Si es nula, se usará una por defecto
      */
     public GameObject(Vector2D position, BufferedImage image) {
-        this(position, 0, image);
+        this(position, 0, image != null ? ImageHandle.of(image) : null);
+    }
+
+    /**
+     * Crea un nuevo GameObject con una imagen gestionada por un {@link resource.AssetManager}.
+     * El objeto pasa a ser propietario de la referencia y la libera en {@link #release()}.
+     *
+     * @param position Posición inicial del objeto
+     * @param image Referencia a la imagen. Si es nula, se usará una por defecto
+     * @param mass Masa del objeto. Si es 0, el objeto es estático
+     */
+    public GameObject(Vector2D position, ImageHandle image, double mass) {
+        this(position, mass, image);
     }
 
     /**
@@ -81,13 +114,105 @@ public class GameObject extends DynamicObject {
      * @throws IllegalArgumentException Si el contexto gráfico es nulo
      */
     public void render(Graphics2D g) {
+        render(g, 1.0);
+    }
+
+    /**
+     * Renderiza el objeto en una posición interpolada entre el paso de física anterior y el actual,
+     * para que el movimiento sea suave aunque la frecuencia de dibujado no coincida con la de física.
+     *
+     * @param g Contexto gráfico donde se dibujará el objeto
+     * @param alpha Fracción del paso transcurrida (0 = posición anterior, 1 = posición actual)
+     * @throws IllegalArgumentException Si el contexto gráfico es nulo
+     */
+    public void render(Graphics2D g, double alpha) {
         if (g == null) {
             throw new IllegalArgumentException("El contexto gráfico no puede ser nulo");
         }
         if(action != null) {
             action.execute();
         }
-        g.drawImage(image, (int) Math.round(getPosition().getX()), (int) Math.round(getPosition().getY()), null);
+        g.drawImage(image.get(), (int) Math.round(getInterpolatedX(alpha)), (int) Math.round(getInterpolatedY(alpha)), null);
+    }
+
+    /**
+     * Graba el dibujado del objeto en su posición interpolada, para que lo reproduzca otro hilo.
+     *
+     * @param buffer Lista donde se graban los comandos
+     * @param alpha Fracción del paso transcurrida (0 = posición anterior, 1 = posición actual)
+     * @throws IllegalArgumentException Si la lista es nula
+     */
+    public void record(DrawCommandBuffer buffer, double alpha) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("La lista de comandos no puede ser nula");
+        }
+        if(action != null) {
+            action.execute();
+        }
+        buffer.drawImage(image.get(), (int) Math.round(getInterpolatedX(alpha)), (int) Math.round(getInterpolatedY(alpha)));
+    }
+
+    /**
+     * Comprueba si el rectángulo de pantalla donde se dibuja el objeto ha cambiado desde la última
+     * comprobación y, en ese caso, marca en la región el rectángulo anterior y el nuevo.
+     * Lo usa la escena en el modo de regiones sucias; la transformación es la de la cámara.
+     *
+     * @param region Región donde se marcan los cambios
+     * @param alpha Fracción del paso transcurrida (0 = posición anterior, 1 = posición actual)
+     * @param zoom Escala de la cámara
+     * @param originX Coordenada x del mundo que se dibuja en el borde izquierdo
+     * @param originY Coordenada y del mundo que se dibuja en el borde superior
+     * @throws IllegalArgumentException Si la región es nula
+     */
+    public void invalidateIfMoved(DirtyRegion region, double alpha, double zoom, double originX, double originY) {
+        if (region == null) {
+            throw new IllegalArgumentException("La región no puede ser nula");
+        }
+        BufferedImage loaded = image.get();
+        double x = (Math.round(getInterpolatedX(alpha)) - originX) * zoom;
+        double y = (Math.round(getInterpolatedY(alpha)) - originY) * zoom;
+        double w = loaded.getWidth() * zoom;
+        double h = loaded.getHeight() * zoom;
+        if (region == dirtyRegion && x == drawnX && y == drawnY && w == drawnWidth && h == drawnHeight) {
+            return;
+        }
+        region.add(drawnX, drawnY, drawnWidth, drawnHeight);
+        region.add(x, y, w, h);
+        dirtyRegion = region;
+        drawnX = x;
+        drawnY = y;
+        drawnWidth = w;
+        drawnHeight = h;
+    }
+
+    /**
+     * Indica si el rectángulo de pantalla donde se dibujó el objeto se solapa con otro.
+     *
+     * @param area Rectángulo de pantalla a comprobar
+     * @return true si el objeto debe redibujarse para cubrir el rectángulo
+     */
+    public boolean intersects(Rectangle area) {
+        return area.intersects(drawnX, drawnY, drawnWidth, drawnHeight);
+    }
+
+    /**
+     * Marca el último rectángulo dibujado al retirar el objeto del motor, para que se borre.
+     */
+    void invalidateDrawn() {
+        if (dirtyRegion != null) {
+            dirtyRegion.add(drawnX, drawnY, drawnWidth, drawnHeight);
+            dirtyRegion = null;
+            drawnWidth = 0;
+            drawnHeight = 0;
+        }
+    }
+
+    /**
+     * Libera la referencia a la imagen del objeto para que el gestor pueda descartarla.
+     * Debe llamarse cuando el objeto deja de usarse; después ya no puede dibujarse.
+     */
+    public void release() {
+        image.release();
     }
 
     public void setAction(Action action){
@@ -0,0 +1,212 @@
+package physics;
+
+/**
+ * Pruebas de la fase estrecha entre las formas de colisión de dos cuerpos.
+ * Las formas se derivan de la caja envolvente de cada cuerpo: las cajas la ocupan entera y
+ * los círculos son el círculo inscrito en ella.
+ * Los resultados se escriben en un array reutilizable para no crear objetos.
+ */
+final class NarrowPhase {
+
+    /** Posición de la componente x de la normal en el array de resultado */
+    static final int NORMAL_X = 0;
+
+    /** Posición de la componente y de la normal en el array de resultado */
+    static final int NORMAL_Y = 1;
+
+    /** Posición de la penetración en el array de resultado */
+    static final int PENETRATION = 2;
+
+    /** Ordinal de la forma circular */
+    private static final byte CIRCLE = (byte) CollisionShape.CIRCLE.ordinal();
+
+    private NarrowPhase() {
+        throw new AssertionError("Utility class, not instantiable");
+    }
+
+    /**
+     * Comprueba si dos cuerpos se tocan y calcula la normal (de a hacia b) y la penetración.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param a Índice del primer cuerpo
+     * @param b Índice del segundo cuerpo
+     * @param out Array de al menos tres posiciones donde se escribe el resultado
+     * @return true si los cuerpos están en contacto
+     */
+    static boolean collide(BodyStore bodies, int a, int b, double[] out) {
+        boolean circleA = bodies.shape[a] == CIRCLE;
+        boolean circleB = bodies.shape[b] == CIRCLE;
+        if (circleA && circleB) {
+            return circleCircle(bodies, a, b, out);
+        }
+        if (circleA) {
+            return circleBox(bodies, a, b, out, 1);
+        }
+        if (circleB) {
+            return circleBox(bodies, b, a, out, -1);
+        }
+        return boxBox(bodies, a, b, out);
+    }
+
+    /**
+     * Prueba entre dos círculos.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param a Índice del primer círculo
+     * @param b Índice del segundo círculo
+     * @param out Array de resultado
+     * @return true si los círculos se tocan
+     */
+    private static boolean circleCircle(BodyStore bodies, int a, int b, double[] out) {
+        double radiusA = radius(bodies, a);
+        double radiusB = radius(bodies, b);
+        double dx = centerX(bodies, b) - centerX(bodies, a);
+        double dy = centerY(bodies, b) - centerY(bodies, a);
+        double radii = radiusA + radiusB;
+        double distanceSquared = dx * dx + dy * dy;
+        if (distanceSquared > radii * radii) {
+            return false;
+        }
+        double distance = Math.sqrt(distanceSquared);
+        if (distance > 0) {
+            out[NORMAL_X] = dx / distance;
+            out[NORMAL_Y] = dy / distance;
+        } else {
+            out[NORMAL_X] = 0;
+            out[NORMAL_Y] = 1;
+        }
+        out[PENETRATION] = radii - distance;
+        return true;
+    }
+
+    /**
+     * Prueba entre un círculo y una caja.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param circle Índice del círculo
+     * @param box Índice de la caja
+     * @param out Array de resultado
+     * @param sign 1 si la normal debe ir del círculo a la caja, -1 para el sentido contrario
+     * @return true si las formas se tocan
+     */
+    private static boolean circleBox(BodyStore bodies, int circle, int box, double[] out, int sign) {
+        double radius = radius(bodies, circle);
+        double cx = centerX(bodies, circle);
+        double cy = centerY(bodies, circle);
+        double minX = bodies.x[box];
+        double minY = bodies.y[box];
+        double maxX = minX + bodies.width[box];
+        double maxY = minY + bodies.height[box];
+
+        boolean inside = cx > minX && cx < maxX && cy > minY && cy < maxY;
+        double nx;
+        double ny;
+        double penetration;
+        if (inside) {
+            // Empujar el centro por la cara más cercana de la caja
+            double left = cx - minX;
+            double right = maxX - cx;
+            double top = cy - minY;
+            double bottom = maxY - cy;
+            double nearest = Math.min(Math.min(left, right), Math.min(top, bottom));
+            if (nearest == left) {
+                nx = 1;
+                ny = 0;
+            } else if (nearest == right) {
+                nx = -1;
+                ny = 0;
+            } else if (nearest == top) {
+                nx = 0;
+                ny = 1;
+            } else {
+                nx = 0;
+                ny = -1;
+            }
+            penetration = radius + nearest;
+        } else {
+            double closestX = Math.max(minX, Math.min(cx, maxX));
+            double closestY = Math.max(minY, Math.min(cy, maxY));
+            double dx = closestX - cx;
+            double dy = closestY - cy;
+            double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared > radius * radius) {
+                return false;
+            }
+            double distance = Math.sqrt(distanceSquared);
+            if (distance > 0) {
+                nx = dx / distance;
+                ny = dy / distance;
+            } else {
+                nx = 0;
+                ny = 1;
+            }
+            penetration = radius - distance;
+        }
+        out[NORMAL_X] = nx * sign;
+        out[NORMAL_Y] = ny * sign;
+        out[PENETRATION] = penetration;
+        return true;
+    }
+
+    /**
+     * Prueba entre dos cajas alineadas con los ejes. La normal sigue el eje de menor solape.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param a Índice de la primera caja
+     * @param b Índice de la segunda caja
+     * @param out Array de resultado
+     * @return true si las cajas se tocan
+     */
+    private static boolean boxBox(BodyStore bodies, int a, int b, double[] out) {
+        double overlapX = Math.min(bodies.x[a] + bodies.width[a], bodies.x[b] + bodies.width[b])
+                - Math.max(bodies.x[a], bodies.x[b]);
+        double overlapY = Math.min(bodies.y[a] + bodies.height[a], bodies.y[b] + bodies.height[b])
+                - Math.max(bodies.y[a], bodies.y[b]);
+        if (overlapX < 0 || overlapY < 0) {
+            return false;
+        }
+        if (overlapX < overlapY) {
+            out[NORMAL_X] = centerX(bodies, b) >= centerX(bodies, a) ? 1 : -1;
+            out[NORMAL_Y] = 0;
+            out[PENETRATION] = overlapX;
+        } else {
+            out[NORMAL_X] = 0;
+            out[NORMAL_Y] = centerY(bodies, b) >= centerY(bodies, a) ? 1 : -1;
+            out[PENETRATION] = overlapY;
+        }
+        return true;
+    }
+
+    /**
+     * Calcula el radio del círculo inscrito en la caja envolvente de un cuerpo.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param i Índice del cuerpo
+     * @return Radio del círculo
+     */
+    private static double radius(BodyStore bodies, int i) {
+        return Math.min(bodies.width[i], bodies.height[i]) * 0.5;
+    }
+
+    /**
+     * Calcula la coordenada x del centro de la caja envolvente de un cuerpo.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param i Índice del cuerpo
+     * @return Coordenada x del centro
+     */
+    private static double centerX(BodyStore bodies, int i) {
+        return bodies.x[i] + bodies.width[i] * 0.5;
+    }
+
+    /**
+     * Calcula la coordenada y del centro de la caja envolvente de un cuerpo.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param i Índice del cuerpo
+     * @return Coordenada y del centro
+     */
+    private static double centerY(BodyStore bodies, int i) {
+        return bodies.y[i] + bodies.height[i] * 0.5;
+    }
+}
@@ -0,0 +1,72 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * Lista reutilizable de parejas de cuerpos candidatas a colisionar.
+ * Cada pareja se guarda como dos índices de filas de un {@link BodyStore},
+ * en arrays primitivos que sólo crecen, para no crear objetos en cada paso.
+ */
+public final class PairBuffer {
+
+    /** Índice del primer cuerpo de cada pareja */
+    private int[] first = new int[64];
+
+    /** Índice del segundo cuerpo de cada pareja */
+    private int[] second = new int[64];
+
+    /** Número de parejas almacenadas */
+    private int size;
+
+    /**
+     * Vacía la lista conservando la memoria reservada.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Añade una pareja a la lista. Los índices se guardan en orden ascendente.
+     *
+     * @param a Índice de uno de los cuerpos
+     * @param b Índice del otro cuerpo
+     */
+    public void add(int a, int b) {
+        if (size == first.length) {
+            first = Arrays.copyOf(first, size * 2);
+            second = Arrays.copyOf(second, size * 2);
+        }
+        first[size] = Math.min(a, b);
+        second[size] = Math.max(a, b);
+        size++;
+    }
+
+    /**
+     * Obtiene el número de parejas almacenadas.
+     *
+     * @return Número de parejas
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Obtiene el primer cuerpo (el de menor índice) de una pareja.
+     *
+     * @param pair Posición de la pareja en la lista
+     * @return Índice del primer cuerpo
+     */
+    public int getFirst(int pair) {
+        return first[pair];
+    }
+
+    /**
+     * Obtiene el segundo cuerpo (el de mayor índice) de una pareja.
+     *
+     * @param pair Posición de la pareja en la lista
+     * @return Índice del segundo cuerpo
+     */
+    public int getSecond(int pair) {
+        return second[pair];
+    }
+}
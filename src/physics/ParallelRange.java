@@ -0,0 +1,87 @@
+package physics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Utilidad para repartir un rango de índices entre los hilos de un {@link ForkJoinPool}.
+ * El rango se divide por mitades hasta alcanzar el tamaño de grano indicado y cada tramo
+ * se procesa en orden ascendente, por lo que el resultado no depende del reparto si los
+ * tramos no comparten datos.
+ */
+final class ParallelRange {
+
+    private ParallelRange() {
+        throw new AssertionError("Utility class, not instantiable");
+    }
+
+    /**
+     * Acción que procesa un tramo de índices.
+     */
+    @FunctionalInterface
+    interface RangeAction {
+        /**
+         * Procesa los índices del tramo.
+         *
+         * @param from Primer índice (inclusivo)
+         * @param to Último índice (exclusivo)
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Ejecuta la acción sobre el rango [from, to) repartiéndolo en el pool.
+     * Si el rango no supera el tamaño de grano, se ejecuta directamente en el hilo llamante.
+     *
+     * @param pool Pool de hilos donde ejecutar los tramos
+     * @param from Primer índice (inclusivo)
+     * @param to Último índice (exclusivo)
+     * @param grainSize Tamaño máximo de cada tramo
+     * @param action Acción a ejecutar sobre cada tramo
+     */
+    static void forRange(ForkJoinPool pool, int from, int to, int grainSize, RangeAction action) {
+        if (to - from <= grainSize) {
+            action.run(from, to);
+            return;
+        }
+        pool.invoke(new RangeTask(from, to, grainSize, action));
+    }
+
+    /**
+     * Tarea recursiva que divide el rango por mitades.
+     */
+    private static final class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Primer índice del tramo (inclusivo) */
+        private final int from;
+
+        /** Último índice del tramo (exclusivo) */
+        private final int to;
+
+        /** Tamaño máximo de cada tramo */
+        private final int grainSize;
+
+        /** Acción a ejecutar sobre cada tramo */
+        private final transient RangeAction action;
+
+        RangeTask(int from, int to, int grainSize, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grainSize) {
+                action.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, grainSize, action),
+                    new RangeTask(middle, to, grainSize, action));
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package physics;
 
+import core.MutableVector2D;
 import core.Vector2D;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Motor de física que gestiona la simulación de objetos físicos en el juego.
@@ -11,12 +15,74 @@ import java.util.List;
  */
 public class PhysicsEngine {
 
+    /** Indica, para cada clase de objeto, si sobrescribe {@link DynamicObject#update(double)} */
+    private static final ClassValue<Boolean> OVERRIDES_UPDATE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("update", double.class).getDeclaringClass() != DynamicObject.class;
+            } catch (NoSuchMethodException e) {
+                throw new AssertionError(e);
+            }
+        }
+    };
 
     /** Lista de objetos del juego que son gestionados por el motor de física */
     private final List<GameObject> gameObjects = new ArrayList<>();
 
+    /** Objetos cuya clase sobrescribe {@code update}, a los que se avisa en cada paso */
+    private final List<GameObject> steppedObjects = new ArrayList<>();
+
+    /** Índice espacial para consultas por región, creado en la primera consulta */
+    private SpatialIndex spatialIndex;
+
+    /** Tamaño de celda del índice espacial */
+    private double spatialIndexCellSize = 256;
+
+    /** Altas y bajas solicitadas durante una iteración, pendientes de aplicar en orden */
+    private final List<GameObject> pendingChanges = new ArrayList<>();
+
+    /** Indica, para cada cambio pendiente, si es un alta (bit activo) o una baja */
+    private final BitSet pendingAdditions = new BitSet();
+
+    /** Número de iteraciones en curso sobre los objetos (actualización o recorridos anidados) */
+    private int iterationDepth;
+
+    /** Almacén en columnas con el estado físico de los objetos gestionados */
+    private final BodyStore bodies = new BodyStore();
+
+    /** Fase amplia que detecta las parejas de cuerpos que pueden colisionar (null si está desactivada) */
+    private BroadPhase broadPhase = new SpatialHashBroadPhase(64);
+
+    /** Parejas candidatas a colisionar detectadas en el último paso */
+    private final PairBuffer candidatePairs = new PairBuffer();
+
+    /** Resolutor de contactos (null si las colisiones están desactivadas) */
+    private ContactSolver contactSolver = new ContactSolver();
+
+    /** Pool de hilos para el modo paralelo (null para ejecutar el paso de forma secuencial) */
+    private ForkJoinPool parallelPool;
+
+    /** Número de cuerpos o contactos que procesa cada tarea en modo paralelo */
+    private int grainSize = 4096;
+
+    /** Indica si los cuerpos en reposo se duermen para dejar de simularse */
+    private boolean sleepingEnabled = true;
+
+    /** Velocidad por debajo de la cual un cuerpo se considera en reposo */
+    private double sleepVelocityThreshold = 2.0;
+
+    /** Tiempo en segundos que una isla debe permanecer en reposo para dormirse */
+    private double timeToSleep = 0.5;
+
+    /** Menor tiempo en reposo de cada isla, indexado por su cuerpo representante */
+    private double[] islandRestTime = new double[0];
+
     /** Vector de aceleración gravitatoria aplicada a los objetos con masa */
-    private Vector2D gravityAcceleration;
+    private final MutableVector2D gravityAcceleration = new MutableVector2D();
+
+    /** Duración de la última llamada a update en nanosegundos */
+    private long lastStepNanos;
 
     /**
      * Crea una nueva instancia del motor de física con la aceleración gravitatoria especificada.
@@ -24,12 +90,17 @@ public class PhysicsEngine {
      * @param gravityAcceleration Vector de aceleración gravitatoria. Si es nulo, se usará (0,0)
      */
     public PhysicsEngine(Vector2D gravityAcceleration) {
-        this.gravityAcceleration = gravityAcceleration != null ? gravityAcceleration : new Vector2D(0, 0);
+        bodies.simulated = true;
+        setGravityAcceleration(gravityAcceleration);
     }
 
     /**
      * Actualiza el estado de todos los objetos gestionados por este motor.
-     * Aplica la gravedad a los objetos con masa y actualiza su estado físico.
+     * Primero llama a {@link DynamicObject#update(double)} de los objetos cuya clase lo
+     * sobrescribe; después aplica la gravedad y las fuerzas a las velocidades, detecta y resuelve
+     * los contactos entre objetos y, por último, integra las posiciones.
+     * Los objetos dormidos se omiten; al terminar, se duermen las islas que llevan
+     * suficiente tiempo en reposo.
      *
      * @param deltaTime Tiempo transcurrido desde la última actualización en segundos
      * @throws IllegalArgumentException Si deltaTime es menor o igual a cero
@@ -38,16 +109,143 @@ public class PhysicsEngine {
         if (deltaTime <= 0) {
             throw new IllegalArgumentException("deltaTime debe ser mayor que cero");
         }
-        for (GameObject gameObject : gameObjects) {
-            if (gameObject.getMass() > 0) {
-                gameObject.applyForce(Vector2D.multiply(gravityAcceleration, gameObject.getMass()));
+        PhysicsStepEvent event = new PhysicsStepEvent();
+        event.begin();
+        iterationDepth++;
+        try {
+            step(deltaTime);
+        } finally {
+            endIteration();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bodyCount = bodies.size();
+            event.awakeCount = countAwake();
+            event.contactCount = contactSolver != null ? contactSolver.getContactCount() : 0;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ejecuta un paso de simulación sobre los cuerpos del almacén.
+     *
+     * @param deltaTime Tiempo transcurrido desde la última actualización en segundos
+     */
+    private void step(double deltaTime) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < steppedObjects.size(); i++) {
+            steppedObjects.get(i).update(deltaTime);
+        }
+        int count = bodies.size();
+        bodies.savePreviousPositions(0, count);
+        double gravityX = gravityAcceleration.getX();
+        double gravityY = gravityAcceleration.getY();
+        if (parallelPool == null) {
+            bodies.integrateVelocities(0, count, deltaTime, gravityX, gravityY);
+        } else {
+            ParallelRange.forRange(parallelPool, 0, count, grainSize,
+                    (from, to) -> bodies.integrateVelocities(from, to, deltaTime, gravityX, gravityY));
+        }
+        boolean islandsBuilt = false;
+        if (broadPhase != null) {
+            broadPhase.update(bodies, candidatePairs);
+            if (contactSolver != null) {
+                contactSolver.solve(bodies, candidatePairs, deltaTime, parallelPool, grainSize);
+                islandsBuilt = true;
+            }
+        }
+        if (parallelPool == null) {
+            bodies.integratePositions(0, count, deltaTime);
+        } else {
+            ParallelRange.forRange(parallelPool, 0, count, grainSize,
+                    (from, to) -> bodies.integratePositions(from, to, deltaTime));
+        }
+        bodies.collectMoved(0, count);
+        if (sleepingEnabled) {
+            updateSleep(deltaTime, islandsBuilt);
+        }
+        lastStepNanos = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Cuenta los cuerpos despiertos. Sólo se usa al emitir eventos de JFR.
+     *
+     * @return Número de cuerpos que no están dormidos
+     */
+    private int countAwake() {
+        int awake = 0;
+        for (int i = 0; i < bodies.size(); i++) {
+            if (!bodies.sleeping[i]) {
+                awake++;
+            }
+        }
+        return awake;
+    }
+
+    /**
+     * Actualiza el tiempo en reposo de los cuerpos despiertos y duerme las islas cuyos
+     * cuerpos llevan todos al menos {@link #timeToSleep} segundos en reposo y que se apoyan,
+     * directamente o a través de otros cuerpos de la isla, en algún cuerpo estático quieto o
+     * dormido. Los cuerpos estáticos sólo se duermen si su velocidad es nula, de modo que las
+     * plataformas cinemáticas lentas no se detienen.
+     *
+     * @param deltaTime Paso de tiempo en segundos
+     * @param islandsBuilt true si el resolutor ha calculado las islas en este paso
+     */
+    private void updateSleep(double deltaTime, boolean islandsBuilt) {
+        int count = bodies.size();
+        double thresholdSquared = sleepVelocityThreshold * sleepVelocityThreshold;
+        if (islandRestTime.length < count) {
+            islandRestTime = new double[Math.max(count, islandRestTime.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            islandRestTime[i] = Double.POSITIVE_INFINITY;
+            if (bodies.sleeping[i]) {
+                continue;
+            }
+            double speedSquared = bodies.vx[i] * bodies.vx[i] + bodies.vy[i] * bodies.vy[i];
+            bodies.restTime[i] = speedSquared > thresholdSquared ? 0 : bodies.restTime[i] + deltaTime;
+        }
+        if (!islandsBuilt) {
+            // Sin contactos no se sabe si algo sostiene a los cuerpos, así que no se duermen
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!bodies.sleeping[i]) {
+                int root = contactSolver.islandRoot(i);
+                islandRestTime[root] = Math.min(islandRestTime[root], bodies.restTime[i]);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (!bodies.sleeping[i]) {
+                int root = contactSolver.islandRoot(i);
+                // Un cuerpo estático sólo se duerme quieto, para no detener las plataformas lentas;
+                // uno dinámico lento que no se apoya en nada está a la deriva, no en reposo
+                boolean canSleep = bodies.invMass[i] == 0
+                        ? bodies.vx[i] == 0 && bodies.vy[i] == 0
+                        : contactSolver.isIslandSupported(i);
+                if (islandRestTime[root] >= timeToSleep && canSleep) {
+                    bodies.sleeping[i] = true;
+                    bodies.vx[i] = 0;
+                    bodies.vy[i] = 0;
+                }
             }
-            gameObject.update(deltaTime);
         }
     }
 
+    /**
+     * Obtiene la duración de la última llamada a {@link #update(double)}.
+     *
+     * @return Duración en nanosegundos
+     */
+    public long getLastStepNanos() {
+        return lastStepNanos;
+    }
+
     /**
      * Obtiene una copia de la lista de objetos gestionados por este motor.
+     * Para recorrer los objetos en cada fotograma es preferible
+     * {@link #forEachGameObject(Consumer)}, que no copia la lista.
      *
      * @return Una nueva lista que contiene los objetos actuales del motor
      */
@@ -55,37 +253,335 @@ public class PhysicsEngine {
         return new ArrayList<>(gameObjects);
     }
 
+    /**
+     * Recorre los objetos del motor sin copiar la lista.
+     * Las altas y bajas solicitadas durante el recorrido se aplazan hasta que termina.
+     *
+     * @param action Acción a ejecutar sobre cada objeto
+     * @throws IllegalArgumentException Si la acción es nula
+     */
+    public void forEachGameObject(Consumer<? super GameObject> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        iterationDepth++;
+        try {
+            for (int i = 0; i < gameObjects.size(); i++) {
+                action.accept(gameObjects.get(i));
+            }
+        } finally {
+            endIteration();
+        }
+    }
+
+    /**
+     * Recorre, sin copiar la lista, los objetos cuya caja envolvente se solapa con la región indicada,
+     * usando un índice espacial que se mantiene al día de forma incremental en cada consulta.
+     * La caja considerada une la posición actual y la del paso anterior, por lo que la región sirve
+     * para dibujar en posiciones interpoladas. Los objetos se visitan en el mismo orden relativo que
+     * en {@link #forEachGameObject(Consumer)}, salvo tras eliminar objetos.
+     * Las altas y bajas solicitadas durante el recorrido se aplazan hasta que termina.
+     *
+     * @param left Límite izquierdo de la región
+     * @param top Límite superior de la región
+     * @param right Límite derecho de la región
+     * @param bottom Límite inferior de la región
+     * @param action Acción a ejecutar sobre cada objeto
+     * @throws IllegalArgumentException Si la acción es nula
+     */
+    public void forEachGameObjectIn(double left, double top, double right, double bottom,
+                                    Consumer<? super GameObject> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (spatialIndex == null) {
+            spatialIndex = new SpatialIndex(spatialIndexCellSize);
+        }
+        spatialIndex.refresh(bodies);
+        int found = spatialIndex.query(bodies, left, top, right, bottom);
+        int[] results = spatialIndex.getResults();
+        iterationDepth++;
+        try {
+            for (int k = 0; k < found; k++) {
+                action.accept((GameObject) bodies.owners[results[k]]);
+            }
+        } finally {
+            endIteration();
+        }
+    }
+
+    /**
+     * Establece el tamaño de celda del índice espacial usado en {@link #forEachGameObjectIn}.
+     * Conviene que sea del orden de una fracción de la vista de la cámara. El índice se reconstruye
+     * en la siguiente consulta.
+     *
+     * @param cellSize Lado de cada celda en unidades del mundo
+     * @throws IllegalArgumentException Si cellSize es menor o igual a cero
+     */
+    public void setSpatialIndexCellSize(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be greater than zero");
+        }
+        this.spatialIndexCellSize = cellSize;
+        this.spatialIndex = null;
+    }
+
+    /**
+     * Obtiene el número de objetos gestionados por este motor, sin contar altas pendientes.
+     *
+     * @return Número de objetos
+     */
+    public int getGameObjectCount() {
+        return gameObjects.size();
+    }
+
     /**
      * Añade un nuevo objeto al motor de física.
-     * Si el objeto es nulo, se ignora la operación.
+     * Su estado físico se traslada al almacén del motor, por lo que deja de ser
+     * simulado por cualquier otro motor al que perteneciera.
+     * Si el objeto es nulo o ya pertenece a este motor, se ignora la operación.
+     * Si se llama durante una actualización o un recorrido, el alta se aplica al terminar.
      *
      * @param gameObject Objeto a añadir al motor
      */
     public void addGameObject(GameObject gameObject) {
-        if (gameObject != null) {
-            gameObjects.add(gameObject);
+        if (gameObject == null) {
+            return;
+        }
+        if (iterationDepth > 0) {
+            pendingAdditions.set(pendingChanges.size());
+            pendingChanges.add(gameObject);
+        } else {
+            applyAddition(gameObject);
         }
     }
 
     /**
      * Elimina un objeto del motor de física.
+     * Los objetos dormidos que lo tocaban se despiertan.
      * Si el objeto es nulo o no está en la lista, no se realiza ninguna acción.
+     * Si se llama durante una actualización o un recorrido, la baja se aplica al terminar.
      *
      * @param gameObject Objeto a eliminar del motor
      */
     public void removeGameObject(GameObject gameObject) {
-        if (gameObject != null) {
-            gameObjects.remove(gameObject);
+        if (gameObject == null) {
+            return;
+        }
+        if (iterationDepth > 0) {
+            pendingAdditions.clear(pendingChanges.size());
+            pendingChanges.add(gameObject);
+        } else {
+            applyRemoval(gameObject);
         }
     }
 
     /**
-     * Establece una nueva aceleración gravitatoria para el motor de física.
+     * Añade un objeto al almacén y a la lista del motor.
+     *
+     * @param gameObject Objeto a añadir
+     */
+    private void applyAddition(GameObject gameObject) {
+        if (gameObject.store != bodies) {
+            bodies.attach(gameObject);
+            gameObjects.add(gameObject);
+            if (OVERRIDES_UPDATE.get(gameObject.getClass())) {
+                steppedObjects.add(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Retira un objeto de la lista del motor y traslada su estado a un almacén propio.
+     *
+     * @param gameObject Objeto a eliminar
+     */
+    private void applyRemoval(GameObject gameObject) {
+        if (gameObjects.remove(gameObject) && gameObject.store == bodies) {
+            steppedObjects.remove(gameObject);
+            gameObject.invalidateDrawn();
+            bodies.wakeTouching(gameObject.index);
+            new BodyStore(1).attach(gameObject);
+        }
+    }
+
+    /**
+     * Termina una iteración y, si era la más externa, aplica en orden los cambios aplazados.
+     */
+    private void endIteration() {
+        if (--iterationDepth > 0 || pendingChanges.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < pendingChanges.size(); i++) {
+            GameObject gameObject = pendingChanges.get(i);
+            if (pendingAdditions.get(i)) {
+                applyAddition(gameObject);
+            } else {
+                applyRemoval(gameObject);
+            }
+        }
+        pendingChanges.clear();
+        pendingAdditions.clear();
+    }
+
+    /**
+     * Obtiene el almacén en columnas con el estado físico de los objetos del motor.
+     *
+     * @return Almacén de cuerpos del motor
+     */
+    public BodyStore getBodies() {
+        return bodies;
+    }
+
+    /**
+     * Obtiene las parejas de cuerpos cuyas cajas envolventes se solapaban antes de integrar
+     * las posiciones en el último paso.
+     * Los índices hacen referencia a filas de {@link #getBodies()}. La lista se reutiliza en cada paso.
+     *
+     * @return Parejas candidatas a colisionar
+     */
+    public PairBuffer getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    /**
+     * Establece la estrategia de fase amplia usada para detectar parejas candidatas.
+     * Si se proporciona null, la detección se desactiva y no se generan parejas.
+     *
+     * @param broadPhase Nueva estrategia de fase amplia
+     */
+    public void setBroadPhase(BroadPhase broadPhase) {
+        this.broadPhase = broadPhase;
+        candidatePairs.clear();
+    }
+
+    /**
+     * Obtiene la estrategia de fase amplia actual.
+     *
+     * @return Estrategia de fase amplia, o null si está desactivada
+     */
+    public BroadPhase getBroadPhase() {
+        return broadPhase;
+    }
+
+    /**
+     * Establece el resolutor de contactos. Si se proporciona null, los objetos se atraviesan.
+     * El resolutor sólo actúa si hay una fase amplia activa.
+     *
+     * @param contactSolver Nuevo resolutor de contactos
+     */
+    public void setContactSolver(ContactSolver contactSolver) {
+        this.contactSolver = contactSolver;
+    }
+
+    /**
+     * Obtiene el resolutor de contactos actual.
+     *
+     * @return Resolutor de contactos, o null si las colisiones están desactivadas
+     */
+    public ContactSolver getContactSolver() {
+        return contactSolver;
+    }
+
+    /**
+     * Activa el modo paralelo: la acumulación de fuerzas, la integración y la resolución de
+     * islas de contactos independientes se reparten entre los hilos del pool.
+     * Los resultados son idénticos bit a bit a los del modo secuencial.
+     * Si se proporciona null, el paso vuelve a ejecutarse de forma secuencial.
+     *
+     * @param parallelPool Pool de hilos a usar, o null para el modo secuencial
+     */
+    public void setParallelPool(ForkJoinPool parallelPool) {
+        this.parallelPool = parallelPool;
+    }
+
+    /**
+     * Obtiene el pool de hilos del modo paralelo.
+     *
+     * @return Pool de hilos, o null si el modo paralelo está desactivado
+     */
+    public ForkJoinPool getParallelPool() {
+        return parallelPool;
+    }
+
+    /**
+     * Establece el tamaño de grano del modo paralelo: el número de cuerpos (o de contactos,
+     * al resolver islas) por debajo del cual una tarea deja de dividirse.
+     *
+     * @param grainSize Tamaño de grano (debe ser mayor que cero)
+     * @throws IllegalArgumentException Si grainSize es menor o igual a cero
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize <= 0) {
+            throw new IllegalArgumentException("Grain size must be greater than zero");
+        }
+        this.grainSize = grainSize;
+    }
+
+    /**
+     * Obtiene el tamaño de grano del modo paralelo.
+     *
+     * @return Número de cuerpos o contactos por debajo del cual una tarea deja de dividirse
+     */
+    public int getGrainSize() {
+        return grainSize;
+    }
+
+    /**
+     * Activa o desactiva el dormido de cuerpos en reposo.
+     * Al desactivarlo se despiertan todos los cuerpos.
+     *
+     * @param sleepingEnabled true para dormir los cuerpos en reposo
+     */
+    public void setSleepingEnabled(boolean sleepingEnabled) {
+        this.sleepingEnabled = sleepingEnabled;
+        if (!sleepingEnabled) {
+            for (int i = 0; i < bodies.size(); i++) {
+                bodies.wake(i);
+            }
+        }
+    }
+
+    /**
+     * Indica si los cuerpos en reposo se duermen.
+     *
+     * @return true si el dormido de cuerpos está activado
+     */
+    public boolean isSleepingEnabled() {
+        return sleepingEnabled;
+    }
+
+    /**
+     * Establece los umbrales para dormir cuerpos: una isla se duerme cuando todos sus cuerpos
+     * llevan al menos {@code timeToSleep} segundos con velocidad inferior a {@code velocityThreshold}.
+     *
+     * @param velocityThreshold Velocidad máxima de reposo en unidades por segundo (no negativa)
+     * @param timeToSleep Tiempo en reposo necesario en segundos (no negativo)
+     * @throws IllegalArgumentException Si alguno de los valores es negativo
+     */
+    public void setSleepThresholds(double velocityThreshold, double timeToSleep) {
+        if (velocityThreshold < 0 || timeToSleep < 0) {
+            throw new IllegalArgumentException("Sleep thresholds cannot be negative");
+        }
+        this.sleepVelocityThreshold = velocityThreshold;
+        this.timeToSleep = timeToSleep;
+    }
+
+    /**
+     * Establece una nueva aceleración gravitatoria para el motor de física y despierta todos los cuerpos.
      * Si se proporciona un valor nulo, se usará (0,0).
      *
      * @param gravityAcceleration Nuevo vector de aceleración gravitatoria
      */
     public void setGravityAcceleration(Vector2D gravityAcceleration) {
-        this.gravityAcceleration = gravityAcceleration != null ? gravityAcceleration : new Vector2D(0, 0);
+        if (gravityAcceleration != null) {
+            this.gravityAcceleration.set(gravityAcceleration);
+        } else {
+            this.gravityAcceleration.set(0, 0);
+        }
+        // Los cuerpos dormidos no sentirían la nueva gravedad
+        for (int i = 0; i < bodies.size(); i++) {
+            bodies.wake(i);
+        }
     }
 }
\ No newline at end of file
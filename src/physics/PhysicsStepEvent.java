@@ -0,0 +1,30 @@
+package physics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que abarca una llamada a {@link PhysicsEngine#update(double)}.
+ * Si el evento está desactivado en la configuración de JFR, su coste es prácticamente nulo.
+ */
+@Name("sasf.PhysicsStep")
+@Label("Physics Step")
+@Category({"SASF Graphics", "Physics"})
+@Description("Un paso del motor de física")
+final class PhysicsStepEvent extends Event {
+
+    /** Número de cuerpos del motor */
+    @Label("Body Count")
+    int bodyCount;
+
+    /** Número de cuerpos despiertos al terminar el paso */
+    @Label("Awake Count")
+    int awakeCount;
+
+    /** Número de contactos resueltos */
+    @Label("Contact Count")
+    int contactCount;
+}
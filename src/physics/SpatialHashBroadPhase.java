@@ -0,0 +1,235 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * Fase amplia de detección de colisiones basada en una rejilla uniforme dispersa.
+ * En cada paso se reconstruye la rejilla a partir de las cajas envolventes de los cuerpos
+ * y se generan las parejas candidatas en tiempo aproximadamente lineal.
+ * Las celdas se identifican con sus coordenadas empaquetadas en un {@code long} y se guardan
+ * en una tabla de direccionamiento abierto, por lo que no se crea ningún objeto por celda.
+ */
+public class SpatialHashBroadPhase implements BroadPhase {
+
+    /** Marca de celda vacía en la lista enlazada de entradas */
+    private static final int NONE = -1;
+
+    /** Tamaño del lado de cada celda en unidades del mundo */
+    private final double cellSize;
+
+    /** Inverso del tamaño de celda, para evitar divisiones */
+    private final double inverseCellSize;
+
+    /** Claves empaquetadas de las celdas de la tabla */
+    private long[] keys = new long[256];
+
+    /** Primera entrada de la lista de cada celda */
+    private int[] heads = new int[256];
+
+    /** Generación en la que se escribió cada posición de la tabla */
+    private int[] stamps = new int[256];
+
+    /** Generación actual; las posiciones con otra marca se consideran vacías */
+    private int generation;
+
+    /** Posiciones de la tabla ocupadas en la generación actual */
+    private int[] occupied = new int[128];
+
+    /** Número de posiciones ocupadas */
+    private int occupiedCount;
+
+    /** Cuerpo al que pertenece cada entrada */
+    private int[] entryBody = new int[256];
+
+    /** Siguiente entrada de la misma celda */
+    private int[] entryNext = new int[256];
+
+    /** Número de entradas usadas */
+    private int entryCount;
+
+    /**
+     * Crea una fase amplia con el tamaño de celda especificado.
+     * Conviene que sea similar al tamaño típico de los objetos de la escena.
+     *
+     * @param cellSize Lado de cada celda en unidades del mundo
+     * @throws IllegalArgumentException Si cellSize es menor o igual a cero
+     */
+    public SpatialHashBroadPhase(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be greater than zero");
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0 / cellSize;
+    }
+
+    /**
+     * Reconstruye la rejilla y escribe en {@code pairs} las parejas cuyas cajas envolventes se solapan.
+     * Cada pareja se informa una sola vez aunque compartan varias celdas.
+     *
+     * @param bodies Almacén de cuerpos a procesar
+     * @param pairs Lista donde se escriben las parejas candidatas (se vacía antes)
+     */
+    @Override
+    public void update(BodyStore bodies, PairBuffer pairs) {
+        pairs.clear();
+        rebuild(bodies);
+
+        double[] x = bodies.x;
+        double[] y = bodies.y;
+        double[] width = bodies.width;
+        double[] height = bodies.height;
+        for (int o = 0; o < occupiedCount; o++) {
+            int slot = occupied[o];
+            long key = keys[slot];
+            int cellX = (int) (key >> 32);
+            int cellY = (int) key;
+            for (int a = heads[slot]; a != NONE; a = entryNext[a]) {
+                int i = entryBody[a];
+                for (int b = entryNext[a]; b != NONE; b = entryNext[b]) {
+                    int j = entryBody[b];
+                    if (x[i] > x[j] + width[j] || x[j] > x[i] + width[i]
+                            || y[i] > y[j] + height[j] || y[j] > y[i] + height[i]) {
+                        continue;
+                    }
+                    // La pareja sólo se informa en la celda que contiene la esquina mínima del solape
+                    if (cell(Math.max(x[i], x[j])) == cellX && cell(Math.max(y[i], y[j])) == cellY) {
+                        pairs.add(i, j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserta todos los cuerpos en las celdas que cubren sus cajas envolventes.
+     *
+     * @param bodies Almacén de cuerpos a insertar
+     */
+    private void rebuild(BodyStore bodies) {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        occupiedCount = 0;
+        entryCount = 0;
+
+        int count = bodies.size();
+        for (int i = 0; i < count; i++) {
+            int minX = cell(bodies.x[i]);
+            int minY = cell(bodies.y[i]);
+            int maxX = cell(bodies.x[i] + bodies.width[i]);
+            int maxY = cell(bodies.y[i] + bodies.height[i]);
+            for (int cx = minX; cx <= maxX; cx++) {
+                for (int cy = minY; cy <= maxY; cy++) {
+                    insert(pack(cx, cy), i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Añade una entrada para el cuerpo en la celda indicada.
+     *
+     * @param key Clave empaquetada de la celda
+     * @param body Índice del cuerpo
+     */
+    private void insert(long key, int body) {
+        if ((occupiedCount + 1) * 2 > keys.length) {
+            growTable();
+        }
+        int slot = findSlot(key);
+        if (stamps[slot] != generation) {
+            stamps[slot] = generation;
+            keys[slot] = key;
+            heads[slot] = NONE;
+            if (occupiedCount == occupied.length) {
+                occupied = Arrays.copyOf(occupied, occupiedCount * 2);
+            }
+            occupied[occupiedCount++] = slot;
+        }
+        if (entryCount == entryBody.length) {
+            entryBody = Arrays.copyOf(entryBody, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        entryBody[entryCount] = body;
+        entryNext[entryCount] = heads[slot];
+        heads[slot] = entryCount++;
+    }
+
+    /**
+     * Busca la posición de la tabla para una clave, mediante sondeo lineal.
+     *
+     * @param key Clave empaquetada de la celda
+     * @return Posición que contiene la clave o la primera posición libre
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (stamps[slot] == generation && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Duplica el tamaño de la tabla y recoloca las celdas ocupadas.
+     */
+    private void growTable() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        int capacity = keys.length * 2;
+        keys = new long[capacity];
+        heads = new int[capacity];
+        stamps = new int[capacity];
+        for (int o = 0; o < occupiedCount; o++) {
+            int oldSlot = occupied[o];
+            int slot = findSlot(oldKeys[oldSlot]);
+            stamps[slot] = generation;
+            keys[slot] = oldKeys[oldSlot];
+            heads[slot] = oldHeads[oldSlot];
+            occupied[o] = slot;
+        }
+    }
+
+    /**
+     * Convierte una coordenada del mundo en coordenada de celda.
+     *
+     * @param value Coordenada en unidades del mundo
+     * @return Coordenada de la celda que la contiene
+     */
+    private int cell(double value) {
+        return (int) Math.floor(value * inverseCellSize);
+    }
+
+    /**
+     * Empaqueta unas coordenadas de celda en una única clave.
+     *
+     * @param cellX Coordenada x de la celda
+     * @param cellY Coordenada y de la celda
+     * @return Clave empaquetada
+     */
+    private static long pack(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Dispersa una clave de celda para distribuirla en la tabla.
+     *
+     * @param key Clave empaquetada
+     * @return Valor de dispersión
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Obtiene el tamaño de celda de la rejilla.
+     *
+     * @return Lado de cada celda en unidades del mundo
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+}
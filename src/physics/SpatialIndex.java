@@ -0,0 +1,404 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * Índice espacial persistente sobre una rejilla uniforme dispersa, pensado para consultas por región
+ * (por ejemplo, qué objetos caen dentro de la vista de la cámara).
+ * A diferencia de la fase amplia, no se reconstruye en cada consulta: recuerda las celdas que cubre
+ * cada cuerpo y sólo revisa los que el almacén ha anotado como movidos desde la última consulta.
+ * Cada cuerpo se indexa por la unión de su caja actual y la del paso anterior, de modo que el
+ * resultado también es válido para el dibujado interpolado entre ambos pasos. Un cuerpo que se
+ * detiene puede seguir en alguna celda de más hasta que vuelva a moverse, lo que no altera los
+ * resultados porque cada candidato se comprueba con su caja. Las celdas que se vacían se reutilizan.
+ * Al añadir o eliminar cuerpos los índices del almacén cambian, así que el índice se reconstruye.
+ */
+final class SpatialIndex {
+
+    /** Inverso del tamaño de celda, para evitar divisiones */
+    private final double inverseCellSize;
+
+    /** Claves empaquetadas de las celdas de la tabla */
+    private long[] keys = new long[256];
+
+    /** Celda asociada a cada posición de la tabla, o -1 si está libre */
+    private int[] slotCell = new int[256];
+
+    /** Número de celdas creadas, incluidas las libres */
+    private int cellCount;
+
+    /** Celdas vacías que se pueden reutilizar */
+    private int[] freeCells = new int[64];
+
+    /** Número de celdas libres */
+    private int freeCount;
+
+    /** Cuerpos de cada celda */
+    private int[][] cellBodies = new int[64][];
+
+    /** Número de cuerpos de cada celda */
+    private int[] cellSizes = new int[64];
+
+    /** Rango de celdas indexado de cada cuerpo: mínimo en x */
+    private int[] minCellX = new int[0];
+
+    /** Rango de celdas indexado de cada cuerpo: mínimo en y */
+    private int[] minCellY = new int[0];
+
+    /** Rango de celdas indexado de cada cuerpo: máximo en x */
+    private int[] maxCellX = new int[0];
+
+    /** Rango de celdas indexado de cada cuerpo: máximo en y */
+    private int[] maxCellY = new int[0];
+
+    /** Almacén indexado */
+    private BodyStore trackedStore;
+
+    /** Versión estructural del almacén con la que se construyó el índice */
+    private int trackedVersion = -1;
+
+    /** Cuerpos encontrados en la última consulta */
+    private int[] results = new int[64];
+
+    /**
+     * Crea un índice con el tamaño de celda especificado.
+     *
+     * @param cellSize Lado de cada celda en unidades del mundo
+     * @throws IllegalArgumentException Si cellSize es menor o igual a cero
+     */
+    SpatialIndex(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be greater than zero");
+        }
+        this.inverseCellSize = 1.0 / cellSize;
+        Arrays.fill(slotCell, -1);
+    }
+
+    /**
+     * Pone el índice al día con las posiciones actuales del almacén y vacía su lista de movidos.
+     * Sólo se revisan los cuerpos de esa lista, y sólo se tocan las celdas de los que han cambiado
+     * de rango.
+     *
+     * @param bodies Almacén de cuerpos
+     */
+    void refresh(BodyStore bodies) {
+        if (bodies != trackedStore || bodies.getStructureVersion() != trackedVersion) {
+            rebuild(bodies);
+            bodies.clearMoved();
+            return;
+        }
+        int[] moved = bodies.moved;
+        for (int k = 0; k < bodies.movedCount; k++) {
+            int i = moved[k];
+            double left = Math.min(bodies.x[i], bodies.previousX[i]);
+            double top = Math.min(bodies.y[i], bodies.previousY[i]);
+            double right = Math.max(bodies.x[i], bodies.previousX[i]) + bodies.width[i];
+            double bottom = Math.max(bodies.y[i], bodies.previousY[i]) + bodies.height[i];
+            int newMinX = cell(left);
+            int newMinY = cell(top);
+            int newMaxX = cell(right);
+            int newMaxY = cell(bottom);
+            if (newMinX != minCellX[i] || newMinY != minCellY[i] || newMaxX != maxCellX[i] || newMaxY != maxCellY[i]) {
+                removeFromCells(i);
+                minCellX[i] = newMinX;
+                minCellY[i] = newMinY;
+                maxCellX[i] = newMaxX;
+                maxCellY[i] = newMaxY;
+                addToCells(i);
+            }
+        }
+        bodies.clearMoved();
+    }
+
+    /**
+     * Busca los cuerpos cuya caja indexada se solapa con la región indicada.
+     * Los resultados se escriben en {@link #getResults()} ordenados por índice en el almacén,
+     * que es el orden estable de dibujado.
+     *
+     * @param bodies Almacén de cuerpos, que debe estar al día mediante {@link #refresh(BodyStore)}
+     * @param left Límite izquierdo de la región
+     * @param top Límite superior de la región
+     * @param right Límite derecho de la región
+     * @param bottom Límite inferior de la región
+     * @return Número de cuerpos encontrados
+     */
+    int query(BodyStore bodies, double left, double top, double right, double bottom) {
+        int queryMinX = cell(left);
+        int queryMinY = cell(top);
+        int queryMaxX = cell(right);
+        int queryMaxY = cell(bottom);
+        int found = 0;
+        long cellsInQuery = (long) (queryMaxX - queryMinX + 1) * (queryMaxY - queryMinY + 1);
+        if (cellsInQuery > bodies.size()) {
+            // Con la vista muy alejada es más barato recorrer todos los cuerpos que todas las celdas
+            for (int i = 0; i < bodies.size(); i++) {
+                if (overlaps(bodies, i, left, top, right, bottom)) {
+                    found = addResult(found, i);
+                }
+            }
+            return found;
+        }
+        for (int cx = queryMinX; cx <= queryMaxX; cx++) {
+            for (int cy = queryMinY; cy <= queryMaxY; cy++) {
+                int slot = findSlot(pack(cx, cy));
+                int c = slotCell[slot];
+                if (c < 0) {
+                    continue;
+                }
+                int[] members = cellBodies[c];
+                for (int k = 0; k < cellSizes[c]; k++) {
+                    int body = members[k];
+                    // Cada cuerpo se informa sólo en la primera celda de la consulta que ocupa
+                    if (Math.max(minCellX[body], queryMinX) == cx && Math.max(minCellY[body], queryMinY) == cy
+                            && overlaps(bodies, body, left, top, right, bottom)) {
+                        found = addResult(found, body);
+                    }
+                }
+            }
+        }
+        Arrays.sort(results, 0, found);
+        return found;
+    }
+
+    /**
+     * Obtiene los cuerpos encontrados en la última consulta.
+     *
+     * @return Array cuyos primeros elementos son los índices encontrados
+     */
+    int[] getResults() {
+        return results;
+    }
+
+    /**
+     * Indica si la caja indexada de un cuerpo (unión de la actual y la anterior) se solapa con una región.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param body Índice del cuerpo
+     * @param left Límite izquierdo de la región
+     * @param top Límite superior de la región
+     * @param right Límite derecho de la región
+     * @param bottom Límite inferior de la región
+     * @return true si se solapan
+     */
+    private static boolean overlaps(BodyStore bodies, int body, double left, double top, double right, double bottom) {
+        return Math.min(bodies.x[body], bodies.previousX[body]) <= right
+                && Math.max(bodies.x[body], bodies.previousX[body]) + bodies.width[body] >= left
+                && Math.min(bodies.y[body], bodies.previousY[body]) <= bottom
+                && Math.max(bodies.y[body], bodies.previousY[body]) + bodies.height[body] >= top;
+    }
+
+    /**
+     * Añade un cuerpo a los resultados.
+     *
+     * @param found Número de resultados actuales
+     * @param body Índice del cuerpo
+     * @return Nuevo número de resultados
+     */
+    private int addResult(int found, int body) {
+        if (found == results.length) {
+            results = Arrays.copyOf(results, found * 2);
+        }
+        results[found] = body;
+        return found + 1;
+    }
+
+    /**
+     * Vacía todas las celdas e inserta de nuevo todos los cuerpos.
+     *
+     * @param bodies Almacén de cuerpos
+     */
+    private void rebuild(BodyStore bodies) {
+        // Las celdas se vuelven a crear desde cero, pero conservan sus arrays de cuerpos
+        Arrays.fill(cellSizes, 0, cellCount, 0);
+        Arrays.fill(slotCell, -1);
+        cellCount = 0;
+        freeCount = 0;
+        int count = bodies.size();
+        if (minCellX.length < count) {
+            int capacity = Math.max(count, minCellX.length * 2);
+            minCellX = new int[capacity];
+            minCellY = new int[capacity];
+            maxCellX = new int[capacity];
+            maxCellY = new int[capacity];
+        }
+        for (int i = 0; i < count; i++) {
+            minCellX[i] = cell(Math.min(bodies.x[i], bodies.previousX[i]));
+            minCellY[i] = cell(Math.min(bodies.y[i], bodies.previousY[i]));
+            maxCellX[i] = cell(Math.max(bodies.x[i], bodies.previousX[i]) + bodies.width[i]);
+            maxCellY[i] = cell(Math.max(bodies.y[i], bodies.previousY[i]) + bodies.height[i]);
+            addToCells(i);
+        }
+        trackedStore = bodies;
+        trackedVersion = bodies.getStructureVersion();
+    }
+
+    /**
+     * Inserta un cuerpo en todas las celdas de su rango.
+     *
+     * @param body Índice del cuerpo
+     */
+    private void addToCells(int body) {
+        for (int cx = minCellX[body]; cx <= maxCellX[body]; cx++) {
+            for (int cy = minCellY[body]; cy <= maxCellY[body]; cy++) {
+                int c = cellFor(pack(cx, cy));
+                int size = cellSizes[c];
+                if (size == cellBodies[c].length) {
+                    cellBodies[c] = Arrays.copyOf(cellBodies[c], size * 2);
+                }
+                cellBodies[c][size] = body;
+                cellSizes[c] = size + 1;
+            }
+        }
+    }
+
+    /**
+     * Retira un cuerpo de todas las celdas de su rango actual. Las celdas que quedan vacías se
+     * quitan de la tabla y pasan a estar libres.
+     *
+     * @param body Índice del cuerpo
+     */
+    private void removeFromCells(int body) {
+        for (int cx = minCellX[body]; cx <= maxCellX[body]; cx++) {
+            for (int cy = minCellY[body]; cy <= maxCellY[body]; cy++) {
+                int slot = findSlot(pack(cx, cy));
+                int c = slotCell[slot];
+                int[] members = cellBodies[c];
+                int last = --cellSizes[c];
+                for (int k = 0; k <= last; k++) {
+                    if (members[k] == body) {
+                        members[k] = members[last];
+                        break;
+                    }
+                }
+                if (last == 0) {
+                    removeSlot(slot);
+                    if (freeCount == freeCells.length) {
+                        freeCells = Arrays.copyOf(freeCells, freeCount * 2);
+                    }
+                    freeCells[freeCount++] = c;
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene la celda de una clave, creándola si no existe. Se reutilizan primero las celdas libres.
+     *
+     * @param key Clave empaquetada de la celda
+     * @return Índice de la celda
+     */
+    private int cellFor(long key) {
+        int slot = findSlot(key);
+        if (slotCell[slot] >= 0) {
+            return slotCell[slot];
+        }
+        int c;
+        if (freeCount > 0) {
+            c = freeCells[--freeCount];
+        } else {
+            if (cellCount == cellSizes.length) {
+                cellBodies = Arrays.copyOf(cellBodies, cellCount * 2);
+                cellSizes = Arrays.copyOf(cellSizes, cellCount * 2);
+            }
+            c = cellCount++;
+            if (cellBodies[c] == null) {
+                cellBodies[c] = new int[4];
+            }
+        }
+        keys[slot] = key;
+        slotCell[slot] = c;
+        if ((cellCount - freeCount) * 2 > keys.length) {
+            growTable();
+        }
+        return c;
+    }
+
+    /**
+     * Quita una posición de la tabla, desplazando hacia atrás las claves siguientes de la misma
+     * secuencia de sondeo para que sigan siendo accesibles sin marcas de borrado.
+     *
+     * @param slot Posición a vaciar
+     */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        slotCell[hole] = -1;
+        int next = (hole + 1) & mask;
+        while (slotCell[next] >= 0) {
+            int home = hash(keys[next]) & mask;
+            // La clave puede ocupar el hueco si éste no queda antes de su posición inicial
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                slotCell[hole] = slotCell[next];
+                slotCell[next] = -1;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Busca la posición de la tabla para una clave, mediante sondeo lineal.
+     *
+     * @param key Clave empaquetada de la celda
+     * @return Posición que contiene la clave o la primera posición libre
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (slotCell[slot] >= 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Duplica el tamaño de la tabla y recoloca las celdas.
+     */
+    private void growTable() {
+        long[] oldKeys = keys;
+        int[] oldSlotCell = slotCell;
+        keys = new long[oldKeys.length * 2];
+        slotCell = new int[oldKeys.length * 2];
+        Arrays.fill(slotCell, -1);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldSlotCell[slot] >= 0) {
+                int newSlot = findSlot(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                slotCell[newSlot] = oldSlotCell[slot];
+            }
+        }
+    }
+
+    /**
+     * Convierte una coordenada del mundo en coordenada de celda.
+     *
+     * @param value Coordenada en unidades del mundo
+     * @return Coordenada de la celda que la contiene
+     */
+    private int cell(double value) {
+        return (int) Math.floor(value * inverseCellSize);
+    }
+
+    /**
+     * Empaqueta unas coordenadas de celda en una única clave.
+     *
+     * @param cellX Coordenada x de la celda
+     * @param cellY Coordenada y de la celda
+     * @return Clave empaquetada
+     */
+    private static long pack(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Dispersa una clave de celda para distribuirla en la tabla.
+     *
+     * @param key Clave empaquetada
+     * @return Valor de dispersión
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
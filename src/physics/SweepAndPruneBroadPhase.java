@@ -0,0 +1,167 @@
+package physics;
+
+/**
+ * Fase amplia de detección de colisiones por barrido y poda sobre el eje x.
+ * Mantiene ordenados entre pasos los extremos de las cajas envolventes y los reordena con
+ * ordenación por inserción, que aprovecha la coherencia temporal: si los cuerpos se mueven poco,
+ * la lista casi no cambia y el coste es prácticamente lineal.
+ * A diferencia de la rejilla uniforme, no depende de un tamaño de celda, por lo que tolera bien
+ * escenas con objetos de tamaños muy distintos.
+ */
+public class SweepAndPruneBroadPhase implements BroadPhase {
+
+    /** Secuencia de saltos (Ciura) usada para reordenar desde cero tras cambios estructurales */
+    private static final int[] SHELL_GAPS = {701, 301, 132, 57, 23, 10, 4, 1};
+
+    /** Coordenada x de cada extremo */
+    private double[] values = new double[0];
+
+    /** Cuerpo y tipo de cada extremo, codificados como {@code cuerpo << 1 | esMaximo} */
+    private int[] endpoints = new int[0];
+
+    /** Número de extremos en uso (dos por cuerpo) */
+    private int endpointCount;
+
+    /** Versión estructural del almacén con la que se construyeron los extremos */
+    private int trackedVersion = -1;
+
+    /** Almacén con el que se construyeron los extremos */
+    private BodyStore trackedStore;
+
+    /** Cuerpos activos durante el barrido */
+    private int[] active = new int[0];
+
+    /** Posición de cada cuerpo dentro de la lista de activos */
+    private int[] activePosition = new int[0];
+
+    /**
+     * Actualiza los extremos, los reordena y barre el eje x para obtener las parejas
+     * cuyas cajas envolventes se solapan.
+     *
+     * @param bodies Almacén de cuerpos a procesar
+     * @param pairs Lista donde se escriben las parejas candidatas (se vacía antes)
+     */
+    @Override
+    public void update(BodyStore bodies, PairBuffer pairs) {
+        pairs.clear();
+        if (bodies != trackedStore || bodies.getStructureVersion() != trackedVersion) {
+            rebuild(bodies);
+        } else {
+            refreshValues(bodies);
+            sort(1);
+        }
+        sweep(bodies, pairs);
+    }
+
+    /**
+     * Reconstruye la lista de extremos tras añadir o eliminar cuerpos.
+     *
+     * @param bodies Almacén de cuerpos
+     */
+    private void rebuild(BodyStore bodies) {
+        int count = bodies.size();
+        endpointCount = count * 2;
+        if (endpoints.length < endpointCount) {
+            values = new double[endpointCount];
+            endpoints = new int[endpointCount];
+        }
+        if (active.length < count) {
+            active = new int[count];
+            activePosition = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            endpoints[i * 2] = i << 1;
+            endpoints[i * 2 + 1] = (i << 1) | 1;
+        }
+        refreshValues(bodies);
+        for (int gap : SHELL_GAPS) {
+            sort(gap);
+        }
+        trackedStore = bodies;
+        trackedVersion = bodies.getStructureVersion();
+    }
+
+    /**
+     * Copia en cada extremo la coordenada actual de su cuerpo.
+     *
+     * @param bodies Almacén de cuerpos
+     */
+    private void refreshValues(BodyStore bodies) {
+        double[] x = bodies.x;
+        double[] width = bodies.width;
+        for (int k = 0; k < endpointCount; k++) {
+            int endpoint = endpoints[k];
+            int body = endpoint >>> 1;
+            values[k] = (endpoint & 1) == 0 ? x[body] : x[body] + width[body];
+        }
+    }
+
+    /**
+     * Ordena los extremos por inserción con el salto indicado.
+     * Con salto 1 es una ordenación por inserción clásica, casi lineal sobre listas casi ordenadas.
+     *
+     * @param gap Distancia entre los elementos comparados
+     */
+    private void sort(int gap) {
+        for (int i = gap; i < endpointCount; i++) {
+            double value = values[i];
+            int endpoint = endpoints[i];
+            int j = i;
+            while (j >= gap && comesAfter(values[j - gap], endpoints[j - gap], value, endpoint)) {
+                values[j] = values[j - gap];
+                endpoints[j] = endpoints[j - gap];
+                j -= gap;
+            }
+            values[j] = value;
+            endpoints[j] = endpoint;
+        }
+    }
+
+    /**
+     * Indica si un extremo debe ir detrás de otro. A igual coordenada, los mínimos van primero
+     * para que las cajas que sólo se tocan cuenten como solapadas.
+     *
+     * @param valueA Coordenada del primer extremo
+     * @param endpointA Codificación del primer extremo
+     * @param valueB Coordenada del segundo extremo
+     * @param endpointB Codificación del segundo extremo
+     * @return true si el primer extremo debe ir detrás del segundo
+     */
+    private static boolean comesAfter(double valueA, int endpointA, double valueB, int endpointB) {
+        return valueA > valueB || (valueA == valueB && (endpointA & 1) > (endpointB & 1));
+    }
+
+    /**
+     * Recorre los extremos ordenados manteniendo la lista de cuerpos abiertos en x,
+     * y comprueba el solape en y de cada cuerpo que entra con los activos.
+     *
+     * @param bodies Almacén de cuerpos
+     * @param pairs Lista donde se escriben las parejas
+     */
+    private void sweep(BodyStore bodies, PairBuffer pairs) {
+        double[] y = bodies.y;
+        double[] height = bodies.height;
+        int activeCount = 0;
+        for (int k = 0; k < endpointCount; k++) {
+            int endpoint = endpoints[k];
+            int body = endpoint >>> 1;
+            if ((endpoint & 1) == 0) {
+                double top = y[body];
+                double bottom = top + height[body];
+                for (int a = 0; a < activeCount; a++) {
+                    int other = active[a];
+                    if (top <= y[other] + height[other] && y[other] <= bottom) {
+                        pairs.add(other, body);
+                    }
+                }
+                activePosition[body] = activeCount;
+                active[activeCount++] = body;
+            } else {
+                int position = activePosition[body];
+                int last = active[--activeCount];
+                active[position] = last;
+                activePosition[last] = position;
+            }
+        }
+    }
+}
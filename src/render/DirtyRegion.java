@@ -0,0 +1,239 @@
+package render;
+
+import java.awt.*;
+
+/**
+ * Conjunto de rectángulos de pantalla que han cambiado desde el último fotograma presentado.
+ * Los rectángulos se recortan a la pantalla y se mantienen disjuntos: al añadir uno que toca
+ * a otros, se fusionan en su unión. Como mucho se guardan {@link #MAX_RECTANGLES}; a partir de
+ * ahí cada rectángulo nuevo se fusiona con el que menos área añade, y si la región cubre casi
+ * toda la pantalla pasa a ser la pantalla entera, que se redibuja más rápido de una vez.
+ */
+public final class DirtyRegion {
+
+    /** Número máximo de rectángulos independientes */
+    public static final int MAX_RECTANGLES = 8;
+
+    /** Ancho de la pantalla en píxeles */
+    private final int width;
+
+    /** Alto de la pantalla en píxeles */
+    private final int height;
+
+    /** Límite izquierdo de cada rectángulo (incluido) */
+    private final int[] minX = new int[MAX_RECTANGLES];
+
+    /** Límite superior de cada rectángulo (incluido) */
+    private final int[] minY = new int[MAX_RECTANGLES];
+
+    /** Límite derecho de cada rectángulo (excluido) */
+    private final int[] maxX = new int[MAX_RECTANGLES];
+
+    /** Límite inferior de cada rectángulo (excluido) */
+    private final int[] maxY = new int[MAX_RECTANGLES];
+
+    /** Número de rectángulos */
+    private int count;
+
+    /**
+     * Crea una región vacía para una pantalla del tamaño indicado.
+     *
+     * @param width Ancho de la pantalla en píxeles
+     * @param height Alto de la pantalla en píxeles
+     * @throws IllegalArgumentException Si alguna dimensión es menor o igual a 0
+     */
+    public DirtyRegion(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be greater than zero");
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Marca un rectángulo como sucio. Las coordenadas se amplían a píxeles enteros y se recortan
+     * a la pantalla; los rectángulos vacíos o fuera de la pantalla se ignoran.
+     *
+     * @param x Coordenada x de la esquina superior izquierda
+     * @param y Coordenada y de la esquina superior izquierda
+     * @param w Ancho del rectángulo
+     * @param h Alto del rectángulo
+     */
+    public void add(double x, double y, double w, double h) {
+        if (!(w > 0 && h > 0)) {
+            return;
+        }
+        int x0 = (int) Math.max(0, Math.floor(x));
+        int y0 = (int) Math.max(0, Math.floor(y));
+        int x1 = (int) Math.min(width, Math.ceil(x + w));
+        int y1 = (int) Math.min(height, Math.ceil(y + h));
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        while (true) {
+            int absorbed = -1;
+            for (int i = 0; i < count; i++) {
+                if (x0 <= maxX[i] && minX[i] <= x1 && y0 <= maxY[i] && minY[i] <= y1) {
+                    absorbed = i;
+                    break;
+                }
+            }
+            if (absorbed < 0 && count == MAX_RECTANGLES) {
+                absorbed = cheapestMerge(x0, y0, x1, y1);
+            }
+            if (absorbed < 0) {
+                break;
+            }
+            // La unión puede tocar a otros rectángulos, así que se vuelve a comprobar
+            x0 = Math.min(x0, minX[absorbed]);
+            y0 = Math.min(y0, minY[absorbed]);
+            x1 = Math.max(x1, maxX[absorbed]);
+            y1 = Math.max(y1, maxY[absorbed]);
+            removeAt(absorbed);
+        }
+        minX[count] = x0;
+        minY[count] = y0;
+        maxX[count] = x1;
+        maxY[count] = y1;
+        count++;
+        if (getArea() * 4 > (long) width * height * 3) {
+            addAll();
+        }
+    }
+
+    /**
+     * Marca toda la pantalla como sucia.
+     */
+    public void addAll() {
+        count = 1;
+        minX[0] = 0;
+        minY[0] = 0;
+        maxX[0] = width;
+        maxY[0] = height;
+    }
+
+    /**
+     * Vacía la región tras presentar el fotograma.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Indica si no hay nada que redibujar.
+     *
+     * @return true si la región está vacía
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Obtiene el número de rectángulos de la región.
+     *
+     * @return Número de rectángulos disjuntos
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Copia un rectángulo de la región en el rectángulo indicado, para no crear objetos.
+     *
+     * @param index Posición del rectángulo, entre 0 y {@link #size()}
+     * @param result Rectángulo donde se escribe el resultado
+     * @return El rectángulo result
+     * @throws IndexOutOfBoundsException Si la posición no es válida
+     */
+    public Rectangle getRectangle(int index, Rectangle result) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + count);
+        }
+        result.setBounds(minX[index], minY[index], maxX[index] - minX[index], maxY[index] - minY[index]);
+        return result;
+    }
+
+    /**
+     * Calcula la caja que contiene todos los rectángulos de la región.
+     *
+     * @param result Rectángulo donde se escribe el resultado (vacío si la región lo está)
+     * @return El rectángulo result
+     */
+    public Rectangle getBounds(Rectangle result) {
+        if (count == 0) {
+            result.setBounds(0, 0, 0, 0);
+            return result;
+        }
+        int x0 = minX[0];
+        int y0 = minY[0];
+        int x1 = maxX[0];
+        int y1 = maxY[0];
+        for (int i = 1; i < count; i++) {
+            x0 = Math.min(x0, minX[i]);
+            y0 = Math.min(y0, minY[i]);
+            x1 = Math.max(x1, maxX[i]);
+            y1 = Math.max(y1, maxY[i]);
+        }
+        result.setBounds(x0, y0, x1 - x0, y1 - y0);
+        return result;
+    }
+
+    /**
+     * Calcula el número de píxeles sucios. Como los rectángulos son disjuntos, es la suma de sus áreas.
+     *
+     * @return Área de la región en píxeles
+     */
+    public long getArea() {
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            area += (long) (maxX[i] - minX[i]) * (maxY[i] - minY[i]);
+        }
+        return area;
+    }
+
+    /**
+     * Busca el rectángulo cuya unión con el indicado añade menos área.
+     *
+     * @param x0 Límite izquierdo del rectángulo nuevo
+     * @param y0 Límite superior del rectángulo nuevo
+     * @param x1 Límite derecho del rectángulo nuevo
+     * @param y1 Límite inferior del rectángulo nuevo
+     * @return Posición del rectángulo elegido
+     */
+    private int cheapestMerge(int x0, int y0, int x1, int y1) {
+        int best = 0;
+        long bestGrowth = Long.MAX_VALUE;
+        long area = (long) (x1 - x0) * (y1 - y0);
+        for (int i = 0; i < count; i++) {
+            long union = (long) (Math.max(x1, maxX[i]) - Math.min(x0, minX[i]))
+                    * (Math.max(y1, maxY[i]) - Math.min(y0, minY[i]));
+            long growth = union - area - (long) (maxX[i] - minX[i]) * (maxY[i] - minY[i]);
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Quita un rectángulo moviendo el último a su posición.
+     *
+     * @param index Posición del rectángulo
+     */
+    private void removeAt(int index) {
+        count--;
+        minX[index] = minX[count];
+        minY[index] = minY[count];
+        maxX[index] = maxX[count];
+        maxY[index] = maxY[count];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,270 @@
+package render;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Lista compacta de comandos de dibujo grabada por el hilo de actualización y reproducida
+ * después por el hilo de renderizado.
+ * Los comandos y sus argumentos numéricos se guardan en un array de enteros; las imágenes, textos,
+ * fuentes y colores se guardan como referencias en un array paralelo. Ambos arrays se reutilizan entre
+ * fotogramas, por lo que grabar no reserva memoria una vez alcanzado el tamaño habitual.
+ */
+public final class DrawCommandBuffer {
+
+    /** Dibujar una imagen: x, y; referencias: imagen */
+    private static final int OP_IMAGE = 0;
+
+    /** Dibujar un texto: x, y; referencias: texto, fuente, color */
+    private static final int OP_TEXT = 1;
+
+    /** Rellenar un rectángulo: x, y, ancho, alto; referencias: color */
+    private static final int OP_FILL_RECT = 2;
+
+    /** Aplicar escala y traslación de cámara; decimales: escala, x, y */
+    private static final int OP_CAMERA = 3;
+
+    /** Volver a la transformación inicial del contexto gráfico */
+    private static final int OP_RESET_TRANSFORM = 4;
+
+    /** Componer un texto con un atlas de glifos: x, y, longitud, caracteres; referencias: atlas */
+    private static final int OP_GLYPHS = 5;
+
+    /** Códigos de operación y argumentos enteros */
+    private int[] ints = new int[1024];
+
+    /** Número de enteros usados */
+    private int intCount;
+
+    /** Argumentos decimales (transformaciones) */
+    private double[] doubles = new double[16];
+
+    /** Número de decimales usados */
+    private int doubleCount;
+
+    /** Argumentos por referencia (imágenes, textos, fuentes, colores, atlas) */
+    private Object[] refs = new Object[256];
+
+    /** Número de referencias usadas */
+    private int refCount;
+
+    /** Número de veces que se ha vaciado la lista */
+    private long generation;
+
+    /**
+     * Vacía la lista para grabar un nuevo fotograma.
+     * Las referencias se liberan para no retener objetos de fotogramas anteriores.
+     */
+    public void reset() {
+        Arrays.fill(refs, 0, refCount, null);
+        intCount = 0;
+        doubleCount = 0;
+        refCount = 0;
+        generation++;
+    }
+
+    /**
+     * Obtiene cuántas veces se ha vaciado la lista. Mientras no cambie, lo grabado sigue en ella
+     * y otro hilo puede estar reproduciéndolo, así que las imágenes grabadas no deben modificarse.
+     *
+     * @return Generación actual de la lista
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Graba el dibujado de una imagen.
+     *
+     * @param image Imagen a dibujar
+     * @param x Coordenada x de la esquina superior izquierda
+     * @param y Coordenada y de la esquina superior izquierda
+     */
+    public void drawImage(BufferedImage image, int x, int y) {
+        ensureInts(3);
+        ensureRefs(1);
+        ints[intCount++] = OP_IMAGE;
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        refs[refCount++] = image;
+    }
+
+    /**
+     * Graba el dibujado de un texto.
+     *
+     * @param text Texto a dibujar
+     * @param font Fuente del texto
+     * @param color Color del texto
+     * @param x Coordenada x del inicio de la línea base
+     * @param y Coordenada y de la línea base
+     */
+    public void drawText(String text, Font font, Color color, int x, int y) {
+        ensureInts(3);
+        ensureRefs(3);
+        ints[intCount++] = OP_TEXT;
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        refs[refCount++] = text;
+        refs[refCount++] = font;
+        refs[refCount++] = color;
+    }
+
+    /**
+     * Graba un texto compuesto con un atlas de glifos. Los caracteres se copian a la lista, por lo
+     * que el texto puede ser un {@link StringBuilder} que se modifique después.
+     *
+     * @param atlas Atlas con los glifos
+     * @param text Texto a dibujar
+     * @param x Coordenada x del inicio de la línea base
+     * @param y Coordenada y de la línea base
+     */
+    public void drawGlyphs(GlyphAtlas atlas, CharSequence text, int x, int y) {
+        int length = text.length();
+        ensureInts(4 + length);
+        ensureRefs(1);
+        ints[intCount++] = OP_GLYPHS;
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        ints[intCount++] = length;
+        for (int i = 0; i < length; i++) {
+            ints[intCount++] = text.charAt(i);
+        }
+        refs[refCount++] = atlas;
+    }
+
+    /**
+     * Graba el relleno de un rectángulo.
+     *
+     * @param color Color de relleno
+     * @param x Coordenada x de la esquina superior izquierda
+     * @param y Coordenada y de la esquina superior izquierda
+     * @param width Ancho del rectángulo
+     * @param height Alto del rectángulo
+     */
+    public void fillRect(Color color, int x, int y, int width, int height) {
+        ensureInts(5);
+        ensureRefs(1);
+        ints[intCount++] = OP_FILL_RECT;
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        ints[intCount++] = width;
+        ints[intCount++] = height;
+        refs[refCount++] = color;
+    }
+
+    /**
+     * Graba una transformación de cámara: los comandos siguientes se dibujan escalados y desplazados
+     * hasta {@link #resetTransform()}.
+     *
+     * @param scale Escala (zoom) de la cámara
+     * @param originX Coordenada x del mundo que se dibuja en el borde izquierdo
+     * @param originY Coordenada y del mundo que se dibuja en el borde superior
+     */
+    public void setCameraTransform(double scale, double originX, double originY) {
+        ensureInts(1);
+        if (doubleCount + 3 > doubles.length) {
+            doubles = Arrays.copyOf(doubles, doubles.length * 2);
+        }
+        ints[intCount++] = OP_CAMERA;
+        doubles[doubleCount++] = scale;
+        doubles[doubleCount++] = originX;
+        doubles[doubleCount++] = originY;
+    }
+
+    /**
+     * Graba la vuelta a la transformación inicial del contexto gráfico.
+     */
+    public void resetTransform() {
+        ensureInts(1);
+        ints[intCount++] = OP_RESET_TRANSFORM;
+    }
+
+    /**
+     * Reproduce los comandos grabados sobre un contexto gráfico.
+     *
+     * @param g Contexto gráfico donde se dibuja
+     * @throws NullPointerException Si el contexto gráfico es nulo
+     */
+    public void replay(Graphics2D g) {
+        if (g == null) {
+            throw new NullPointerException("Graphics context cannot be null");
+        }
+        AffineTransform initial = g.getTransform();
+        int i = 0;
+        int d = 0;
+        int r = 0;
+        while (i < intCount) {
+            switch (ints[i++]) {
+                case OP_IMAGE:
+                    g.drawImage((BufferedImage) refs[r++], ints[i], ints[i + 1], null);
+                    i += 2;
+                    break;
+                case OP_TEXT:
+                    TextRasterCache.drawString(g, (String) refs[r], (Font) refs[r + 1], (Color) refs[r + 2],
+                            ints[i], ints[i + 1]);
+                    i += 2;
+                    r += 3;
+                    break;
+                case OP_FILL_RECT:
+                    g.setColor((Color) refs[r++]);
+                    g.fillRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case OP_CAMERA:
+                    g.setTransform(initial);
+                    g.scale(doubles[d], doubles[d]);
+                    g.translate(-doubles[d + 1], -doubles[d + 2]);
+                    d += 3;
+                    break;
+                case OP_RESET_TRANSFORM:
+                    g.setTransform(initial);
+                    break;
+                case OP_GLYPHS: {
+                    GlyphAtlas atlas = (GlyphAtlas) refs[r++];
+                    int x = ints[i];
+                    int end = i + 3 + ints[i + 2];
+                    for (int c = i + 3; c < end; c++) {
+                        x = atlas.drawChar(g, (char) ints[c], x, ints[i + 1]);
+                    }
+                    i = end;
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown draw command: " + ints[i - 1]);
+            }
+        }
+    }
+
+    /**
+     * Indica si la lista no contiene comandos.
+     *
+     * @return true si no hay comandos grabados
+     */
+    public boolean isEmpty() {
+        return intCount == 0;
+    }
+
+    /**
+     * Garantiza espacio para el número de enteros indicado.
+     *
+     * @param extra Enteros adicionales necesarios
+     */
+    private void ensureInts(int extra) {
+        if (intCount + extra > ints.length) {
+            ints = Arrays.copyOf(ints, Math.max(intCount + extra, ints.length * 2));
+        }
+    }
+
+    /**
+     * Garantiza espacio para el número de referencias indicado.
+     *
+     * @param extra Referencias adicionales necesarias
+     */
+    private void ensureRefs(int extra) {
+        if (refCount + extra > refs.length) {
+            refs = Arrays.copyOf(refs, Math.max(refCount + extra, refs.length * 2));
+        }
+    }
+}
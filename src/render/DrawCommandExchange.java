@@ -0,0 +1,101 @@
+package render;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Intercambio sin bloqueos de listas de comandos entre el hilo que las graba y el que las dibuja.
+ * Circulan tres listas: una la escribe el productor, otra la está dibujando el consumidor y la
+ * tercera queda en medio. El traspaso es un único intercambio atómico del índice de la lista de
+ * en medio junto con un bit que indica si es nueva, así que ninguna lista puede perderse y el
+ * productor nunca espera a que termine el dibujado: si el consumidor no ha recogido la lista
+ * anterior, la recupera y la sobrescribe, de modo que siempre se dibuja el fotograma más reciente.
+ */
+public final class DrawCommandExchange {
+
+    /** Bit del estado que indica que la lista de en medio está publicada y sin recoger */
+    private static final int FRESH = 4;
+
+    /** Máscara del índice de la lista de en medio dentro del estado */
+    private static final int INDEX_MASK = 3;
+
+    /** Las tres listas que circulan */
+    private final DrawCommandBuffer[] buffers = {
+            new DrawCommandBuffer(), new DrawCommandBuffer(), new DrawCommandBuffer()
+    };
+
+    /** Índice de la lista de en medio y bit {@link #FRESH} */
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    /** Índice de la lista que graba el productor (sólo la usa su hilo) */
+    private int writeIndex;
+
+    /** Índice de la lista que dibuja el consumidor (sólo la usa su hilo) */
+    private int readIndex = 2;
+
+    /** Hilo consumidor, al que se despierta cuando hay una lista nueva */
+    private volatile Thread consumer;
+
+    /** Indica si ya se entregó la lista inicial del productor */
+    private boolean initialAcquired;
+
+    /**
+     * Obtiene la primera lista sobre la que grabar. Las siguientes se obtienen de
+     * {@link #publish(DrawCommandBuffer)}.
+     *
+     * @return Lista vacía para el productor
+     * @throws IllegalStateException Si ya se entregó la lista inicial
+     */
+    public DrawCommandBuffer acquireInitial() {
+        if (initialAcquired) {
+            throw new IllegalStateException("Initial buffer already acquired");
+        }
+        initialAcquired = true;
+        return buffers[writeIndex];
+    }
+
+    /**
+     * Publica una lista grabada y devuelve otra sobre la que grabar el siguiente fotograma.
+     *
+     * @param recorded Lista recién grabada, que debe ser la última entregada al productor
+     * @return Lista vacía que pasa a ser propiedad del productor
+     * @throws IllegalArgumentException Si la lista es nula o no es la del productor
+     */
+    public DrawCommandBuffer publish(DrawCommandBuffer recorded) {
+        if (recorded == null || recorded != buffers[writeIndex]) {
+            throw new IllegalArgumentException("Buffer must be the one owned by the producer");
+        }
+        writeIndex = middle.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+        Thread waiting = consumer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+        DrawCommandBuffer next = buffers[writeIndex];
+        next.reset();
+        return next;
+    }
+
+    /**
+     * Recoge la lista publicada más reciente, esperando hasta el plazo indicado si no hay ninguna.
+     * Debe llamarse siempre desde el mismo hilo consumidor. La lista recogida en la llamada
+     * anterior deja de pertenecer al consumidor.
+     *
+     * @param timeoutNanos Tiempo máximo de espera en nanosegundos
+     * @return Lista a dibujar, o null si no se publicó ninguna dentro del plazo
+     */
+    public DrawCommandBuffer take(long timeoutNanos) {
+        if ((middle.get() & FRESH) == 0) {
+            consumer = Thread.currentThread();
+            if ((middle.get() & FRESH) == 0) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+            consumer = null;
+            if ((middle.get() & FRESH) == 0) {
+                return null;
+            }
+        }
+        // Sólo el consumidor quita el bit, así que el estado sigue siendo nuevo al intercambiarlo
+        readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        return buffers[readIndex];
+    }
+}
@@ -0,0 +1,398 @@
+package render;
+
+import resource.ImageLoader;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Atlas de glifos de una fuente para dibujar textos que cambian en cada fotograma, como
+ * marcadores, temporizadores o lecturas de depuración. Los glifos de ASCII imprimible y
+ * Latin-1 se rasterizan una sola vez en una imagen compatible, junto con su avance; después
+ * cada texto se compone copiando glifo a glifo, sin dar forma al texto ni crear objetos.
+ * Acepta cualquier {@link CharSequence} (por ejemplo un {@link StringBuilder} reutilizado) y
+ * números enteros directamente, por lo que actualizar un contador no crea ningún String.
+ * La composición usa avances enteros sin interletraje; los caracteres fuera del atlas se
+ * dibujan como '?'. Para textos estáticos es preferible {@link TextRasterCache}.
+ * Los atlas compartidos están limitados por un presupuesto en bytes (por defecto 4 MiB,
+ * configurable con {@code -Dsasf.glyphs.byteBudget}); al superarlo se descartan los usados hace
+ * más tiempo, de modo que un texto cuyo color cambia en cada fotograma no agota la memoria.
+ */
+public final class GlyphAtlas {
+
+    /** Atlas por fuente, color y suavizado, en orden de uso (el primero es el usado hace más tiempo) */
+    private static final Map<Key, GlyphAtlas> ATLASES = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Bytes máximos que pueden ocupar los atlas compartidos */
+    private static long byteBudget = Long.getLong("sasf.glyphs.byteBudget", 4L * 1024 * 1024);
+
+    /** Bytes que ocupan los atlas compartidos */
+    private static long cachedBytes;
+
+    /** Ancho máximo de la imagen del atlas */
+    private static final int MAX_ATLAS_WIDTH = 1024;
+
+    /** Número de códigos de carácter que cubre la tabla de glifos (Latin-1) */
+    private static final int CHAR_COUNT = 256;
+
+    /** Carácter que se dibuja en lugar de los que no están en el atlas */
+    private static final char REPLACEMENT = '?';
+
+    /** Imagen con todos los glifos */
+    private final BufferedImage image;
+
+    /** Posición x de cada glifo dentro del atlas */
+    private final int[] sourceX = new int[CHAR_COUNT];
+
+    /** Posición y de cada glifo dentro del atlas */
+    private final int[] sourceY = new int[CHAR_COUNT];
+
+    /** Ancho de cada glifo en píxeles (0 si no tiene píxeles, como el espacio) */
+    private final int[] glyphWidth = new int[CHAR_COUNT];
+
+    /** Alto de cada glifo en píxeles */
+    private final int[] glyphHeight = new int[CHAR_COUNT];
+
+    /** Desplazamiento en x de cada glifo respecto al origen del carácter */
+    private final int[] offsetX = new int[CHAR_COUNT];
+
+    /** Desplazamiento en y de cada glifo respecto a la línea base */
+    private final int[] offsetY = new int[CHAR_COUNT];
+
+    /** Avance de cada carácter en píxeles; -1 si el carácter no está en el atlas */
+    private final int[] advance = new int[CHAR_COUNT];
+
+    /** Ascendente de la fuente en píxeles */
+    private final int ascent;
+
+    /** Descendente de la fuente en píxeles */
+    private final int descent;
+
+    /** Bytes que ocupa la imagen del atlas */
+    private final long bytes;
+
+    /**
+     * Rasteriza los glifos de una fuente.
+     *
+     * @param font Fuente de los glifos
+     * @param color Color de los glifos
+     * @param antialiased true para suavizar los bordes
+     */
+    private GlyphAtlas(Font font, Color color, boolean antialiased) {
+        FontRenderContext context = new FontRenderContext(null, antialiased, false);
+        Arrays.fill(advance, -1);
+        GlyphVector[] glyphs = new GlyphVector[CHAR_COUNT];
+        Rectangle[] bounds = new Rectangle[CHAR_COUNT];
+
+        // Primera pasada: medir y colocar cada glifo en filas
+        int cursorX = 0;
+        int cursorY = 0;
+        int rowHeight = 0;
+        int atlasWidth = 1;
+        char[] single = new char[1];
+        for (int c = 0; c < CHAR_COUNT; c++) {
+            if (Character.isISOControl(c) || !font.canDisplay(c)) {
+                continue;
+            }
+            single[0] = (char) c;
+            GlyphVector glyph = font.createGlyphVector(context, single);
+            Rectangle pixels = glyph.getPixelBounds(context, 0, 0);
+            advance[c] = Math.round(glyph.getGlyphMetrics(0).getAdvanceX());
+            if (pixels.isEmpty()) {
+                continue;
+            }
+            // Un píxel de margen alrededor para que el suavizado no se mezcle con el glifo vecino
+            pixels.grow(1, 1);
+            if (cursorX + pixels.width > MAX_ATLAS_WIDTH) {
+                cursorX = 0;
+                cursorY += rowHeight;
+                rowHeight = 0;
+            }
+            glyphs[c] = glyph;
+            bounds[c] = pixels;
+            sourceX[c] = cursorX;
+            sourceY[c] = cursorY;
+            glyphWidth[c] = pixels.width;
+            glyphHeight[c] = pixels.height;
+            offsetX[c] = pixels.x;
+            offsetY[c] = pixels.y;
+            cursorX += pixels.width;
+            rowHeight = Math.max(rowHeight, pixels.height);
+            atlasWidth = Math.max(atlasWidth, cursorX);
+        }
+        if (advance[REPLACEMENT] < 0) {
+            advance[REPLACEMENT] = 0;
+        }
+
+        // Segunda pasada: dibujar los glifos en su posición
+        image = ImageLoader.createTranslucent(atlasWidth, Math.max(1, cursorY + rowHeight));
+        Graphics2D g = image.createGraphics();
+        try {
+            FontMetrics metrics = g.getFontMetrics(font);
+            ascent = metrics.getAscent();
+            descent = metrics.getDescent();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, antialiased
+                    ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            g.setColor(color);
+            for (int c = 0; c < CHAR_COUNT; c++) {
+                if (glyphs[c] != null) {
+                    g.drawGlyphVector(glyphs[c], sourceX[c] - bounds[c].x, sourceY[c] - bounds[c].y);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        bytes = (long) image.getWidth() * image.getHeight() * image.getColorModel().getPixelSize() / 8;
+    }
+
+    /**
+     * Obtiene el atlas de una fuente, creándolo si no está en la caché. Quien conserva el atlas
+     * puede seguir usándolo aunque se haya descartado.
+     *
+     * @param font Fuente de los glifos
+     * @param color Color de los glifos
+     * @param antialiased true para suavizar los bordes
+     * @return Atlas compartido para esa combinación
+     * @throws NullPointerException Si la fuente o el color son nulos
+     */
+    public static synchronized GlyphAtlas get(Font font, Color color, boolean antialiased) {
+        if (font == null || color == null) {
+            throw new NullPointerException("Font and color cannot be null");
+        }
+        Key key = new Key(font, color.getRGB(), antialiased);
+        GlyphAtlas atlas = ATLASES.get(key);
+        if (atlas == null) {
+            atlas = new GlyphAtlas(font, color, antialiased);
+            if (atlas.bytes <= byteBudget) {
+                ATLASES.put(key, atlas);
+                cachedBytes += atlas.bytes;
+                evictToBudget();
+            }
+        }
+        return atlas;
+    }
+
+    /**
+     * Descarta todos los atlas creados. Los que sigan referenciados continúan siendo válidos.
+     */
+    public static synchronized void clear() {
+        ATLASES.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Descarta atlas, del usado hace más tiempo al más reciente, hasta quedar dentro del presupuesto.
+     */
+    private static void evictToBudget() {
+        Iterator<GlyphAtlas> iterator = ATLASES.values().iterator();
+        while (cachedBytes > byteBudget && iterator.hasNext()) {
+            cachedBytes -= iterator.next().bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Establece el presupuesto de memoria de los atlas compartidos, descartando atlas si hace falta.
+     *
+     * @param byteBudget Bytes máximos que pueden ocupar los atlas
+     * @throws IllegalArgumentException Si el presupuesto es negativo
+     */
+    public static synchronized void setByteBudget(long byteBudget) {
+        if (byteBudget < 0) {
+            throw new IllegalArgumentException("Byte budget cannot be negative");
+        }
+        GlyphAtlas.byteBudget = byteBudget;
+        evictToBudget();
+    }
+
+    /**
+     * Obtiene la memoria que ocupan los atlas compartidos.
+     *
+     * @return Bytes ocupados
+     */
+    public static synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Dibuja un texto con su origen en la posición indicada.
+     *
+     * @param g Contexto gráfico donde se dibuja
+     * @param text Texto a dibujar
+     * @param x Coordenada x del origen del texto
+     * @param baselineY Coordenada y de la línea base
+     * @return Coordenada x donde terminaría el texto, para seguir dibujando a continuación
+     * @throws NullPointerException Si el contexto o el texto son nulos
+     */
+    public int drawString(Graphics2D g, CharSequence text, int x, int baselineY) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            x = drawChar(g, text.charAt(i), x, baselineY);
+        }
+        return x;
+    }
+
+    /**
+     * Dibuja un rango de caracteres de un array, sin crear ningún objeto.
+     *
+     * @param g Contexto gráfico donde se dibuja
+     * @param chars Caracteres a dibujar
+     * @param offset Posición del primer carácter
+     * @param length Número de caracteres
+     * @param x Coordenada x del origen del texto
+     * @param baselineY Coordenada y de la línea base
+     * @return Coordenada x donde terminaría el texto
+     */
+    public int drawChars(Graphics2D g, char[] chars, int offset, int length, int x, int baselineY) {
+        for (int i = offset; i < offset + length; i++) {
+            x = drawChar(g, chars[i], x, baselineY);
+        }
+        return x;
+    }
+
+    /**
+     * Dibuja un número entero en base 10 sin convertirlo a texto.
+     *
+     * @param g Contexto gráfico donde se dibuja
+     * @param value Número a dibujar
+     * @param x Coordenada x del origen del texto
+     * @param baselineY Coordenada y de la línea base
+     * @return Coordenada x donde terminaría el texto
+     */
+    public int drawNumber(Graphics2D g, long value, int x, int baselineY) {
+        // Se trabaja con el valor negativo para poder representar Long.MIN_VALUE
+        long negative = value < 0 ? value : -value;
+        if (value < 0) {
+            x = drawChar(g, '-', x, baselineY);
+        }
+        long divisor = 1;
+        while (negative / divisor <= -10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            int digit = (int) -((negative / divisor) % 10);
+            x = drawChar(g, (char) ('0' + digit), x, baselineY);
+        }
+        return x;
+    }
+
+    /**
+     * Dibuja un carácter y devuelve la posición del siguiente.
+     *
+     * @param g Contexto gráfico donde se dibuja
+     * @param c Carácter a dibujar
+     * @param x Coordenada x del origen del carácter
+     * @param baselineY Coordenada y de la línea base
+     * @return Coordenada x del siguiente carácter
+     */
+    int drawChar(Graphics2D g, char c, int x, int baselineY) {
+        int index = c < CHAR_COUNT && advance[c] >= 0 ? c : REPLACEMENT;
+        int width = glyphWidth[index];
+        if (width > 0) {
+            int left = x + offsetX[index];
+            int top = baselineY + offsetY[index];
+            int sx = sourceX[index];
+            int sy = sourceY[index];
+            int height = glyphHeight[index];
+            g.drawImage(image, left, top, left + width, top + height, sx, sy, sx + width, sy + height, null);
+        }
+        return x + advance[index];
+    }
+
+    /**
+     * Calcula el ancho de un texto compuesto con este atlas.
+     *
+     * @param text Texto a medir
+     * @return Ancho en píxeles
+     * @throws NullPointerException Si el texto es nulo
+     */
+    public int stringWidth(CharSequence text) {
+        int width = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            width += advance[c < CHAR_COUNT && advance[c] >= 0 ? c : REPLACEMENT];
+        }
+        return width;
+    }
+
+    /**
+     * Calcula el ancho de un número entero compuesto con este atlas.
+     *
+     * @param value Número a medir
+     * @return Ancho en píxeles
+     */
+    public int numberWidth(long value) {
+        long negative = value < 0 ? value : -value;
+        int width = value < 0 ? advance['-'] : 0;
+        do {
+            width += advance['0' + (int) -(negative % 10)];
+            negative /= 10;
+        } while (negative != 0);
+        return width;
+    }
+
+    /**
+     * Obtiene el ascendente de la fuente.
+     *
+     * @return Distancia de la parte superior de la línea a la línea base, en píxeles
+     */
+    public int getAscent() {
+        return ascent;
+    }
+
+    /**
+     * Obtiene el alto de una línea de texto.
+     *
+     * @return Suma del ascendente y el descendente, en píxeles
+     */
+    public int getHeight() {
+        return ascent + descent;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Clave de los atlas: fuente, color y suavizado.
+     */
+    private static final class Key {
+
+        /** Fuente */
+        private final Font font;
+
+        /** Color en formato ARGB */
+        private final int rgb;
+
+        /** Indica si los glifos están suavizados */
+        private final boolean antialiased;
+
+        Key(Font font, int rgb, boolean antialiased) {
+            this.font = font;
+            this.rgb = rgb;
+            this.antialiased = antialiased;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return rgb == other.rgb && antialiased == other.antialiased && font.equals(other.font);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(font, rgb, antialiased);
+        }
+    }
+}
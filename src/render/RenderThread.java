@@ -0,0 +1,115 @@
+package render;
+
+import core.FrameMetrics;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hilo dedicado a presentar en pantalla las listas de comandos publicadas por el hilo de actualización.
+ * Mientras este hilo reproduce un fotograma y espera a {@link BufferStrategy#show()}, el hilo de
+ * actualización ya está simulando y grabando el siguiente.
+ */
+public class RenderThread extends Thread {
+
+    /** Tiempo máximo de espera por una lista nueva antes de comprobar si hay que detenerse */
+    private static final long WAIT_NANOS = 100_000_000L;
+
+    /** Intercambio del que se recogen las listas */
+    private final DrawCommandExchange exchange;
+
+    /** Lienzo sobre el que se presenta */
+    private final Canvas canvas;
+
+    /** Estrategia de búfer del lienzo, creada en el propio hilo */
+    private BufferStrategy bufferStrategy;
+
+    /** Métricas donde se registra la duración de cada presentación (null si no se miden) */
+    private volatile FrameMetrics frameMetrics;
+
+    /** Bandera que indica si el hilo debe seguir ejecutándose */
+    private volatile boolean running = true;
+
+    /**
+     * Crea un hilo de renderizado para el lienzo indicado.
+     *
+     * @param exchange Intercambio del que se recogen las listas de comandos
+     * @param canvas Lienzo donde se presentan los fotogramas
+     * @throws IllegalArgumentException Si alguno de los parámetros es nulo
+     */
+    public RenderThread(DrawCommandExchange exchange, Canvas canvas) {
+        super("render");
+        if (exchange == null || canvas == null) {
+            throw new IllegalArgumentException("Exchange and canvas cannot be null");
+        }
+        this.exchange = exchange;
+        this.canvas = canvas;
+        setDaemon(true);
+    }
+
+    /**
+     * Recoge y presenta fotogramas hasta que se llame a {@link #shutdown()}.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            DrawCommandBuffer buffer = exchange.take(WAIT_NANOS);
+            if (buffer != null) {
+                long start = System.nanoTime();
+                present(buffer);
+                FrameMetrics metrics = frameMetrics;
+                if (metrics != null) {
+                    metrics.record(FrameMetrics.Phase.PRESENT, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reproduce una lista de comandos en el búfer trasero y lo muestra.
+     *
+     * @param buffer Lista de comandos a reproducir
+     */
+    private void present(DrawCommandBuffer buffer) {
+        if (bufferStrategy == null) {
+            canvas.createBufferStrategy(3);
+            bufferStrategy = canvas.getBufferStrategy();
+        }
+        do {
+            do {
+                Graphics2D g = (Graphics2D) bufferStrategy.getDrawGraphics();
+                try {
+                    buffer.replay(g);
+                } finally {
+                    g.dispose();
+                }
+            } while (bufferStrategy.contentsRestored());
+            bufferStrategy.show();
+        } while (bufferStrategy.contentsLost());
+    }
+
+    /**
+     * Establece las métricas donde se registra la fase de presentación.
+     * En este modo la presentación incluye la reproducción de los comandos, además de
+     * {@link BufferStrategy#show()}.
+     *
+     * @param frameMetrics Métricas a utilizar, o null para no medir
+     */
+    public void setFrameMetrics(FrameMetrics frameMetrics) {
+        this.frameMetrics = frameMetrics;
+    }
+
+    /**
+     * Detiene el hilo de forma segura y espera a que termine el fotograma en curso.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(this);
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
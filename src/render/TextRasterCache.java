@@ -0,0 +1,380 @@
+package render;
+
+import resource.ImageLoader;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Caché global de textos ya rasterizados. Cada combinación de texto, fuente, color y suavizado
+ * se dibuja una sola vez en una imagen translúcida compatible con la pantalla, que después se
+ * copia en cada fotograma en lugar de volver a dar forma y rasterizar los glifos.
+ * El tamaño total está limitado por un presupuesto en bytes (por defecto 8 MiB, configurable
+ * con {@code -Dsasf.text.byteBudget}); al superarlo se descartan los textos usados hace más tiempo.
+ * Quien conserva un {@link Raster} puede seguir dibujándolo aunque se haya descartado de la caché.
+ * Sólo se cachean textos dibujados sin escala ni rotación y con suavizado activado, desactivado
+ * o por defecto; el suavizado LCD necesita un fondo opaco y se dibuja siempre directamente.
+ * Por defecto la caché sólo se usa sobre destinos acelerados, donde las imágenes se copian desde
+ * la memoria de vídeo. En el dibujado por software la caché de glifos de Java2D ya es más rápida
+ * que mezclar la imagen entera, así que ahí se dibuja directamente salvo que se active con
+ * {@link #setSoftwareEnabled(boolean)} o {@code -Dsasf.text.cacheSoftware=true}.
+ */
+public final class TextRasterCache {
+
+    /** Textos rasterizados, en orden de uso (el primero es el usado hace más tiempo) */
+    private static final Map<Key, Raster> RASTERS = new LinkedHashMap<>(64, 0.75f, true);
+
+    /** Clave reutilizada para las búsquedas, que así no crean objetos */
+    private static final Key PROBE = new Key();
+
+    /** Bytes máximos que pueden ocupar los textos rasterizados */
+    private static long byteBudget = Long.getLong("sasf.text.byteBudget", 8L * 1024 * 1024);
+
+    /** Bytes que ocupan los textos rasterizados */
+    private static long cachedBytes;
+
+    /** Indica si la caché se usa también al dibujar sobre destinos no acelerados */
+    private static volatile boolean softwareEnabled = Boolean.getBoolean("sasf.text.cacheSoftware");
+
+    private TextRasterCache() {
+        throw new AssertionError("Utility class, not instantiable");
+    }
+
+    /**
+     * Obtiene el texto rasterizado para el contexto gráfico indicado, creándolo si no está en la caché.
+     *
+     * @param g Contexto gráfico donde se va a dibujar, del que se toman los ajustes de suavizado
+     * @param text Texto a rasterizar
+     * @param font Fuente del texto
+     * @param color Color del texto
+     * @return Texto rasterizado, o null si el contexto no admite textos cacheados
+     *         (hay escala o rotación, o suavizado LCD) o el texto está vacío
+     * @throws NullPointerException Si algún argumento es nulo
+     */
+    public static Raster get(Graphics2D g, String text, Font font, Color color) {
+        if (g == null || text == null || font == null || color == null) {
+            throw new NullPointerException("Graphics, text, font and color cannot be null");
+        }
+        if (text.isEmpty() || !isCacheable(g)) {
+            return null;
+        }
+        Object antialiasing = g.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+        Object fractionalMetrics = g.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS);
+        synchronized (TextRasterCache.class) {
+            PROBE.set(text, font, color.getRGB(), antialiasing, fractionalMetrics);
+            Raster raster = RASTERS.get(PROBE);
+            PROBE.release();
+            if (raster != null) {
+                return raster;
+            }
+        }
+        // La rasterización se hace fuera del cerrojo; si dos hilos coinciden, gana el último
+        Raster raster = rasterize(text, font, color, antialiasing, fractionalMetrics);
+        Key key = new Key();
+        key.set(text, font, color.getRGB(), antialiasing, fractionalMetrics);
+        synchronized (TextRasterCache.class) {
+            if (raster.bytes <= byteBudget) {
+                Raster previous = RASTERS.put(key, raster);
+                if (previous != null) {
+                    cachedBytes -= previous.bytes;
+                }
+                cachedBytes += raster.bytes;
+                evictToBudget();
+            }
+        }
+        return raster;
+    }
+
+    /**
+     * Dibuja un texto a partir de la caché o, si el contexto no la admite, directamente.
+     *
+     * @param g Contexto gráfico donde se dibuja
+     * @param text Texto a dibujar
+     * @param font Fuente del texto
+     * @param color Color del texto
+     * @param x Coordenada x del origen del texto
+     * @param baselineY Coordenada y de la línea base
+     * @throws NullPointerException Si algún argumento es nulo
+     */
+    public static void drawString(Graphics2D g, String text, Font font, Color color, int x, int baselineY) {
+        Raster raster = get(g, text, font, color);
+        if (raster != null) {
+            raster.draw(g, x, baselineY);
+        } else if (!text.isEmpty()) {
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(text, x, baselineY);
+        }
+    }
+
+    /**
+     * Indica si los textos cacheados se dibujan igual que directamente en el contexto indicado.
+     *
+     * @param g Contexto gráfico donde se va a dibujar
+     * @return true si sólo hay traslación, el suavizado no es LCD y el destino es acelerado
+     *         (o la caché está activada también por software)
+     */
+    public static boolean isCacheable(Graphics2D g) {
+        if ((g.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) {
+            return false;
+        }
+        if (!softwareEnabled && !g.getDeviceConfiguration().getImageCapabilities().isAccelerated()) {
+            return false;
+        }
+        Object antialiasing = g.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+        return antialiasing == null || antialiasing == RenderingHints.VALUE_TEXT_ANTIALIAS_ON
+                || antialiasing == RenderingHints.VALUE_TEXT_ANTIALIAS_OFF
+                || antialiasing == RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT;
+    }
+
+    /**
+     * Dibuja un texto en una imagen translúcida ajustada a los píxeles que ocupan sus glifos.
+     *
+     * @param text Texto a rasterizar
+     * @param font Fuente del texto
+     * @param color Color del texto
+     * @param antialiasing Ajuste de suavizado del texto
+     * @param fractionalMetrics Ajuste de métricas fraccionarias
+     * @return Texto rasterizado
+     */
+    private static Raster rasterize(String text, Font font, Color color, Object antialiasing, Object fractionalMetrics) {
+        FontRenderContext context = new FontRenderContext(null,
+                antialiasing != null ? antialiasing : RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT,
+                fractionalMetrics != null ? fractionalMetrics : RenderingHints.VALUE_FRACTIONALMETRICS_DEFAULT);
+        GlyphVector glyphs = font.createGlyphVector(context, text);
+        Rectangle bounds = glyphs.getPixelBounds(context, 0, 0);
+        // Un píxel de margen por si el suavizado se sale de los límites calculados
+        bounds.grow(1, 1);
+        BufferedImage image = ImageLoader.createTranslucent(bounds.width, bounds.height);
+        Graphics2D g = image.createGraphics();
+        try {
+            if (antialiasing != null) {
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, antialiasing);
+            }
+            if (fractionalMetrics != null) {
+                g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fractionalMetrics);
+            }
+            g.setFont(font);
+            g.setColor(color);
+            g.drawGlyphVector(glyphs, -bounds.x, -bounds.y);
+        } finally {
+            g.dispose();
+        }
+        return new Raster(image, bounds.x, bounds.y, antialiasing, fractionalMetrics);
+    }
+
+    /**
+     * Descarta los textos usados hace más tiempo hasta quedar dentro del presupuesto.
+     */
+    private static void evictToBudget() {
+        Iterator<Raster> iterator = RASTERS.values().iterator();
+        while (cachedBytes > byteBudget && iterator.hasNext()) {
+            cachedBytes -= iterator.next().bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Activa o desactiva el uso de la caché al dibujar sobre destinos no acelerados, como imágenes
+     * en memoria o pantallas sin aceleración.
+     *
+     * @param softwareEnabled true para cachear también los textos dibujados por software
+     */
+    public static void setSoftwareEnabled(boolean softwareEnabled) {
+        TextRasterCache.softwareEnabled = softwareEnabled;
+    }
+
+    /**
+     * Indica si la caché se usa también al dibujar sobre destinos no acelerados.
+     *
+     * @return true si se cachean los textos dibujados por software
+     */
+    public static boolean isSoftwareEnabled() {
+        return softwareEnabled;
+    }
+
+    /**
+     * Establece el presupuesto de memoria de la caché, descartando textos si hace falta.
+     *
+     * @param byteBudget Bytes máximos que pueden ocupar los textos rasterizados
+     * @throws IllegalArgumentException Si el presupuesto es negativo
+     */
+    public static synchronized void setByteBudget(long byteBudget) {
+        if (byteBudget < 0) {
+            throw new IllegalArgumentException("Byte budget cannot be negative");
+        }
+        TextRasterCache.byteBudget = byteBudget;
+        evictToBudget();
+    }
+
+    /**
+     * Obtiene el presupuesto de memoria de la caché.
+     *
+     * @return Bytes máximos que pueden ocupar los textos rasterizados
+     */
+    public static synchronized long getByteBudget() {
+        return byteBudget;
+    }
+
+    /**
+     * Obtiene la memoria que ocupan los textos de la caché.
+     *
+     * @return Bytes ocupados
+     */
+    public static synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Obtiene el número de textos de la caché.
+     *
+     * @return Número de textos rasterizados
+     */
+    public static synchronized int size() {
+        return RASTERS.size();
+    }
+
+    /**
+     * Vacía la caché.
+     */
+    public static synchronized void clear() {
+        RASTERS.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Texto rasterizado junto con la posición de su imagen respecto al origen del texto.
+     */
+    public static final class Raster {
+
+        /** Imagen con los glifos */
+        private final BufferedImage image;
+
+        /** Desplazamiento en x de la imagen respecto al origen del texto */
+        private final int offsetX;
+
+        /** Desplazamiento en y de la imagen respecto a la línea base */
+        private final int offsetY;
+
+        /** Ajuste de suavizado con el que se rasterizó */
+        private final Object antialiasing;
+
+        /** Ajuste de métricas fraccionarias con el que se rasterizó */
+        private final Object fractionalMetrics;
+
+        /** Memoria que ocupa la imagen */
+        private final long bytes;
+
+        private Raster(BufferedImage image, int offsetX, int offsetY, Object antialiasing, Object fractionalMetrics) {
+            this.image = image;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.antialiasing = antialiasing;
+            this.fractionalMetrics = fractionalMetrics;
+            this.bytes = (long) image.getWidth() * image.getHeight() * image.getColorModel().getPixelSize() / 8;
+        }
+
+        /**
+         * Dibuja el texto con su origen en la posición indicada.
+         *
+         * @param g Contexto gráfico donde se dibuja
+         * @param x Coordenada x del origen del texto
+         * @param baselineY Coordenada y de la línea base
+         */
+        public void draw(Graphics2D g, int x, int baselineY) {
+            g.drawImage(image, x + offsetX, baselineY + offsetY, null);
+        }
+
+        /**
+         * Indica si este texto rasterizado sigue siendo válido para dibujar en un contexto gráfico,
+         * es decir, si el contexto admite la caché y tiene los mismos ajustes de suavizado.
+         *
+         * @param g Contexto gráfico donde se va a dibujar
+         * @return true si puede dibujarse tal cual
+         */
+        public boolean matches(Graphics2D g) {
+            return isCacheable(g)
+                    && g.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING) == antialiasing
+                    && g.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS) == fractionalMetrics;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+    }
+
+    /**
+     * Clave de la caché: texto, fuente, color y ajustes de suavizado.
+     */
+    private static final class Key {
+
+        /** Texto */
+        private String text;
+
+        /** Fuente */
+        private Font font;
+
+        /** Color en formato ARGB */
+        private int rgb;
+
+        /** Ajuste de suavizado del texto */
+        private Object antialiasing;
+
+        /** Ajuste de métricas fraccionarias */
+        private Object fractionalMetrics;
+
+        /** Dispersión precalculada */
+        private int hash;
+
+        /**
+         * Suelta las referencias de la clave de búsqueda para no retener textos ni fuentes.
+         */
+        void release() {
+            text = null;
+            font = null;
+            antialiasing = null;
+            fractionalMetrics = null;
+        }
+
+        /**
+         * Rellena la clave y precalcula su dispersión.
+         *
+         * @param text Texto
+         * @param font Fuente
+         * @param rgb Color en formato ARGB
+         * @param antialiasing Ajuste de suavizado del texto
+         * @param fractionalMetrics Ajuste de métricas fraccionarias
+         */
+        void set(String text, Font font, int rgb, Object antialiasing, Object fractionalMetrics) {
+            this.text = text;
+            this.font = font;
+            this.rgb = rgb;
+            this.antialiasing = antialiasing;
+            this.fractionalMetrics = fractionalMetrics;
+            this.hash = ((text.hashCode() * 31 + font.hashCode()) * 31 + rgb) * 31
+                    + Objects.hashCode(antialiasing) * 7 + Objects.hashCode(fractionalMetrics);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return rgb == other.rgb && text.equals(other.text) && font.equals(other.font)
+                    && antialiasing == other.antialiasing && fractionalMetrics == other.fractionalMetrics;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
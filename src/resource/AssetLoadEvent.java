@@ -0,0 +1,39 @@
+package resource;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que abarca la carga de un recurso.
+ */
+@Name("sasf.AssetLoad")
+@Label("Asset Load")
+@Category({"SASF Graphics", "Resources"})
+@Description("Carga de un recurso desde el classpath")
+final class AssetLoadEvent extends Event {
+
+    /** Ruta del recurso */
+    @Label("Path")
+    String path;
+
+    /** Ancho de la imagen cargada */
+    @Label("Width")
+    int width;
+
+    /** Alto de la imagen cargada */
+    @Label("Height")
+    int height;
+
+    /** Memoria aproximada que ocupan los píxeles */
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    /** Indica si los píxeles se leyeron de la caché en disco en lugar de decodificarse */
+    @Label("From Disk Cache")
+    boolean fromDiskCache;
+}
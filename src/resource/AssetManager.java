@@ -0,0 +1,362 @@
+package resource;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gestor de imágenes que las carga por clave la primera vez que se usan y las libera cuando
+ * ya nadie las necesita.
+ * Cada usuario de una imagen obtiene un {@link ImageHandle} con {@link #acquire(String)}, que cuenta
+ * como una referencia hasta que se libera. Las imágenes sin referencias permanecen en memoria
+ * mientras el total cargado no supere el presupuesto en bytes; cuando lo supera, se descartan
+ * empezando por la usada hace más tiempo (LRU) y se vuelven a cargar si alguien las pide de nuevo.
+ * Las imágenes se convierten al formato compatible con la pantalla mediante {@link ImageLoader}.
+ * Todos los métodos son seguros entre hilos, y las imágenes pueden precargarse en paralelo
+ * con {@link #preload(Collection)}.
+ */
+public final class AssetManager {
+
+    /** Grupo de hilos compartido para las cargas en segundo plano, creado bajo demanda */
+    private static ExecutorService loaderPool;
+
+    /** Entradas por clave, en orden de uso (la primera es la usada hace más tiempo) */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Indica si se conservan las imágenes originales sin convertir */
+    private final boolean keepOriginals;
+
+    /** Caché en disco de imágenes ya convertidas (null si no se usa) */
+    private volatile PixelDiskCache diskCache;
+
+    /** Bytes máximos que pueden ocupar las imágenes sin referencias antes de descartarse */
+    private long byteBudget;
+
+    /** Bytes que ocupan las imágenes cargadas */
+    private long loadedBytes;
+
+    /**
+     * Crea un gestor con el presupuesto indicado.
+     *
+     * @param byteBudget Bytes a partir de los cuales se descartan imágenes sin referencias
+     * @param keepOriginals true para conservar también las imágenes sin convertir
+     * @throws IllegalArgumentException Si el presupuesto es negativo
+     */
+    public AssetManager(long byteBudget, boolean keepOriginals) {
+        if (byteBudget < 0) {
+            throw new IllegalArgumentException("Byte budget cannot be negative");
+        }
+        this.byteBudget = byteBudget;
+        this.keepOriginals = keepOriginals;
+    }
+
+    /**
+     * Obtiene una nueva referencia a la imagen de una clave. La imagen no se carga hasta que
+     * se llama a {@link ImageHandle#get()}.
+     *
+     * @param key Ruta del recurso, relativa al paquete {@code resource}
+     * @return Referencia que debe liberarse con {@link ImageHandle#release()}
+     * @throws IllegalArgumentException Si la clave es nula
+     */
+    public synchronized ImageHandle acquire(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        entries.computeIfAbsent(key, k -> new Entry()).references++;
+        return new ImageHandle(this, key);
+    }
+
+    /**
+     * Obtiene la imagen de una clave referenciada, cargándola si no está en memoria.
+     * La decodificación se hace fuera del cerrojo, de modo que varias imágenes pueden cargarse
+     * a la vez desde distintos hilos. Si dos hilos cargan la misma clave simultáneamente,
+     * se conserva la primera imagen registrada.
+     *
+     * @param key Clave de la imagen
+     * @return Imagen convertida
+     */
+    BufferedImage load(String key) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                throw new IllegalStateException("Image is not referenced: " + key);
+            }
+            if (entry.image != null) {
+                return entry.image;
+            }
+        }
+        BufferedImage original = null;
+        BufferedImage image;
+        PixelDiskCache cache = diskCache;
+        if (cache != null && !keepOriginals) {
+            image = cache.load(key);
+        } else {
+            original = ImageLoader.read(key);
+            image = ImageLoader.toCompatible(original);
+        }
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                // Todas las referencias se liberaron durante la carga; no se guarda
+                return image;
+            }
+            if (entry.image == null) {
+                entry.image = image;
+                entry.original = keepOriginals ? original : null;
+                entry.bytes = bytesOf(image) + (entry.original != null && entry.original != image
+                        ? bytesOf(entry.original) : 0);
+                loadedBytes += entry.bytes;
+                evict();
+            }
+            return entry.image;
+        }
+    }
+
+    /**
+     * Obtiene las dimensiones de la imagen de una clave referenciada sin decodificarla: si no está
+     * cargada, se leen de la cabecera del recurso y se recuerdan mientras la clave esté en el gestor.
+     *
+     * @param key Clave de la imagen
+     * @return Ancho y alto de la imagen
+     */
+    Dimension loadSize(String key) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                throw new IllegalStateException("Image is not referenced: " + key);
+            }
+            if (entry.image != null) {
+                return new Dimension(entry.image.getWidth(), entry.image.getHeight());
+            }
+            if (entry.size != null) {
+                return new Dimension(entry.size);
+            }
+        }
+        Dimension size = ImageLoader.readSize(key);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.size = size;
+            }
+        }
+        return new Dimension(size);
+    }
+
+    /**
+     * Carga en segundo plano las imágenes de un manifiesto usando un grupo de hilos acotado
+     * compartido, con tantos hilos como procesadores.
+     *
+     * @param keys Claves de las imágenes a cargar
+     * @return Tarea con el progreso de la carga
+     * @throws IllegalArgumentException Si la colección o alguna clave es nula
+     * @see #preload(Collection, Executor)
+     */
+    public PreloadTask preload(Collection<String> keys) {
+        return preload(keys, loaderPool());
+    }
+
+    /**
+     * Carga en segundo plano las imágenes de un manifiesto, decodificándolas en paralelo
+     * en el ejecutor indicado. La tarea mantiene una referencia a cada imagen, de modo que no
+     * se descartan antes de usarse; deben liberarse con {@link PreloadTask#release()} cuando
+     * dejen de necesitarse. Las claves repetidas se cargan una sola vez.
+     *
+     * @param keys Claves de las imágenes a cargar
+     * @param executor Ejecutor donde se decodifican las imágenes
+     * @return Tarea con el progreso de la carga
+     * @throws IllegalArgumentException Si algún parámetro o alguna clave es nula
+     */
+    public PreloadTask preload(Collection<String> keys, Executor executor) {
+        if (keys == null || executor == null) {
+            throw new IllegalArgumentException("Keys and executor cannot be null");
+        }
+        Set<String> unique = new LinkedHashSet<>(keys);
+        ImageHandle[] handles = new ImageHandle[unique.size()];
+        int i = 0;
+        for (String key : unique) {
+            handles[i++] = acquire(key);
+        }
+        return new PreloadTask(handles, executor);
+    }
+
+    /**
+     * Obtiene el grupo de hilos compartido para las cargas en segundo plano, creándolo la primera vez.
+     *
+     * @return Ejecutor acotado con hilos demonio
+     */
+    private static synchronized ExecutorService loaderPool() {
+        if (loaderPool == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            loaderPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "asset-loader-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return loaderPool;
+    }
+
+    /**
+     * Obtiene la imagen original, sin convertir, de una clave referenciada.
+     * La decodificación se hace fuera del cerrojo, igual que en {@link #load(String)}.
+     *
+     * @param key Clave de la imagen
+     * @return Imagen tal como la devolvió {@code ImageIO.read}
+     * @throws IllegalStateException Si el gestor no conserva las imágenes originales
+     */
+    BufferedImage loadOriginal(String key) {
+        if (!keepOriginals) {
+            throw new IllegalStateException("This asset manager does not keep original images");
+        }
+        load(key);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.original != null) {
+                return entry.original;
+            }
+        }
+        // La entrada se descartó tras cargarla; se decodifica de nuevo sin guardarla
+        return ImageLoader.read(key);
+    }
+
+    /**
+     * Libera una referencia. Si era la última, la imagen pasa a ser candidata a descartarse.
+     *
+     * @param key Clave de la imagen
+     */
+    synchronized void release(String key) {
+        Entry entry = entries.get(key);
+        entry.references--;
+        if (entry.references == 0) {
+            if (entry.image == null) {
+                entries.remove(key);
+            }
+            evict();
+        }
+    }
+
+    /**
+     * Descarta imágenes sin referencias, de la usada hace más tiempo a la más reciente,
+     * hasta que el total cargado quede dentro del presupuesto.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (loadedBytes > byteBudget && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.references == 0) {
+                if (entry.image != null) {
+                    loadedBytes -= entry.bytes;
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Calcula la memoria aproximada que ocupan los píxeles de una imagen.
+     *
+     * @param image Imagen
+     * @return Bytes ocupados
+     */
+    private static long bytesOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * image.getColorModel().getPixelSize() / 8;
+    }
+
+    /**
+     * Establece la caché en disco donde se guardan y de donde se leen las imágenes ya convertidas.
+     * No se usa si el gestor conserva las imágenes originales, ya que éstas requieren decodificar.
+     *
+     * @param diskCache Caché a utilizar, o null para decodificar siempre
+     */
+    public void setDiskCache(PixelDiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Obtiene la caché en disco del gestor.
+     *
+     * @return Caché en disco, o null si no se usa
+     */
+    public PixelDiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Establece el presupuesto de memoria y descarta imágenes si ya se supera.
+     *
+     * @param byteBudget Bytes a partir de los cuales se descartan imágenes sin referencias
+     * @throws IllegalArgumentException Si el presupuesto es negativo
+     */
+    public synchronized void setByteBudget(long byteBudget) {
+        if (byteBudget < 0) {
+            throw new IllegalArgumentException("Byte budget cannot be negative");
+        }
+        this.byteBudget = byteBudget;
+        evict();
+    }
+
+    public synchronized long getByteBudget() {
+        return byteBudget;
+    }
+
+    /**
+     * Obtiene la memoria que ocupan las imágenes cargadas, tengan o no referencias.
+     *
+     * @return Bytes cargados
+     */
+    public synchronized long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    /**
+     * Indica si la imagen de una clave está cargada en memoria.
+     *
+     * @param key Clave de la imagen
+     * @return true si está cargada
+     */
+    public synchronized boolean isLoaded(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.image != null;
+    }
+
+    /**
+     * Obtiene el número de referencias vivas a la imagen de una clave.
+     *
+     * @param key Clave de la imagen
+     * @return Número de referencias
+     */
+    public synchronized int getReferenceCount(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.references : 0;
+    }
+
+    /**
+     * Estado de una imagen gestionada.
+     */
+    private static final class Entry {
+
+        /** Imagen convertida, o null si no está cargada */
+        private BufferedImage image;
+
+        /** Imagen original, si se conserva */
+        private BufferedImage original;
+
+        /** Dimensiones leídas de la cabecera, o null si no se han leído */
+        private Dimension size;
+
+        /** Bytes que ocupa la imagen cargada */
+        private long bytes;
+
+        /** Número de referencias vivas */
+        private int references;
+    }
+}
@@ -1,24 +1,37 @@
 package resource;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
+import java.nio.file.Paths;
 
 public final class DataLoad {
 
-    public static final BufferedImage BALL = loadImage("ball1.png");
-    public static final BufferedImage BUTTON_GRAY = loadImage("btn1Gris.png");
-    public static final BufferedImage BUTTON_BLUE = loadImage("btn1Azul.png");
+    // Presupuesto por defecto para imágenes sin referencias; las originales sólo se conservan
+    // si se arranca con -Dsasf.images.keepOriginals=true
+    private static final AssetManager ASSETS = new AssetManager(
+            Long.getLong("sasf.images.byteBudget", 64L * 1024 * 1024),
+            Boolean.getBoolean("sasf.images.keepOriginals"));
+
+    // Con -Dsasf.images.diskCache=<directorio> los píxeles convertidos se guardan en disco entre arranques
+    static {
+        String diskCacheDirectory = System.getProperty("sasf.images.diskCache");
+        if (diskCacheDirectory != null) {
+            ASSETS.setDiskCache(new PixelDiskCache(Paths.get(diskCacheDirectory)));
+        }
+    }
+
+    // Referencias permanentes a las imágenes del motor; se cargan la primera vez que se usan
+    public static final ImageHandle BALL = ASSETS.acquire("ball1.png");
+    public static final ImageHandle BUTTON_GRAY = ASSETS.acquire("btn1Gris.png");
+    public static final ImageHandle BUTTON_BLUE = ASSETS.acquire("btn1Azul.png");
 
     private DataLoad() {
         throw new AssertionError("Utility class, not instantiable");
     }
 
-    private static BufferedImage loadImage(String path) {
-        try {
-            return ImageIO.read(DataLoad.class.getResource(path));
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load image: " + path, e);
-        }
+    public static AssetManager getAssetManager() {
+        return ASSETS;
+    }
+
+    public static ImageHandle acquire(String key) {
+        return ASSETS.acquire(key);
     }
-}
\ No newline at end of file
+}
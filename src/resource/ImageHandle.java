@@ -0,0 +1,188 @@
+package resource;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Referencia a una imagen, normalmente obtenida de un {@link AssetManager}.
+ * Mientras no se libere, la imagen no se descarta; la primera llamada a {@link #get()} la carga
+ * y las siguientes devuelven la misma instancia sin sincronización. Las dimensiones pueden
+ * consultarse antes, sin decodificar la imagen.
+ * También puede envolver una imagen ya cargada que no gestiona ningún gestor.
+ */
+public final class ImageHandle {
+
+    /** Gestor de la imagen, o null si la imagen no está gestionada */
+    private final AssetManager manager;
+
+    /** Clave de la imagen en el gestor */
+    private final String key;
+
+    /** Imagen ya obtenida */
+    private BufferedImage image;
+
+    /** Ancho de la imagen, o -1 si aún no se conoce */
+    private int width = -1;
+
+    /** Alto de la imagen, válido si se conoce el ancho */
+    private int height;
+
+    /** Indica si la referencia ya se ha liberado */
+    private boolean released;
+
+    /**
+     * Crea una referencia gestionada. Sólo la crea el gestor, que ya ha contado la referencia.
+     *
+     * @param manager Gestor de la imagen
+     * @param key Clave de la imagen
+     */
+    ImageHandle(AssetManager manager, String key) {
+        this.manager = manager;
+        this.key = key;
+    }
+
+    /**
+     * Crea una referencia a una imagen no gestionada.
+     *
+     * @param image Imagen envuelta
+     */
+    private ImageHandle(BufferedImage image) {
+        this.manager = null;
+        this.key = null;
+        this.image = image;
+    }
+
+    /**
+     * Envuelve una imagen no gestionada, que nunca se descarta ni se vuelve a cargar.
+     *
+     * @param image Imagen a envolver
+     * @return Referencia a la imagen
+     * @throws IllegalArgumentException Si la imagen es nula
+     */
+    public static ImageHandle of(BufferedImage image) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        return new ImageHandle(image);
+    }
+
+    /**
+     * Obtiene la imagen, cargándola si es la primera vez.
+     *
+     * @return Imagen referenciada
+     * @throws IllegalStateException Si la referencia ya se ha liberado
+     */
+    public BufferedImage get() {
+        BufferedImage current = image;
+        if (current == null) {
+            if (released) {
+                throw new IllegalStateException("Image handle already released: " + key);
+            }
+            current = manager.load(key);
+            image = current;
+        }
+        return current;
+    }
+
+    /**
+     * Obtiene el ancho de la imagen. Si aún no está cargada, se lee de la cabecera del recurso
+     * sin decodificar los píxeles.
+     *
+     * @return Ancho en píxeles
+     * @throws IllegalStateException Si la referencia ya se ha liberado
+     */
+    public int getWidth() {
+        readSize();
+        return width;
+    }
+
+    /**
+     * Obtiene el alto de la imagen. Si aún no está cargada, se lee de la cabecera del recurso
+     * sin decodificar los píxeles.
+     *
+     * @return Alto en píxeles
+     * @throws IllegalStateException Si la referencia ya se ha liberado
+     */
+    public int getHeight() {
+        readSize();
+        return height;
+    }
+
+    /**
+     * Obtiene las dimensiones de la imagen la primera vez que se piden.
+     *
+     * @throws IllegalStateException Si la referencia ya se ha liberado
+     */
+    private void readSize() {
+        if (width >= 0) {
+            return;
+        }
+        BufferedImage current = image;
+        if (current != null) {
+            width = current.getWidth();
+            height = current.getHeight();
+            return;
+        }
+        if (released) {
+            throw new IllegalStateException("Image handle already released: " + key);
+        }
+        Dimension size = manager.loadSize(key);
+        height = size.height;
+        width = size.width;
+    }
+
+    /**
+     * Obtiene la imagen original, sin convertir.
+     *
+     * @return Imagen original, o la propia imagen si no está gestionada
+     * @throws IllegalStateException Si el gestor no conserva los originales o la referencia ya se ha liberado
+     */
+    public BufferedImage getOriginal() {
+        if (manager == null) {
+            return image;
+        }
+        if (released) {
+            throw new IllegalStateException("Image handle already released: " + key);
+        }
+        return manager.loadOriginal(key);
+    }
+
+    /**
+     * Obtiene otra referencia a la misma imagen, que debe liberarse por separado.
+     *
+     * @return Nueva referencia
+     * @throws IllegalStateException Si esta referencia ya se ha liberado
+     */
+    public ImageHandle duplicate() {
+        if (manager == null) {
+            return new ImageHandle(image);
+        }
+        if (released) {
+            throw new IllegalStateException("Image handle already released: " + key);
+        }
+        return manager.acquire(key);
+    }
+
+    /**
+     * Libera la referencia. Llamadas posteriores no tienen efecto.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        if (manager != null) {
+            image = null;
+            manager.release(key);
+        }
+    }
+
+    /**
+     * Obtiene la clave de la imagen en su gestor.
+     *
+     * @return Clave, o null si la imagen no está gestionada
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,211 @@
+package resource;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+
+/**
+ * Utilidades para decodificar imágenes del classpath y convertirlas al formato compatible con la pantalla.
+ * {@code ImageIO.read} devuelve formatos como TYPE_4BYTE_ABGR o paletas indexadas, que Java2D
+ * dibuja mediante bucles genéricos lentos. Al convertirlas una sola vez al formato de la pantalla
+ * (o a TYPE_INT_ARGB_PRE sin pantalla), cada dibujado usa el camino rápido o acelerado.
+ * Las imágenes translúcidas se guardan siempre con el alfa premultiplicado: si el formato
+ * translúcido de la pantalla no lo es, como ocurre en muchas configuraciones de X11 y Windows,
+ * se usa TYPE_INT_ARGB_PRE, que se mezcla sin multiplicar cada píxel al dibujarlo.
+ */
+public final class ImageLoader {
+
+    private ImageLoader() {
+        throw new AssertionError("Utility class, not instantiable");
+    }
+
+    /**
+     * Decodifica una imagen del classpath, emitiendo un evento de JFR con la carga.
+     *
+     * @param path Ruta del recurso, relativa al paquete {@code resource}
+     * @return Imagen decodificada
+     * @throws IllegalArgumentException Si la ruta es nula o el recurso no existe
+     * @throws RuntimeException Si la imagen no se puede leer o decodificar
+     */
+    static BufferedImage read(String path) {
+        return decode(readBytes(path), path);
+    }
+
+    /**
+     * Lee sin decodificar el contenido de un recurso del classpath.
+     *
+     * @param path Ruta del recurso, relativa al paquete {@code resource}
+     * @return Bytes del recurso
+     * @throws IllegalArgumentException Si la ruta es nula o el recurso no existe
+     * @throws RuntimeException Si el recurso no se puede leer
+     */
+    static byte[] readBytes(String path) {
+        try (InputStream in = resource(path).openStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load image: " + path, e);
+        }
+    }
+
+    /**
+     * Lee las dimensiones de una imagen del classpath a partir de su cabecera, sin decodificar
+     * los píxeles.
+     *
+     * @param path Ruta del recurso, relativa al paquete {@code resource}
+     * @return Ancho y alto de la imagen
+     * @throws IllegalArgumentException Si la ruta es nula o el recurso no existe
+     * @throws RuntimeException Si el recurso no se puede leer o su formato no está soportado
+     */
+    static Dimension readSize(String path) {
+        try (InputStream raw = resource(path).openStream();
+             ImageInputStream in = ImageIO.createImageInputStream(raw)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new RuntimeException("Unsupported image format: " + path);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load image: " + path, e);
+        }
+    }
+
+    /**
+     * Busca un recurso del classpath.
+     *
+     * @param path Ruta del recurso, relativa al paquete {@code resource}
+     * @return Dirección del recurso
+     * @throws IllegalArgumentException Si la ruta es nula o el recurso no existe
+     */
+    private static URL resource(String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        URL url = ImageLoader.class.getResource(path);
+        if (url == null) {
+            throw new IllegalArgumentException("Resource not found: " + path);
+        }
+        return url;
+    }
+
+    /**
+     * Decodifica el contenido de una imagen, emitiendo un evento de JFR con la carga.
+     *
+     * @param data Bytes de la imagen codificada
+     * @param path Ruta del recurso, para los mensajes y el evento
+     * @return Imagen decodificada
+     * @throws RuntimeException Si la imagen no se puede decodificar
+     */
+    static BufferedImage decode(byte[] data, String path) {
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+            if (image == null) {
+                throw new RuntimeException("Unsupported image format: " + path);
+            }
+            commit(event, path, image, false);
+            return image;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load image: " + path, e);
+        }
+    }
+
+    /**
+     * Completa y emite un evento de carga, si está activado.
+     *
+     * @param event Evento iniciado antes de la carga
+     * @param path Ruta del recurso
+     * @param image Imagen cargada
+     * @param fromDiskCache true si los píxeles se leyeron de la caché en disco
+     */
+    static void commit(AssetLoadEvent event, String path, BufferedImage image, boolean fromDiskCache) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.bytes = (long) image.getWidth() * image.getHeight()
+                    * image.getColorModel().getPixelSize() / 8;
+            event.fromDiskCache = fromDiskCache;
+            event.commit();
+        }
+    }
+
+    /**
+     * Convierte una imagen al formato compatible con la pantalla por defecto.
+     * Sin pantalla ({@code java.awt.headless=true}) se usa TYPE_INT_ARGB_PRE, el formato de
+     * píxeles que mejor rinde en el dibujado por software; también con pantalla para las imágenes
+     * translúcidas si el formato de la pantalla no premultiplica el alfa. Si la imagen ya tiene
+     * el formato de destino se devuelve tal cual.
+     *
+     * @param source Imagen de origen
+     * @return Imagen compatible con el mismo contenido
+     * @throws IllegalArgumentException Si la imagen es nula
+     */
+    public static BufferedImage toCompatible(BufferedImage source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        BufferedImage target;
+        GraphicsConfiguration configuration = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        if (configuration == null || (source.getTransparency() == Transparency.TRANSLUCENT
+                && !configuration.getColorModel(Transparency.TRANSLUCENT).isAlphaPremultiplied())) {
+            if (source.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+                return source;
+            }
+            target = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        } else {
+            if (source.getColorModel().equals(configuration.getColorModel(source.getTransparency()))) {
+                return source;
+            }
+            target = configuration.createCompatibleImage(source.getWidth(), source.getHeight(), source.getTransparency());
+        }
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Crea una imagen translúcida vacía en el mismo formato que {@link #toCompatible(BufferedImage)}:
+     * compatible con la pantalla por defecto si ésta premultiplica el alfa, o TYPE_INT_ARGB_PRE
+     * en caso contrario o sin pantalla.
+     *
+     * @param width Ancho de la imagen
+     * @param height Alto de la imagen
+     * @return Imagen transparente
+     * @throws IllegalArgumentException Si alguna dimensión es menor o igual a 0
+     */
+    public static BufferedImage createTranslucent(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be greater than zero");
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        if (!configuration.getColorModel(Transparency.TRANSLUCENT).isAlphaPremultiplied()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
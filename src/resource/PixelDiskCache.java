@@ -0,0 +1,272 @@
+package resource;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché persistente en disco de imágenes ya decodificadas y convertidas al formato compatible.
+ * Cada recurso se guarda en un fichero binario con sus píxeles ARGB en bruto, precedidos de una
+ * cabecera con el resumen SHA-256 del fichero de origen. En los arranques siguientes el fichero
+ * se proyecta en memoria con {@link FileChannel#map} y se copia directamente a la imagen, sin
+ * pasar por el decodificador PNG.
+ * Si el recurso de origen cambia, el resumen deja de coincidir y la entrada se reconstruye sola;
+ * lo mismo ocurre con ficheros truncados o de otra versión. Cualquier error de disco hace que
+ * se decodifique normalmente, sin propagar la excepción.
+ */
+public final class PixelDiskCache {
+
+    /** Marca de los ficheros de la caché ("SASF") */
+    private static final int MAGIC = 0x53415346;
+
+    /** Versión del formato de fichero */
+    private static final int VERSION = 1;
+
+    /** Longitud del resumen SHA-256 en bytes */
+    private static final int HASH_BYTES = 32;
+
+    /** Tamaño de la cabecera: marca, versión, orden de bytes, tipo, ancho, alto y resumen */
+    private static final int HEADER_BYTES = 6 * Integer.BYTES + HASH_BYTES;
+
+    /** Directorio donde se guardan los ficheros */
+    private final Path directory;
+
+    /** Número de imágenes leídas de disco */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Número de imágenes decodificadas por no estar en disco o estar obsoletas */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Crea una caché en el directorio indicado, que se crea si no existe al guardar la primera imagen.
+     *
+     * @param directory Directorio de la caché
+     * @throws IllegalArgumentException Si el directorio es nulo
+     */
+    public PixelDiskCache(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Obtiene la imagen convertida de un recurso, leyéndola de disco si hay una entrada válida o
+     * decodificándola y guardándola en caso contrario.
+     *
+     * @param key Ruta del recurso, relativa al paquete {@code resource}
+     * @return Imagen en formato compatible
+     * @throws IllegalArgumentException Si la ruta es nula o el recurso no existe
+     * @throws RuntimeException Si la imagen no se puede decodificar
+     */
+    BufferedImage load(String key) {
+        byte[] source = ImageLoader.readBytes(key);
+        byte[] hash = sha256(source);
+        Path file = directory.resolve(fileName(key));
+
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        BufferedImage cached = read(file, hash);
+        if (cached != null) {
+            hits.incrementAndGet();
+            ImageLoader.commit(event, key, cached, true);
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        BufferedImage image = ImageLoader.toCompatible(ImageLoader.decode(source, key));
+        if (isStorable(image)) {
+            write(file, hash, image);
+        }
+        return image;
+    }
+
+    /**
+     * Lee una entrada de disco si existe y es válida para el resumen de origen indicado.
+     *
+     * @param file Fichero de la entrada
+     * @param hash Resumen del recurso de origen
+     * @return Imagen leída, o null si la entrada falta, está obsoleta o dañada
+     */
+    private static BufferedImage read(Path file, byte[] hash) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.nativeOrder());
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION || mapped.getInt() != 1) {
+                return null;
+            }
+            int type = mapped.getInt();
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            byte[] storedHash = new byte[HASH_BYTES];
+            mapped.get(storedHash);
+            if (!Arrays.equals(storedHash, hash) || width <= 0 || height <= 0 || !isStorableType(type)
+                    || size != HEADER_BYTES + (long) width * height * Integer.BYTES) {
+                return null;
+            }
+            int[] pixels = new int[width * height];
+            mapped.asIntBuffer().get(pixels);
+            BufferedImage image = new BufferedImage(width, height, type);
+            // setDataElements copia los píxeles sin dejar la imagen fuera de la aceleración de Java2D
+            image.getRaster().setDataElements(0, 0, width, height, pixels);
+            return image;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Guarda una imagen en disco. Se escribe en un fichero temporal que luego se mueve al destino,
+     * para que otro proceso nunca vea una entrada a medio escribir.
+     *
+     * @param file Fichero de la entrada
+     * @param hash Resumen del recurso de origen
+     * @param image Imagen a guardar
+     */
+    private void write(Path file, byte[] hash, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = (int[]) image.getRaster().getDataElements(0, 0, width, height, null);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + pixels.length * Integer.BYTES)
+                .order(ByteOrder.nativeOrder());
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(1).putInt(image.getType()).putInt(width).putInt(height).put(hash);
+        IntBuffer pixelBuffer = buffer.asIntBuffer();
+        pixelBuffer.put(pixels);
+        buffer.rewind();
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                try {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            // Sin caché en disco la imagen sigue siendo válida; se reintentará en el próximo arranque
+        }
+    }
+
+    /**
+     * Calcula el nombre de fichero de un recurso. Incluye el entorno gráfico, ya que el formato
+     * compatible depende de la pantalla, de modo que cada entorno tiene sus propias entradas.
+     *
+     * @param key Ruta del recurso
+     * @return Nombre de fichero
+     */
+    private static String fileName(String key) {
+        byte[] digest = sha256((environmentTag() + '|' + key).getBytes(StandardCharsets.UTF_8));
+        StringBuilder name = new StringBuilder(HASH_BYTES + 4);
+        for (int i = 0; i < HASH_BYTES / 2; i++) {
+            name.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+        return name.append(".pix").toString();
+    }
+
+    /**
+     * Describe el entorno gráfico del que depende el formato compatible.
+     *
+     * @return Etiqueta del entorno
+     */
+    private static String environmentTag() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return "headless";
+        }
+        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return "screen-" + configuration.getColorModel(Transparency.TRANSLUCENT).getPixelSize()
+                + "-" + configuration.getColorModel(Transparency.OPAQUE).getPixelSize();
+    }
+
+    /**
+     * Indica si una imagen tiene un formato de enteros que la caché sabe guardar.
+     *
+     * @param image Imagen a comprobar
+     * @return true si puede guardarse
+     */
+    private static boolean isStorable(BufferedImage image) {
+        return isStorableType(image.getType());
+    }
+
+    /**
+     * Indica si un tipo de imagen es un formato de un entero por píxel que la caché sabe guardar.
+     *
+     * @param type Tipo de {@link BufferedImage}
+     * @return true si puede guardarse
+     */
+    private static boolean isStorableType(int type) {
+        return type == BufferedImage.TYPE_INT_ARGB_PRE || type == BufferedImage.TYPE_INT_ARGB
+                || type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_BGR;
+    }
+
+    /**
+     * Calcula el resumen SHA-256 de unos datos.
+     *
+     * @param data Datos a resumir
+     * @return Resumen de 32 bytes
+     */
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Obtiene el número de imágenes leídas de disco.
+     *
+     * @return Aciertos de la caché
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Obtiene el número de imágenes decodificadas por faltar en disco o estar obsoletas.
+     *
+     * @return Fallos de la caché
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Obtiene el directorio de la caché.
+     *
+     * @return Directorio donde se guardan los ficheros
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,95 @@
+package resource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga en segundo plano de un conjunto de imágenes, creada con {@link AssetManager#preload}.
+ * El progreso puede consultarse desde el hilo del juego en cada fotograma sin bloquearlo,
+ * por ejemplo para mostrarlo en una escena de carga.
+ */
+public final class PreloadTask {
+
+    /** Referencias a las imágenes precargadas */
+    private final ImageHandle[] handles;
+
+    /** Número de imágenes ya cargadas (con o sin error) */
+    private final AtomicInteger completed = new AtomicInteger();
+
+    /** Futuro que se completa cuando terminan todas las cargas */
+    private final CompletableFuture<Void> future;
+
+    /**
+     * Lanza la carga de las imágenes en el ejecutor indicado.
+     *
+     * @param handles Referencias a las imágenes, de las que la tarea pasa a ser propietaria
+     * @param executor Ejecutor donde se decodifican las imágenes
+     */
+    PreloadTask(ImageHandle[] handles, Executor executor) {
+        this.handles = handles;
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            ImageHandle handle = handles[i];
+            loads[i] = CompletableFuture.runAsync(handle::get, executor)
+                    .whenComplete((ignored, error) -> completed.incrementAndGet());
+        }
+        this.future = CompletableFuture.allOf(loads);
+    }
+
+    /**
+     * Obtiene el futuro que se completa cuando terminan todas las cargas.
+     * Se completa con error si alguna imagen no pudo cargarse, después de intentar el resto.
+     *
+     * @return Futuro de la carga completa
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    /**
+     * Obtiene el número de imágenes cuya carga ha terminado.
+     *
+     * @return Imágenes cargadas
+     */
+    public int getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * Obtiene el número total de imágenes de la tarea.
+     *
+     * @return Imágenes a cargar
+     */
+    public int getTotalCount() {
+        return handles.length;
+    }
+
+    /**
+     * Obtiene la fracción de imágenes cargadas.
+     *
+     * @return Progreso entre 0 y 1
+     */
+    public double getProgress() {
+        return handles.length == 0 ? 1.0 : (double) completed.get() / handles.length;
+    }
+
+    /**
+     * Indica si han terminado todas las cargas.
+     *
+     * @return true si la tarea ha terminado, con o sin errores
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Libera las referencias que mantiene la tarea, para que el gestor pueda descartar las
+     * imágenes que nadie más use. Llamadas posteriores no tienen efecto.
+     */
+    public void release() {
+        for (ImageHandle handle : handles) {
+            handle.release();
+        }
+    }
+}
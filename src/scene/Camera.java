@@ -0,0 +1,136 @@
+package scene;
+
+/**
+ * Cámara 2D con desplazamiento y zoom que determina qué parte del mundo se ve en pantalla.
+ * La vista es el rectángulo del mundo que empieza en la posición de la cámara y mide el tamaño
+ * de la ventana dividido entre el zoom. Sólo afecta a los objetos de juego; los componentes de
+ * la interfaz se siguen dibujando en coordenadas de pantalla.
+ */
+public class Camera {
+
+    /** Ancho de la ventana en píxeles */
+    private final int viewportWidth;
+
+    /** Alto de la ventana en píxeles */
+    private final int viewportHeight;
+
+    /** Coordenada x del mundo que se dibuja en el borde izquierdo */
+    private double x;
+
+    /** Coordenada y del mundo que se dibuja en el borde superior */
+    private double y;
+
+    /** Factor de zoom (1 = un píxel por unidad del mundo) */
+    private double zoom = 1;
+
+    /**
+     * Crea una cámara en el origen, sin zoom.
+     *
+     * @param viewportWidth Ancho de la ventana en píxeles
+     * @param viewportHeight Alto de la ventana en píxeles
+     * @throws IllegalArgumentException Si alguna dimensión es menor o igual a 0
+     */
+    public Camera(int viewportWidth, int viewportHeight) {
+        if (viewportWidth <= 0 || viewportHeight <= 0) {
+            throw new IllegalArgumentException("Viewport width and height must be greater than zero");
+        }
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * Coloca la esquina superior izquierda de la vista en las coordenadas del mundo indicadas.
+     *
+     * @param x Coordenada x del mundo
+     * @param y Coordenada y del mundo
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Desplaza la cámara.
+     *
+     * @param dx Desplazamiento en x en unidades del mundo
+     * @param dy Desplazamiento en y en unidades del mundo
+     */
+    public void move(double dx, double dy) {
+        this.x += dx;
+        this.y += dy;
+    }
+
+    /**
+     * Coloca la cámara de modo que el punto indicado quede en el centro de la vista.
+     *
+     * @param worldX Coordenada x del mundo
+     * @param worldY Coordenada y del mundo
+     */
+    public void centerOn(double worldX, double worldY) {
+        this.x = worldX - getViewWidth() / 2;
+        this.y = worldY - getViewHeight() / 2;
+    }
+
+    /**
+     * Establece el zoom manteniendo fija la esquina superior izquierda de la vista.
+     *
+     * @param zoom Factor de zoom (mayor que 1 acerca, menor que 1 aleja)
+     * @throws IllegalArgumentException Si el zoom es menor o igual a 0
+     */
+    public void setZoom(double zoom) {
+        if (zoom <= 0) {
+            throw new IllegalArgumentException("Zoom must be greater than zero");
+        }
+        this.zoom = zoom;
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Obtiene el ancho de la vista en unidades del mundo.
+     *
+     * @return Ancho visible
+     */
+    public double getViewWidth() {
+        return viewportWidth / zoom;
+    }
+
+    /**
+     * Obtiene el alto de la vista en unidades del mundo.
+     *
+     * @return Alto visible
+     */
+    public double getViewHeight() {
+        return viewportHeight / zoom;
+    }
+
+    /**
+     * Convierte una coordenada x de pantalla (por ejemplo, la del ratón) a coordenadas del mundo.
+     *
+     * @param screenX Coordenada x en píxeles
+     * @return Coordenada x del mundo
+     */
+    public double screenToWorldX(double screenX) {
+        return x + screenX / zoom;
+    }
+
+    /**
+     * Convierte una coordenada y de pantalla (por ejemplo, la del ratón) a coordenadas del mundo.
+     *
+     * @param screenY Coordenada y en píxeles
+     * @return Coordenada y del mundo
+     */
+    public double screenToWorldY(double screenY) {
+        return y + screenY / zoom;
+    }
+}
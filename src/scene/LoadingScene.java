@@ -0,0 +1,66 @@
+package scene;
+
+import components.Action;
+import components.Label;
+import core.Vector2D;
+import resource.PreloadTask;
+
+import java.awt.*;
+
+public class LoadingScene extends Scene {
+
+
+    private final PreloadTask task;
+
+
+    private final Label progressLabel;
+
+
+    // Acción a ejecutar una sola vez cuando termina la carga, normalmente cambiar de escena
+    private Action onComplete;
+
+    private int shownPercent = -1;
+
+    private boolean completed;
+
+    public LoadingScene(PreloadTask task, Vector2D labelPosition, Font font) {
+        super(null);
+        if (task == null) {
+            throw new IllegalArgumentException("Preload task cannot be null");
+        }
+        this.task = task;
+        this.progressLabel = new Label(labelPosition, "", font);
+        addComponent(progressLabel);
+    }
+
+    @Override
+    public void update(double deltaTime) {
+        super.update(deltaTime);
+
+        // El texto sólo se regenera cuando cambia el porcentaje
+        int percent = (int) (task.getProgress() * 100);
+        if (percent != shownPercent) {
+            shownPercent = percent;
+            progressLabel.setText("Loading " + percent + "%");
+        }
+
+        if (!completed && task.isDone()) {
+            completed = true;
+            if (onComplete != null) {
+                onComplete.execute();
+            }
+        }
+    }
+
+    public void setOnComplete(Action onComplete) {
+        this.onComplete = onComplete;
+    }
+
+    public PreloadTask getTask() {
+        return task;
+    }
+
+    public Label getProgressLabel() {
+        return progressLabel;
+    }
+}
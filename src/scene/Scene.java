@@ -1,10 +1,17 @@
 package scene;
 
 import components.Component;
+import components.PointerDispatcher;
+import input.Mouse;
+import physics.GameObject;
 import physics.PhysicsEngine;
+import render.DirtyRegion;
+import render.DrawCommandBuffer;
 
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 public class Scene {
@@ -12,6 +19,35 @@ public class Scene {
 
     private final List<Component> components = new ArrayList<>();
 
+    // Altas y bajas de componentes pedidas mientras se recorre la lista; se aplican al terminar
+    private final List<Component> pendingChanges = new ArrayList<>();
+
+    private final BitSet pendingAdditions = new BitSet();
+
+    private int iterationDepth;
+
+    // Cámara que recorta los objetos de juego a la vista; null dibuja todo sin transformar
+    private Camera camera;
+
+    // Región de pantalla pendiente de redibujar; null si se redibuja todo en cada fotograma
+    private DirtyRegion dirtyRegion;
+
+    // Estado de la cámara en el último fotograma, para redibujar todo si se mueve
+    private double drawnCameraX;
+
+    private double drawnCameraY;
+
+    private double drawnCameraZoom;
+
+    // Objetos de juego que tocan la región sucia, reutilizada entre fotogramas
+    private final List<GameObject> dirtyObjects = new ArrayList<>();
+
+    private final Rectangle dirtyBounds = new Rectangle();
+
+    private final Rectangle dirtyRectangle = new Rectangle();
+
+    // Reparte los eventos del puntero entre los componentes; los registra attach
+    private final PointerDispatcher pointerDispatcher = new PointerDispatcher();
 
     private final PhysicsEngine physicsEngine;
 
@@ -20,8 +56,14 @@ public class Scene {
     }
 
     public void update(double deltaTime) {
-
-        components.forEach(Component::update);
+        iterationDepth++;
+        try {
+            for (int i = 0; i < components.size(); i++) {
+                components.get(i).update();
+            }
+        } finally {
+            endIteration();
+        }
 
 
         if (physicsEngine != null) {
@@ -29,33 +71,263 @@ public class Scene {
         }
     }
 
+    // Entrega a los componentes los eventos del ratón desde la última llamada. Lo llama el motor
+    // antes de update; quien mueva la escena con su propio bucle debe llamarlo también
+    public void dispatchPointerEvents(Mouse mouse) {
+        iterationDepth++;
+        try {
+            pointerDispatcher.dispatch(mouse);
+        } finally {
+            endIteration();
+        }
+    }
+
     public void render(Graphics2D g) {
+        render(g, 1.0);
+    }
+
+    public void render(Graphics2D g, double alpha) {
         if (g == null) {
             throw new NullPointerException("Graphics context cannot be null");
         }
+        SceneRenderEvent event = new SceneRenderEvent();
+        event.begin();
+
+        iterationDepth++;
+        try {
+            for (int i = 0; i < components.size(); i++) {
+                components.get(i).render(g);
+            }
+        } finally {
+            endIteration();
+        }
+
+
+        if (physicsEngine != null && camera != null) {
+            AffineTransform screenTransform = g.getTransform();
+            g.scale(camera.getZoom(), camera.getZoom());
+            g.translate(-camera.getX(), -camera.getY());
+            physicsEngine.forEachGameObjectIn(camera.getX(), camera.getY(),
+                    camera.getX() + camera.getViewWidth(), camera.getY() + camera.getViewHeight(),
+                    gameObject -> gameObject.render(g, alpha));
+            g.setTransform(screenTransform);
+        } else if (physicsEngine != null) {
+            physicsEngine.forEachGameObject(gameObject -> gameObject.render(g, alpha));
+        }
+        commit(event, false);
+    }
+
+    public void record(DrawCommandBuffer buffer, double alpha) {
+        if (buffer == null) {
+            throw new NullPointerException("Command buffer cannot be null");
+        }
+        SceneRenderEvent event = new SceneRenderEvent();
+        event.begin();
 
+        iterationDepth++;
+        try {
+            for (int i = 0; i < components.size(); i++) {
+                components.get(i).record(buffer);
+            }
+        } finally {
+            endIteration();
+        }
 
-        components.forEach(component -> component.render(g));
 
+        if (physicsEngine != null && camera != null) {
+            buffer.setCameraTransform(camera.getZoom(), camera.getX(), camera.getY());
+            physicsEngine.forEachGameObjectIn(camera.getX(), camera.getY(),
+                    camera.getX() + camera.getViewWidth(), camera.getY() + camera.getViewHeight(),
+                    gameObject -> gameObject.record(buffer, alpha));
+            buffer.resetTransform();
+        } else if (physicsEngine != null) {
+            physicsEngine.forEachGameObject(gameObject -> gameObject.record(buffer, alpha));
+        }
+        commit(event, true);
+    }
 
+    // Marca los objetos de juego que se han movido y, si la cámara ha cambiado, toda la pantalla
+    public void collectDirtyRegion(double alpha) {
+        if (dirtyRegion == null) {
+            throw new IllegalStateException("Dirty region tracking is not enabled");
+        }
+        if (physicsEngine == null) {
+            return;
+        }
+        double zoom = camera != null ? camera.getZoom() : 1;
+        double originX = camera != null ? camera.getX() : 0;
+        double originY = camera != null ? camera.getY() : 0;
+        if (zoom != drawnCameraZoom || originX != drawnCameraX || originY != drawnCameraY) {
+            dirtyRegion.addAll();
+            drawnCameraZoom = zoom;
+            drawnCameraX = originX;
+            drawnCameraY = originY;
+        }
+        DirtyRegion region = dirtyRegion;
+        physicsEngine.forEachGameObject(gameObject -> gameObject.invalidateIfMoved(region, alpha, zoom, originX, originY));
+    }
+
+    // Redibuja sólo los rectángulos sucios, recortando a cada uno y borrándolo antes con el color
+    // de fondo del contexto gráfico. La región no se vacía: lo hace quien presenta el fotograma
+    public void renderDirty(Graphics2D g, double alpha) {
+        if (g == null) {
+            throw new NullPointerException("Graphics context cannot be null");
+        }
+        if (dirtyRegion == null) {
+            throw new IllegalStateException("Dirty region tracking is not enabled");
+        }
+        if (dirtyRegion.isEmpty()) {
+            return;
+        }
+        SceneRenderEvent event = new SceneRenderEvent();
+        event.begin();
+
+        dirtyObjects.clear();
         if (physicsEngine != null) {
-            physicsEngine.getGameObjects().forEach(gameObject -> {
-                if (gameObject != null) {
-                    gameObject.render(g);
+            // Una sola consulta al índice para la caja de toda la región; luego se filtra por rectángulo
+            dirtyRegion.getBounds(dirtyBounds);
+            double zoom = camera != null ? camera.getZoom() : 1;
+            double originX = camera != null ? camera.getX() : 0;
+            double originY = camera != null ? camera.getY() : 0;
+            // Se amplía una unidad porque los objetos se dibujan en su posición redondeada
+            physicsEngine.forEachGameObjectIn(originX + dirtyBounds.getMinX() / zoom - 1, originY + dirtyBounds.getMinY() / zoom - 1,
+                    originX + dirtyBounds.getMaxX() / zoom + 1, originY + dirtyBounds.getMaxY() / zoom + 1, dirtyObjects::add);
+        }
+
+        Shape clip = g.getClip();
+        AffineTransform screenTransform = g.getTransform();
+        iterationDepth++;
+        try {
+            for (int r = 0; r < dirtyRegion.size(); r++) {
+                dirtyRegion.getRectangle(r, dirtyRectangle);
+                g.setClip(dirtyRectangle);
+                g.clearRect(dirtyRectangle.x, dirtyRectangle.y, dirtyRectangle.width, dirtyRectangle.height);
+                for (int i = 0; i < components.size(); i++) {
+                    Component component = components.get(i);
+                    if (component.intersects(dirtyRectangle)) {
+                        component.render(g);
+                    }
+                }
+                if (camera != null) {
+                    g.scale(camera.getZoom(), camera.getZoom());
+                    g.translate(-camera.getX(), -camera.getY());
                 }
-            });
+                for (int i = 0; i < dirtyObjects.size(); i++) {
+                    GameObject gameObject = dirtyObjects.get(i);
+                    if (gameObject.intersects(dirtyRectangle)) {
+                        gameObject.render(g, alpha);
+                    }
+                }
+                g.setTransform(screenTransform);
+            }
+        } finally {
+            endIteration();
+            g.setClip(clip);
         }
+        commit(event, false);
+    }
+
+    public DirtyRegion getDirtyRegion() {
+        return dirtyRegion;
+    }
+
+    // Activa el modo de regiones sucias con la región indicada, o lo desactiva con null.
+    // Los componentes marcan en ella sus cambios y la primera vez se redibuja toda la pantalla
+    public void setDirtyRegion(DirtyRegion dirtyRegion) {
+        this.dirtyRegion = dirtyRegion;
+        for (int i = 0; i < components.size(); i++) {
+            components.get(i).setDirtyRegion(dirtyRegion);
+        }
+        if (dirtyRegion != null) {
+            dirtyRegion.addAll();
+        }
+    }
+
+    private void commit(SceneRenderEvent event, boolean recorded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.componentCount = components.size();
+            event.gameObjectCount = physicsEngine != null ? physicsEngine.getGameObjectCount() : 0;
+            event.recorded = recorded;
+            event.commit();
+        }
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+        if (dirtyRegion != null) {
+            dirtyRegion.addAll();
+        }
+    }
+
+    public PointerDispatcher getPointerDispatcher() {
+        return pointerDispatcher;
+    }
+
+    public PhysicsEngine getPhysicsEngine() {
+        return physicsEngine;
     }
 
     public void addComponent(Component component) {
-        if (component != null) {
-            components.add(component);
+        if (component == null) {
+            return;
+        }
+        if (iterationDepth > 0) {
+            pendingAdditions.set(pendingChanges.size());
+            pendingChanges.add(component);
+        } else {
+            attach(component);
         }
     }
 
     public void removeComponent(Component component) {
-        if (component != null) {
-            components.remove(component);
+        if (component == null) {
+            return;
+        }
+        if (iterationDepth > 0) {
+            pendingAdditions.clear(pendingChanges.size());
+            pendingChanges.add(component);
+        } else {
+            detach(component);
+        }
+    }
+
+    private void endIteration() {
+        if (--iterationDepth > 0 || pendingChanges.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < pendingChanges.size(); i++) {
+            if (pendingAdditions.get(i)) {
+                attach(pendingChanges.get(i));
+            } else {
+                detach(pendingChanges.get(i));
+            }
+        }
+        pendingChanges.clear();
+        pendingAdditions.clear();
+    }
+
+    private void attach(Component component) {
+        components.add(component);
+        component.setPointerDispatcher(pointerDispatcher);
+        if (dirtyRegion != null) {
+            component.setDirtyRegion(dirtyRegion);
+            component.invalidate();
+        }
+    }
+
+    private void detach(Component component) {
+        if (!components.remove(component)) {
+            return;
+        }
+        component.setPointerDispatcher(null);
+        if (dirtyRegion != null) {
+            component.invalidate();
+            component.setDirtyRegion(null);
         }
     }
 }
\ No newline at end of file
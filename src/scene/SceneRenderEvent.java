@@ -0,0 +1,30 @@
+package scene;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que abarca el dibujado (o grabado de comandos) de una escena.
+ * Si el evento está desactivado en la configuración de JFR, su coste es prácticamente nulo.
+ */
+@Name("sasf.SceneRender")
+@Label("Scene Render")
+@Category({"SASF Graphics", "Rendering"})
+@Description("Un dibujado de la escena")
+final class SceneRenderEvent extends Event {
+
+    /** Número de componentes de la escena */
+    @Label("Component Count")
+    int componentCount;
+
+    /** Número de objetos de juego de la escena */
+    @Label("Game Object Count")
+    int gameObjectCount;
+
+    /** Indica si se grabaron comandos para el hilo de renderizado en lugar de dibujar */
+    @Label("Recorded")
+    boolean recorded;
+}